@@ -19,14 +19,13 @@ import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
-import org.cloudbus.cloudsim.HostStateHistoryEntry;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.StateHistory;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
-import org.cloudbus.cloudsim.VmStateHistoryEntry;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
 import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
 import org.cloudbus.cloudsim.power.PowerHost;
@@ -199,14 +198,15 @@ public class Helper {
 		for (Host host : hosts) {
 			boolean previousIsActive = true;
 			double lastTimeSwitchedOn = 0;
-			for (HostStateHistoryEntry entry : ((HostDynamicWorkload) host).getStateHistory()) {
-				if (previousIsActive == true && entry.isActive() == false) {
+			StateHistory.Cursor entry = ((HostDynamicWorkload) host).getStateHistoryStore().cursor();
+			while (entry.next()) {
+				if (previousIsActive == true && entry.getFlag() == false) {
 					timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
 				}
-				if (previousIsActive == false && entry.isActive() == true) {
+				if (previousIsActive == false && entry.getFlag() == true) {
 					lastTimeSwitchedOn = entry.getTime();
 				}
-				previousIsActive = entry.isActive();
+				previousIsActive = entry.getFlag();
 			}
 		}
 		return timeBeforeShutdown;
@@ -223,14 +223,15 @@ public class Helper {
 		for (Vm vm : vms) {
 			boolean previousIsInMigration = false;
 			double lastTimeMigrationFinished = 0;
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousIsInMigration == true && entry.isInMigration() == false) {
+			StateHistory.Cursor entry = vm.getStateHistoryStore().cursor();
+			while (entry.next()) {
+				if (previousIsInMigration == true && entry.getFlag() == false) {
 					timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
 				}
-				if (previousIsInMigration == false && entry.isInMigration() == true) {
+				if (previousIsInMigration == false && entry.getFlag() == true) {
 					lastTimeMigrationFinished = entry.getTime();
 				}
-				previousIsInMigration = entry.isInMigration();
+				previousIsInMigration = entry.getFlag();
 			}
 		}
 		return timeBeforeVmMigration;
@@ -505,7 +506,8 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsActive = true;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			StateHistory.Cursor entry = host.getStateHistoryStore().cursor();
+			while (entry.next()) {
 				if (previousTime != -1 && previousIsActive) {
 					double timeDiff = entry.getTime() - previousTime;
 					totalTime += timeDiff;
@@ -517,7 +519,7 @@ public class Helper {
 				previousAllocated = entry.getAllocatedMips();
 				previousRequested = entry.getRequestedMips();
 				previousTime = entry.getTime();
-				previousIsActive = entry.isActive();
+				previousIsActive = entry.getFlag();
 			}
 		}
 
@@ -540,7 +542,8 @@ public class Helper {
 			double previousAllocated = 0;
 			double previousRequested = 0;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			StateHistory.Cursor entry = host.getStateHistoryStore().cursor();
+			while (entry.next()) {
 				if (previousTime != -1) {
 					double timeDiff = entry.getTime() - previousTime;
 					totalTime += timeDiff;
@@ -580,7 +583,8 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsInMigration = false;
 			// 虚拟机状态的历史
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
+			StateHistory.Cursor entry = vm.getStateHistoryStore().cursor();
+			while (entry.next()) {
 				if (previousTime != -1) {//第一次分配
 					double timeDiff = entry.getTime() - previousTime;
 					vmTotalAllocated += previousAllocated * timeDiff;
@@ -598,7 +602,7 @@ public class Helper {
 				previousAllocated = entry.getAllocatedMips();
 				previousRequested = entry.getRequestedMips();
 				previousTime = entry.getTime();
-				previousIsInMigration = entry.isInMigration();
+				previousIsInMigration = entry.getFlag();
 			}
 
 			totalAllocated += vmTotalAllocated;
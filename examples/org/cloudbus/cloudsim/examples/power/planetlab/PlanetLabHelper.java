@@ -6,9 +6,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.PlanetLabTraceStore;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
 import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabMapped;
 import org.cloudbus.cloudsim.examples.power.Constants;
 
 /**
@@ -70,4 +72,47 @@ public class PlanetLabHelper {
 		return list;
 	}
 
+	/**
+	 * Creates the cloudlet list planet lab from a trace store, converted from a workload folder
+	 * with {@link PlanetLabTraceStore#convert(String, String, int)}. The cloudlets are the same as
+	 * the ones created from the workload folder.
+	 *
+	 * @param brokerId the broker id
+	 * @param storePath the path of the trace store
+	 * @return the list
+	 */
+	public static List<Cloudlet> createCloudletListPlanetLabFromStore(int brokerId, String storePath) {
+		List<Cloudlet> list = new ArrayList<Cloudlet>();
+
+		long fileSize = 300;
+		long outputSize = 300;
+		UtilizationModel utilizationModelNull = new UtilizationModelNull();
+
+		PlanetLabTraceStore store = null;
+		try {
+			store = PlanetLabTraceStore.open(storePath);
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+
+		for (int i = 0; i < store.size(); i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					Constants.CLOUDLET_LENGTH,
+					Constants.CLOUDLET_PES,
+					fileSize,
+					outputSize,
+					new UtilizationModelPlanetLabMapped(
+							store,
+							i,
+							Constants.SCHEDULING_INTERVAL), utilizationModelNull, utilizationModelNull);
+			cloudlet.setUserId(brokerId);
+			cloudlet.setVmId(i);
+			list.add(cloudlet);
+		}
+
+		return list;
+	}
+
 }
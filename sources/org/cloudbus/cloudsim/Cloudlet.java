@@ -96,6 +96,9 @@ public class Cloudlet {
 	/** 通过网络发送云任务的TOS The ToS for sending Cloudlet over the network. */
 	private int netToS;
 
+	/** 云任务到达（由用户提交）的时间 The time at which this Cloudlet arrives at its user/broker. */
+	private double arrivalTime;
+
 	// //////////////////////////////////////////
 	// Below are CONSTANTS attributes
 	/** The Cloudlet has been created and added to the CloudletList object. */
@@ -163,6 +166,16 @@ public class Cloudlet {
 	// 带宽使用模型
 	private UtilizationModel utilizationModelBw;
 
+	/** The last cpu utilization read from the model, with its time; null if none. */
+	// 最近一次读取CPU使用率的时间及其结果，同一时刻的重复调用不再计算模型
+	private UtilizationSample utilizationOfCpu;
+
+	/** The last memory utilization read from the model, with its time; null if none. */
+	private UtilizationSample utilizationOfRam;
+
+	/** The last bw utilization read from the model, with its time; null if none. */
+	private UtilizationSample utilizationOfBw;
+
 	// Data cloudlet
 	/** The required files. */
 	// 请求文件列表名
@@ -355,6 +368,7 @@ public class Cloudlet {
 		finishTime = -1.0;    // meaning this Cloudlet hasn't finished yet
 		classType = 0;
 		netToS = 0;
+		arrivalTime = 0.0;
 
 		// Cloudlet length, Input and Output size should be at least 1 byte.
 		this.cloudletLength = Math.max(1, cloudletLength);
@@ -419,6 +433,33 @@ public class Cloudlet {
 
 	} // end of internal class
 
+	/**
+	 * Internal class that holds a utilization read from a model, with its time. A sample is never
+	 * changed, so that a thread reading the sample kept by a cloudlet while another thread replaces
+	 * it sees either the old or the new sample, never the time of one with the value of the other.
+	 */
+	// 内部类：模型在某一时刻的使用率，不可变
+	private static final class UtilizationSample {
+
+		/** The time. */
+		private final double time;
+
+		/** The utilization. */
+		private final double value;
+
+		/**
+		 * Instantiates a new sample.
+		 * 
+		 * @param time the time
+		 * @param value the utilization
+		 */
+		private UtilizationSample(double time, double value) {
+			this.time = time;
+			this.value = value;
+		}
+
+	} // end of internal class
+
 	// ////////////////////// End of Internal Class //////////////////////////
 
 	/**
@@ -832,6 +873,30 @@ public class Cloudlet {
 		return execStartTime;
 	}
 
+	/**
+	 * Sets the arrival time of this Cloudlet, i.e. the time at which its user submits it. A
+	 * broker streaming cloudlets only sends this Cloudlet to a CloudResource once the simulation
+	 * clock reaches this time.
+	 * 
+	 * @param arrivalTime the arrival time
+	 * @pre arrivalTime >= 0.0
+	 * @post $none
+	 */
+	public void setArrivalTime(final double arrivalTime) {
+		this.arrivalTime = arrivalTime;
+	}
+
+	/**
+	 * Gets the arrival time of this Cloudlet.
+	 * 
+	 * @return the arrival time, <tt>0</tt> by default
+	 * @pre $none
+	 * @post $result >= 0.0
+	 */
+	public double getArrivalTime() {
+		return arrivalTime;
+	}
+
 	/**
 	 * Sets this Cloudlet's execution parameters. These parameters are set by the CloudResource
 	 * before departure or sending back to the original Cloudlet's owner.
@@ -1422,6 +1487,7 @@ public class Cloudlet {
 	 */
 	public void setUtilizationModelCpu(final UtilizationModel utilizationModelCpu) {
 		this.utilizationModelCpu = utilizationModelCpu;
+		utilizationOfCpu = null;
 	}
 
 	/**
@@ -1440,6 +1506,7 @@ public class Cloudlet {
 	 */
 	public void setUtilizationModelRam(final UtilizationModel utilizationModelRam) {
 		this.utilizationModelRam = utilizationModelRam;
+		utilizationOfRam = null;
 	}
 
 	/**
@@ -1458,36 +1525,66 @@ public class Cloudlet {
 	 */
 	public void setUtilizationModelBw(final UtilizationModel utilizationModelBw) {
 		this.utilizationModelBw = utilizationModelBw;
+		utilizationOfBw = null;
 	}
 
 	/**
-	 * Gets the total utilization of cpu.
+	 * Gets the total utilization of cpu. The utilization of the latest time asked for is kept, so
+	 * that the model is read once per time. This assumes that the utilization of the model is a
+	 * function of the time only: a model that gives another utilization when asked again for the
+	 * same time, e.g. one drawing a new random value on each call, or one whose trace is changed,
+	 * now gives the first one, unless {@link #clearUtilizationCache()} is called in between.
 	 * 
 	 * @param time the time
 	 * @return the utilization of cpu
 	 */
 	public double getUtilizationOfCpu(final double time) {
-		return getUtilizationModelCpu().getUtilization(time);
+		UtilizationSample sample = utilizationOfCpu;
+		if (sample == null || sample.time != time) {
+			sample = new UtilizationSample(time, getUtilizationModelCpu().getUtilization(time));
+			utilizationOfCpu = sample;
+		}
+		return sample.value;
 	}
 
 	/**
-	 * Gets the utilization of memory.
+	 * Gets the utilization of memory, read once per time as the utilization of cpu is.
 	 * 
 	 * @param time the time
 	 * @return the utilization of memory
 	 */
 	public double getUtilizationOfRam(final double time) {
-		return getUtilizationModelRam().getUtilization(time);
+		UtilizationSample sample = utilizationOfRam;
+		if (sample == null || sample.time != time) {
+			sample = new UtilizationSample(time, getUtilizationModelRam().getUtilization(time));
+			utilizationOfRam = sample;
+		}
+		return sample.value;
 	}
 
 	/**
-	 * Gets the utilization of bw.
+	 * Gets the utilization of bw, read once per time as the utilization of cpu is.
 	 * 
 	 * @param time the time
 	 * @return the utilization of bw
 	 */
 	public double getUtilizationOfBw(final double time) {
-		return getUtilizationModelBw().getUtilization(time);
+		UtilizationSample sample = utilizationOfBw;
+		if (sample == null || sample.time != time) {
+			sample = new UtilizationSample(time, getUtilizationModelBw().getUtilization(time));
+			utilizationOfBw = sample;
+		}
+		return sample.value;
+	}
+
+	/**
+	 * Forgets the utilizations kept from the models, for models whose utilization at a time has
+	 * changed, such as a {@link UtilizationModelStochastic} loading its history.
+	 */
+	public void clearUtilizationCache() {
+		utilizationOfCpu = null;
+		utilizationOfRam = null;
+		utilizationOfBw = null;
 	}
 
 }
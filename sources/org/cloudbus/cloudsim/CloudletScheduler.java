@@ -10,6 +10,8 @@ package org.cloudbus.cloudsim;
 
 import java.util.List;
 
+import org.cloudbus.cloudsim.util.MathUtil;
+
 /**
  * 表示VM执行的调度策略的抽象类。所以，继承该类的类必须执行cloudlet。同时，cloudlet的管理接口在该类实现。
  * CloudletScheduler is an abstract class that represents the policy of scheduling performed by a
@@ -26,7 +28,10 @@ public abstract class CloudletScheduler {
 	private double previousTime;
 
 	/** 当前虚拟机可用的处理资源列表 The current mips share. */
-	private List<Double> currentMipsShare;
+	private double[] currentMipsShare;
+
+	/** The list view of the current mips share, created on demand. */
+	private List<Double> currentMipsShareList;
 
 	/**
 	 * Creates a new CloudletScheduler object. This method must be invoked before starting the
@@ -43,7 +48,7 @@ public abstract class CloudletScheduler {
 	 * 更新调度器下面管理的cloudset的处理 Updates the processing of cloudlets running under management of this scheduler.
 	 * 
 	 * @param currentTime current simulation time
-	 * @param mipsShare array with MIPS share of each processor available to the scheduler
+	 * @param mipsShare list with MIPS share of each processor available to the scheduler
 	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is no
 	 *         next events
 	 * @pre currentTime >= 0
@@ -51,6 +56,23 @@ public abstract class CloudletScheduler {
 	 */
 	public abstract double updateVmProcessing(double currentTime, List<Double> mipsShare);
 
+	/**
+	 * Updates the processing of cloudlets running under management of this scheduler, given the
+	 * MIPS share as an array. This is the method called by the VMs; by default, it is an adapter of
+	 * {@link #updateVmProcessing(double, List)}. Schedulers override it to work on the array
+	 * directly, and then make the list version call it.
+	 * 
+	 * @param currentTime current simulation time
+	 * @param mipsShare array with MIPS share of each processor available to the scheduler
+	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is no
+	 *         next events
+	 * @pre currentTime >= 0
+	 * @post $none
+	 */
+	public double updateVmProcessing(double currentTime, double[] mipsShare) {
+		return updateVmProcessing(currentTime, mipsShare == null ? null : MathUtil.arrayToList(mipsShare));
+	}
+
 	/**
 	 * Receives an cloudlet to be executed in the VM managed by this scheduler.
 	 * 
@@ -172,6 +194,16 @@ public abstract class CloudletScheduler {
 	 */
 	public abstract List<Double> getCurrentRequestedMips();
 
+	/**
+	 * Gets the current requested mips as an array. Subclasses that compute the request per tick
+	 * should override this method to avoid building a list.
+	 * 
+	 * @return the current mips
+	 */
+	public double[] getCurrentRequestedMipsArray() {
+		return MathUtil.listToArray(getCurrentRequestedMips());
+	}
+
 	/**
 	 * Gets the total current mips for the Cloudlet.
 	 * 
@@ -181,6 +213,17 @@ public abstract class CloudletScheduler {
 	 */
 	public abstract double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare);
 
+	/**
+	 * Gets the total current mips for the Cloudlet.
+	 * 
+	 * @param rcl the rcl
+	 * @param mipsShare the mips share
+	 * @return the total current mips
+	 */
+	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, double[] mipsShare) {
+		return getTotalCurrentAvailableMipsForCloudlet(rcl, mipsShare == null ? null : MathUtil.arrayToList(mipsShare));
+	}
+
 	/**
 	 * Gets the total current requested mips for cloudlet.
 	 * 
@@ -231,13 +274,33 @@ public abstract class CloudletScheduler {
 		this.previousTime = previousTime;
 	}
 
+	/**
+	 * Sets the current mips share. The array is kept, not copied, and must not be modified
+	 * afterwards.
+	 * 
+	 * @param currentMipsShare the new current mips share
+	 */
+	protected void setCurrentMipsShare(double[] currentMipsShare) {
+		this.currentMipsShare = currentMipsShare;
+		currentMipsShareList = null;
+	}
+
 	/**
 	 * Sets the current mips share.
 	 * 
 	 * @param currentMipsShare the new current mips share
 	 */
 	protected void setCurrentMipsShare(List<Double> currentMipsShare) {
-		this.currentMipsShare = currentMipsShare;
+		setCurrentMipsShare(currentMipsShare == null ? null : MathUtil.listToArray(currentMipsShare));
+	}
+
+	/**
+	 * Gets the current mips share as an array, which must not be modified.
+	 * 
+	 * @return the current mips share
+	 */
+	public double[] getCurrentMipsShareArray() {
+		return currentMipsShare;
 	}
 
 	/**
@@ -246,7 +309,10 @@ public abstract class CloudletScheduler {
 	 * @return the current mips share
 	 */
 	public List<Double> getCurrentMipsShare() {
-		return currentMipsShare;
+		if (currentMipsShareList == null && currentMipsShare != null) {
+			currentMipsShareList = MathUtil.arrayToList(currentMipsShare);
+		}
+		return currentMipsShareList;
 	}
 
 }
@@ -8,11 +8,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.IntDoubleMap;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * CloudletSchedulerDynamicWorkload implements a policy of scheduling performed by a virtual machine
@@ -32,14 +33,17 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	/** The total mips. */
 	private double totalMips;
 
-	/** The under allocated mips. */
-	private Map<String, Double> underAllocatedMips;
+	/**
+	 * The under allocated mips, keyed by cloudlet id. All the cloudlets of a VM belong to the
+	 * owner of the VM, so the id is unique in the scheduler.
+	 */
+	private IntDoubleMap underAllocatedMips;
 
 	/** The cache previous time. */
 	private double cachePreviousTime;
 
 	/** The cache current requested mips. */
-	private List<Double> cacheCurrentRequestedMips;
+	private double[] cacheCurrentRequestedMips;
 
 	/**
 	 * Instantiates a new vM scheduler time shared.
@@ -52,7 +56,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 		setMips(mips);
 		setNumberOfPes(numberOfPes);
 		setTotalMips(getNumberOfPes() * getMips());
-		setUnderAllocatedMips(new HashMap<String, Double>());
+		setUnderAllocatedMips(new IntDoubleMap());
 		setCachePreviousTime(-1);
 	}
 
@@ -67,18 +71,21 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 * @post $none
 	 */
 	@Override
-	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+	public double updateVmProcessing(double currentTime, double[] mipsShare) {
 		setCurrentMipsShare(mipsShare);
 
 		double timeSpan = currentTime - getPreviousTime();
 		double nextEvent = Double.MAX_VALUE;
-		List<ResCloudlet> cloudletsToFinish = new ArrayList<ResCloudlet>();
+		List<ResCloudlet> cloudletsToFinish = null;
 
 		for (ResCloudlet rcl : getCloudletExecList()) {
 			rcl.updateCloudletFinishedSoFar((long) (timeSpan
 					* getTotalCurrentAllocatedMipsForCloudlet(rcl, getPreviousTime()) * Consts.MILLION));
 
 			if (rcl.getRemainingCloudletLength() == 0) { // finished: remove from the list
+				if (cloudletsToFinish == null) {
+					cloudletsToFinish = new ArrayList<ResCloudlet>();
+				}
 				cloudletsToFinish.add(rcl);
 				continue;
 			} else { // not finish: estimate the finish time
@@ -92,9 +99,11 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 			}
 		}
 
-		for (ResCloudlet rgl : cloudletsToFinish) {
-			getCloudletExecList().remove(rgl);
-			cloudletFinish(rgl);
+		if (cloudletsToFinish != null) {
+			for (ResCloudlet rgl : cloudletsToFinish) {
+				getCloudletExecList().remove(rgl);
+				cloudletFinish(rgl);
+			}
 		}
 
 		setPreviousTime(currentTime);
@@ -177,19 +186,27 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 */
 	@Override
 	public List<Double> getCurrentRequestedMips() {
+		return MathUtil.arrayToList(getCurrentRequestedMipsArray());
+	}
+
+	/**
+	 * Gets the current mips, computed once per time step.
+	 * 
+	 * @return the current mips
+	 */
+	@Override
+	public double[] getCurrentRequestedMipsArray() {
 		if (getCachePreviousTime() == getPreviousTime()) {
-			return getCacheCurrentRequestedMips();
+			return cacheCurrentRequestedMips;
 		}
-		List<Double> currentMips = new ArrayList<Double>();
 		double totalMips = getTotalUtilizationOfCpu(getPreviousTime()) * getTotalMips();
 		double mipsForPe = totalMips / getNumberOfPes();
 
-		for (int i = 0; i < getNumberOfPes(); i++) {
-			currentMips.add(mipsForPe);
-		}
+		double[] currentMips = new double[getNumberOfPes()];
+		Arrays.fill(currentMips, mipsForPe);
 
 		setCachePreviousTime(getPreviousTime());
-		setCacheCurrentRequestedMips(currentMips);
+		cacheCurrentRequestedMips = currentMips;
 
 		return currentMips;
 	}
@@ -215,6 +232,18 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 */
 	@Override
 	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+		return getTotalCurrentAvailableMipsForCloudlet(rcl, mipsShare == null ? null : MathUtil.listToArray(mipsShare));
+	}
+
+	/**
+	 * Gets the total current mips for the clouddlet.
+	 * 
+	 * @param rcl the rcl
+	 * @param mipsShare the mips share
+	 * @return the total current mips
+	 */
+	@Override
+	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, double[] mipsShare) {
 		double totalCurrentMips = 0.0;
 		if (mipsShare != null) {
 			int neededPEs = rcl.getNumberOfPes();
@@ -239,7 +268,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	@Override
 	public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
 		double totalCurrentRequestedMips = getTotalCurrentRequestedMipsForCloudlet(rcl, time);
-		double totalCurrentAvailableMips = getTotalCurrentAvailableMipsForCloudlet(rcl, getCurrentMipsShare());
+		double totalCurrentAvailableMips = getTotalCurrentAvailableMipsForCloudlet(rcl, getCurrentMipsShareArray());
 		if (totalCurrentRequestedMips > totalCurrentAvailableMips) {
 			return totalCurrentAvailableMips;
 		}
@@ -253,10 +282,8 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 * @param mips the mips
 	 */
 	public void updateUnderAllocatedMipsForCloudlet(ResCloudlet rcl, double mips) {
-		if (getUnderAllocatedMips().containsKey(rcl.getUid())) {
-			mips += getUnderAllocatedMips().get(rcl.getUid());
-		}
-		getUnderAllocatedMips().put(rcl.getUid(), mips);
+		int cloudletId = rcl.getCloudletId();
+		getUnderAllocatedMips().put(cloudletId, getUnderAllocatedMips().get(cloudletId) + mips);
 	}
 
 	/**
@@ -278,7 +305,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 */
 	public int getTotalCurrentMips() {
 		int totalCurrentMips = 0;
-		for (double mips : getCurrentMipsShare()) {
+		for (double mips : getCurrentMipsShareArray()) {
 			totalCurrentMips += mips;
 		}
 		return totalCurrentMips;
@@ -343,7 +370,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 * 
 	 * @param underAllocatedMips the under allocated mips
 	 */
-	public void setUnderAllocatedMips(Map<String, Double> underAllocatedMips) {
+	public void setUnderAllocatedMips(IntDoubleMap underAllocatedMips) {
 		this.underAllocatedMips = underAllocatedMips;
 	}
 
@@ -352,7 +379,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 * 
 	 * @return the under allocated mips
 	 */
-	public Map<String, Double> getUnderAllocatedMips() {
+	public IntDoubleMap getUnderAllocatedMips() {
 		return underAllocatedMips;
 	}
 
@@ -380,7 +407,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 * @return the cache current requested mips
 	 */
 	protected List<Double> getCacheCurrentRequestedMips() {
-		return cacheCurrentRequestedMips;
+		return cacheCurrentRequestedMips == null ? null : MathUtil.arrayToList(cacheCurrentRequestedMips);
 	}
 
 	/**
@@ -389,7 +416,8 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 * @param cacheCurrentRequestedMips the new cache current requested mips
 	 */
 	protected void setCacheCurrentRequestedMips(List<Double> cacheCurrentRequestedMips) {
-		this.cacheCurrentRequestedMips = cacheCurrentRequestedMips;
+		this.cacheCurrentRequestedMips = cacheCurrentRequestedMips == null ? null : MathUtil
+				.listToArray(cacheCurrentRequestedMips);
 	}
 
 }
@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * CloudletSchedulerSpaceShared implements a policy of scheduling performed by a virtual machine. It
@@ -61,6 +62,15 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		currentCpus = 0;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#updateVmProcessing(double, java.util.List)
+	 */
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		return updateVmProcessing(currentTime, mipsShare == null ? null : MathUtil.listToArray(mipsShare));
+	}
+
 	/**
 	 * Updates the processing of cloudlets running under management of this scheduler.
 	 * 
@@ -72,13 +82,13 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	 * @post $none
 	 */
 	@Override
-	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+	public double updateVmProcessing(double currentTime, double[] mipsShare) {
 		setCurrentMipsShare(mipsShare);
 		double timeSpam = currentTime - getPreviousTime(); // time since last update
 		double capacity = 0.0;
 		int cpus = 0;
 
-		for (Double mips : mipsShare) { // count the CPUs available to the VMM
+		for (double mips : mipsShare) { // count the CPUs available to the VMM
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -318,7 +328,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 				// calculate the expected time for cloudlet completion
 				double capacity = 0.0;
 				int cpus = 0;
-				for (Double mips : getCurrentMipsShare()) {
+				for (double mips : getCurrentMipsShareArray()) {
 					capacity += mips;
 					if (mips > 0) {
 						cpus++;
@@ -380,7 +390,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		// calculate the expected time for cloudlet completion
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : getCurrentMipsShare()) {
+		for (double mips : getCurrentMipsShareArray()) {
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -608,6 +618,18 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		return mipsShare;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#getCurrentRequestedMipsArray()
+	 */
+	@Override
+	public double[] getCurrentRequestedMipsArray() {
+		if (getCurrentMipsShareArray() == null) {
+			return new double[0];
+		}
+		return getCurrentMipsShareArray();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * 实现timeshared的调度
@@ -35,6 +36,9 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	/** 当前CPU数 The current cp us. */
 	protected int currentCPUs;
 
+	/** The empty mips request. */
+	private static final double[] NO_MIPS = new double[0];
+
 	/**
 	 * Creates a new CloudletSchedulerTimeShared object. This method must be invoked before starting
 	 * the actual simulation.
@@ -50,6 +54,15 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		currentCPUs = 0;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#updateVmProcessing(double, java.util.List)
+	 */
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		return updateVmProcessing(currentTime, mipsShare == null ? null : MathUtil.listToArray(mipsShare));
+	}
+
 	/**
 	 * Updates the processing of cloudlets running under management of this scheduler.
 	 * 更新云任务的执行进度，根据currentTime和preciousTime之间的差值，作为时间片，更新正在执行的云任务的进度
@@ -63,14 +76,17 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 * @post $none
 	 */
 	@Override
-	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+	public double updateVmProcessing(double currentTime, double[] mipsShare) {
 		setCurrentMipsShare(mipsShare);
 		double timeSpam = currentTime - getPreviousTime();
 
 		// 更新正在执行的任务列表中的所有任务的进度条
-		for (ResCloudlet rcl : getCloudletExecList()) {
+		if (!getCloudletExecList().isEmpty()) {
 			//注意getCapacity的实现,这里将所有的处理器的处理能力均分给所有的处理单元
-			rcl.updateCloudletFinishedSoFar((long) (getCapacity(mipsShare) * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
+			double capacity = getCapacity(mipsShare);
+			for (ResCloudlet rcl : getCloudletExecList()) {
+				rcl.updateCloudletFinishedSoFar((long) (capacity * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
+			}
 		}
 		
 		// 更新previousTime
@@ -118,9 +134,19 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 * @return the capacity
 	 */
 	protected double getCapacity(List<Double> mipsShare) {
+		return getCapacity(MathUtil.listToArray(mipsShare));
+	}
+
+	/**
+	 * Gets the capacity.
+	 * 
+	 * @param mipsShare the mips share
+	 * @return the capacity
+	 */
+	protected double getCapacity(double[] mipsShare) {
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : mipsShare) {
+		for (double mips : mipsShare) {
 			capacity += mips;
 			if (mips > 0.0) {
 				cpus++;
@@ -290,7 +316,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 
 			double remainingLength = rgl.getRemainingCloudletLength();
 			double estimatedFinishTime = CloudSim.clock()
-					+ (remainingLength / (getCapacity(getCurrentMipsShare()) * rgl.getNumberOfPes()));
+					+ (remainingLength / (getCapacity(getCurrentMipsShareArray()) * rgl.getNumberOfPes()));
 
 			return estimatedFinishTime;
 		}
@@ -319,11 +345,11 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 
 		// use the current capacity to estimate the extra amount of
 		// time to file transferring. It must be added to the cloudlet length
-		double extraSize = getCapacity(getCurrentMipsShare()) * fileTransferTime;
+		double extraSize = getCapacity(getCurrentMipsShareArray()) * fileTransferTime;
 		long length = (long) (cloudlet.getCloudletLength() + extraSize);//计算出云任务需要花费的执行时间
 		cloudlet.setCloudletLength(length);
 
-		return cloudlet.getCloudletLength() / getCapacity(getCurrentMipsShare());
+		return cloudlet.getCloudletLength() / getCapacity(getCurrentMipsShareArray());
 	}
 
 	/*
@@ -373,6 +399,25 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		return totalUtilization;
 	}
 
+	/**
+	 * Gets the cpu utilization of each cloudlet in execution, in the order of the execution list.
+	 * 
+	 * @param time the time
+	 * @param utilizations the array to fill, or null; a new array is made if it is too short
+	 * @return the utilizations, in the given array if it is long enough
+	 */
+	public double[] getUtilizationsOfCpu(double time, double[] utilizations) {
+		int size = getCloudletExecList().size();
+		if (utilizations == null || utilizations.length < size) {
+			utilizations = new double[size];
+		}
+		int i = 0;
+		for (ResCloudlet rcl : getCloudletExecList()) {
+			utilizations[i++] = rcl.getCloudlet().getUtilizationOfCpu(time);
+		}
+		return utilizations;
+	}
+
 	/**
 	 * Informs about completion of some cloudlet in the VM managed by this scheduler.
 	 * 
@@ -499,6 +544,15 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		return mipsShare;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getCurrentRequestedMipsArray()
+	 */
+	@Override
+	public double[] getCurrentRequestedMipsArray() {
+		return NO_MIPS;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.CloudletScheduler#getTotalCurrentAvailableMipsForCloudlet(cloudsim.ResCloudlet,
@@ -506,7 +560,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
-		return getCapacity(getCurrentMipsShare());
+		return getCapacity(getCurrentMipsShareArray());
 	}
 
 	/*
@@ -8,8 +8,10 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -52,6 +54,9 @@ public class Datacenter extends SimEntity {
 	/** 调度间隔The scheduling interval. */
 	private double schedulingInterval;
 
+	/** 是否将完成的云任务按代理批量返回 Whether finished cloudlets are returned to brokers in batches. */
+	private boolean cloudletReturnBatched;
+
 	/**
 	 * Allocates a new PowerDatacenter object.
 	 * 
@@ -213,6 +218,14 @@ public class Datacenter extends SimEntity {
 			case CloudSimTags.VM_CREATE_ACK:
 				processVmCreate(ev, true);
 				break;
+			// 批量创建虚拟机 Creates several VMs at once
+			case CloudSimTags.VM_CREATE_BATCH:
+				processVmCreateBatch(ev, false);
+				break;
+
+			case CloudSimTags.VM_CREATE_BATCH_ACK:
+				processVmCreateBatch(ev, true);
+				break;
 
 			case CloudSimTags.VM_DESTROY:
 				processVmDestroy(ev, false);
@@ -446,16 +459,71 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (result) {//如果创建虚拟机成功
-			getVmList().add(vm);//将虚拟机加入数据中心的虚拟机列表
+			processVmCreated(vm);
+		}
 
-			if (vm.isBeingInstantiated()) {//虚拟机实例化完成，重置标志位
-				vm.setBeingInstantiated(false);
+	}
+
+	/**
+	 * Process the event for an User/Broker who wants to create several VMs in this PowerDatacenter
+	 * at once. The VMs are placed in bulk by the VmAllocationPolicy, and each owner receives a
+	 * single ack holding the result of all its VMs.
+	 * 
+	 * @param ev a Sim_event object whose data is a <tt>Vm[]</tt>
+	 * @param ack the ack
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmCreateBatch(SimEvent ev, boolean ack) {
+		Vm[] vms = (Vm[]) ev.getData();
+		boolean[] results = getVmAllocationPolicy().allocateHostsForVms(Arrays.asList(vms));
+
+		if (ack) {
+			// one ack per owner: [datacenter id, vm id, result, vm id, result, ...]
+			Map<Integer, Integer> ackSizes = new LinkedHashMap<Integer, Integer>();
+			for (Vm vm : vms) {
+				Integer size = ackSizes.get(vm.getUserId());
+				ackSizes.put(vm.getUserId(), size == null ? 1 : size + 1);
 			}
+			for (Map.Entry<Integer, Integer> entry : ackSizes.entrySet()) {
+				int userId = entry.getKey();
+				int[] data = new int[1 + 2 * entry.getValue()];
+				data[0] = getId();
+				int j = 1;
+				for (int i = 0; i < vms.length; i++) {
+					if (vms[i].getUserId() == userId) {
+						data[j++] = vms[i].getId();
+						data[j++] = results[i] ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+					}
+				}
+				send(userId, CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_BATCH_ACK, data);
+			}
+		}
+
+		for (int i = 0; i < vms.length; i++) {
+			if (results[i]) {
+				processVmCreated(vms[i]);
+			}
+		}
+	}
+
+	/**
+	 * Registers a VM that has just been placed on a host of this PowerDatacenter and starts its
+	 * processing.
+	 * 
+	 * @param vm the created vm
+	 * @pre vm != null
+	 * @post $none
+	 */
+	protected void processVmCreated(Vm vm) {
+		getVmList().add(vm);//将虚拟机加入数据中心的虚拟机列表
 
-			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
-					.getAllocatedMipsForVm(vm));//getAllocatedMipsForVm获取分配给虚拟机的处理资源列表
+		if (vm.isBeingInstantiated()) {//虚拟机实例化完成，重置标志位
+			vm.setBeingInstantiated(false);
 		}
 
+		vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
+				.getAllocatedMipsArrayForVm(vm));//getAllocatedMipsForVm获取分配给虚拟机的处理资源列表
 	}
 
 	/**
@@ -902,6 +970,11 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void checkCloudletCompletion() {
+		if (isCloudletReturnBatched()) {
+			checkCloudletCompletionBatched();
+			return;
+		}
+
 		List<? extends Host> list = getVmAllocationPolicy().getHostList();
 		for (int i = 0; i < list.size(); i++) {
 			Host host = list.get(i);
@@ -916,6 +989,50 @@ public class Datacenter extends SimEntity {
 		}
 	}
 
+	/**
+	 * Verifies if some cloudlet inside this PowerDatacenter already finished. All the cloudlets
+	 * finished at the current time are grouped by owner, and each User/Broker receives them in a
+	 * single {@link CloudSimTags#CLOUDLET_RETURN_BATCH} event.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void checkCloudletCompletionBatched() {
+		Map<Integer, List<Cloudlet>> finishedCloudlets = null;
+		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+		for (int i = 0; i < list.size(); i++) {
+			Host host = list.get(i);
+			for (Vm vm : host.getVmList()) {
+				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
+					Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
+					if (cl == null) {
+						continue;
+					}
+					if (finishedCloudlets == null) {
+						// keeps the owners in order of completion, so event order is deterministic
+						finishedCloudlets = new LinkedHashMap<Integer, List<Cloudlet>>();
+					}
+					List<Cloudlet> userCloudlets = finishedCloudlets.get(cl.getUserId());
+					if (userCloudlets == null) {
+						userCloudlets = new ArrayList<Cloudlet>();
+						finishedCloudlets.put(cl.getUserId(), userCloudlets);
+					}
+					userCloudlets.add(cl);
+				}
+			}
+		}
+
+		if (finishedCloudlets == null) {
+			return;
+		}
+
+		for (Map.Entry<Integer, List<Cloudlet>> entry : finishedCloudlets.entrySet()) {
+			List<Cloudlet> userCloudlets = entry.getValue();
+			sendNow(entry.getKey(), CloudSimTags.CLOUDLET_RETURN_BATCH,
+					userCloudlets.toArray(new Cloudlet[userCloudlets.size()]));
+		}
+	}
+
 	/**
 	 * Adds a file into the resource's storage before the experiment starts. If the file is a master
 	 * file, then it will be registered to the RC when the experiment begins.
@@ -1181,4 +1298,24 @@ public class Datacenter extends SimEntity {
 		this.schedulingInterval = schedulingInterval;
 	}
 
+	/**
+	 * Checks if finished cloudlets are returned to their brokers in batches.
+	 * 
+	 * @return true, if the batched return protocol is used
+	 */
+	public boolean isCloudletReturnBatched() {
+		return cloudletReturnBatched;
+	}
+
+	/**
+	 * Sets whether finished cloudlets are returned to their brokers in batches. When enabled,
+	 * brokers receive {@link CloudSimTags#CLOUDLET_RETURN_BATCH} events instead of one
+	 * {@link CloudSimTags#CLOUDLET_RETURN} event per cloudlet.
+	 * 
+	 * @param cloudletReturnBatched true to use the batched return protocol
+	 */
+	public void setCloudletReturnBatched(boolean cloudletReturnBatched) {
+		this.cloudletReturnBatched = cloudletReturnBatched;
+	}
+
 }
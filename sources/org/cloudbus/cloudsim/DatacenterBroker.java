@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -19,7 +20,6 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.lists.CloudletList;
-import org.cloudbus.cloudsim.lists.VmList;
 
 /**
  * DatacentreBroker represents a broker acting on behalf of a user. It hides VM management, as vm
@@ -70,6 +70,33 @@ public class DatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** 按ID索引的虚拟机位置 The positions of the vms in the vm list, indexed by vm id. */
+	protected Map<Integer, Integer> vmsIndexMap;
+
+	/** 按ID索引的已创建虚拟机位置 The positions of the created vms in their list, indexed by vm id. */
+	protected Map<Integer, Integer> vmsCreatedIndexMap;
+
+	/** 按ID索引的等待提交的云任务 The waiting cloudlets indexed by id. */
+	protected Map<Integer, Cloudlet> cloudletsMap;
+
+	/** 是否批量创建虚拟机 Whether VMs are requested to datacenters in batches. */
+	protected boolean vmCreationBatched;
+
+	/** 按到达时间流式提交的云任务 The stream of cloudlets submitted at their arrival times. */
+	protected Iterator<? extends Cloudlet> cloudletStream;
+
+	/** 流式云任务的预读窗口 The max number of streamed cloudlets scheduled ahead of their arrival. */
+	protected int cloudletStreamWindow;
+
+	/** 已调度但尚未到达的流式云任务数 The number of streamed cloudlets not arrived yet. */
+	protected int cloudletsArriving;
+
+	/** The index of the vm the next unbound streamed cloudlet is sent to. */
+	protected int cloudletStreamVmIndex;
+
+	/** 是否记录已提交和已返回的云任务 Whether submitted and returned cloudlets are recorded. */
+	protected boolean cloudletsRecorded;
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -97,6 +124,11 @@ public class DatacenterBroker extends SimEntity {
 		setDatacenterRequestedIdsList(new ArrayList<Integer>());
 		setVmsToDatacentersMap(new HashMap<Integer, Integer>());
 		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+
+		setVmsIndexMap(new HashMap<Integer, Integer>());
+		setVmsCreatedIndexMap(new HashMap<Integer, Integer>());
+		setCloudletsMap(new HashMap<Integer, Cloudlet>());
+		setCloudletsRecorded(true);
 	}
 
 	/**
@@ -108,7 +140,14 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public void submitVmList(List<? extends Vm> list) {
+		int index = getVmList().size();
 		getVmList().addAll(list);
+		for (Vm vm : list) {
+			if (!getVmsIndexMap().containsKey(vm.getId())) {
+				getVmsIndexMap().put(vm.getId(), index);
+			}
+			index++;
+		}
 	}
 
 	/**
@@ -120,6 +159,37 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitCloudletList(List<? extends Cloudlet> list) {
 		getCloudletList().addAll(list);
+		for (Cloudlet cloudlet : list) {
+			getCloudletsMap().put(cloudlet.getCloudletId(), cloudlet);
+		}
+	}
+
+	/**
+	 * This method is used to send to the broker a stream of cloudlets. Instead of being sent all at
+	 * once when the VMs are created, each cloudlet is submitted when the simulation clock reaches
+	 * its {@link Cloudlet#getArrivalTime() arrival time}. The broker pulls at most
+	 * <tt>window</tt> cloudlets ahead of their arrival from the stream, so the memory used stays
+	 * proportional to the cloudlets in flight rather than to the whole workload. The stream
+	 * should be ordered by arrival time; streamed cloudlets are owned by this broker.
+	 * 
+	 * @param stream the cloudlets, ordered by arrival time
+	 * @param window the max number of cloudlets scheduled ahead of their arrival
+	 * @throws IllegalArgumentException if the window is not positive
+	 * @pre stream != null
+	 * @pre window > 0
+	 * @post $none
+	 */
+	public void submitCloudletStream(Iterator<? extends Cloudlet> stream, int window) {
+		if (window <= 0) {
+			throw new IllegalArgumentException("The look-ahead window must be > 0.");
+		}
+		setCloudletStream(stream);
+		setCloudletStreamWindow(window);
+
+		// the VMs are already created, so the arrivals can be scheduled right away
+		if (getVmsCreatedList().size() > 0) {
+			pullCloudletStream();
+		}
 	}
 
 	/**
@@ -132,7 +202,11 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public void bindCloudletToVm(int cloudletId, int vmId) {
-		CloudletList.getById(getCloudletList(), cloudletId).setVmId(vmId);
+		Cloudlet cloudlet = getCloudletsMap().get(cloudletId);
+		if (cloudlet == null) { // the cloudlet list was changed directly
+			cloudlet = CloudletList.getById(getCloudletList(), cloudletId);
+		}
+		cloudlet.setVmId(vmId);
 	}
 
 	/**
@@ -158,10 +232,22 @@ public class DatacenterBroker extends SimEntity {
 			case CloudSimTags.VM_CREATE_ACK:
 				processVmCreate(ev);
 				break;
+			// 批量虚拟机创建反馈事件 Bulk VM Creation answer
+			case CloudSimTags.VM_CREATE_BATCH_ACK:
+				processVmCreateBatch(ev);
+				break;
 			// 来自于数据中心的，执行完云任务的ACK A finished cloudlet returned
 			case CloudSimTags.CLOUDLET_RETURN:
 				processCloudletReturn(ev);
 				break;
+			// 来自于数据中心的，批量返回的已完成云任务 Several finished cloudlets returned at once
+			case CloudSimTags.CLOUDLET_RETURN_BATCH:
+				processCloudletReturnBatch(ev);
+				break;
+			// 流式云任务到达 A streamed cloudlet arrived
+			case CloudSimTags.CLOUDLET_ARRIVAL:
+				processCloudletArrival(ev);
+				break;
 			// if the simulation finishes
 			case CloudSimTags.END_OF_SIMULATION:
 				shutdownEntity();
@@ -225,22 +311,68 @@ public class DatacenterBroker extends SimEntity {
 		int vmId = data[1];
 		int result = data[2];
 
+		processVmCreateResult(datacenterId, vmId, result);
+		checkVmsCreation();
+	}
+
+	/**
+	 * Process the ack received due to a bulk request for VM creation.
+	 * 
+	 * @param ev a SimEvent object whose data is the datacenter id followed by a (vm id, result)
+	 *            pair for each requested VM
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmCreateBatch(SimEvent ev) {
+		int[] data = (int[]) ev.getData();
+		int datacenterId = data[0];
+
+		for (int i = 1; i < data.length; i += 2) {
+			processVmCreateResult(datacenterId, data[i], data[i + 1]);
+		}
+		checkVmsCreation();
+	}
+
+	/**
+	 * Records the result of the creation of a VM in a datacenter.
+	 * 
+	 * @param datacenterId the datacenter id
+	 * @param vmId the vm id
+	 * @param result {@link CloudSimTags#TRUE} if the VM was created
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void processVmCreateResult(int datacenterId, int vmId, int result) {
 		if (result == CloudSimTags.TRUE) {
+			Vm vm = getVmById(vmId);
 			getVmsToDatacentersMap().put(vmId, datacenterId);
-			getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
+			if (!getVmsCreatedIndexMap().containsKey(vmId)) {
+				getVmsCreatedIndexMap().put(vmId, getVmsCreatedList().size());
+			}
+			getVmsCreatedList().add(vm);
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
 					+ " has been created in Datacenter #" + datacenterId + ", Host #"
-					+ VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
+					+ vm.getHost().getId());
 		} else {
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
 					+ " failed in Datacenter #" + datacenterId);
 		}
 
 		incrementVmsAcks();
+	}
 
+	/**
+	 * Checks the progress of VM creation after an ack, submitting the cloudlets once every VM is
+	 * created or trying the next datacenter when some of them failed.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void checkVmsCreation() {
 		// all the requested VMs have been created
 		if (getVmsCreatedList().size() == getVmList().size() - getVmsDestroyed()) {
 			submitCloudlets();
+			pullCloudletStream();
 		} else {
 			// all the acks received, but some VMs were not created
 			if (getVmsRequested() == getVmsAcks()) {
@@ -256,6 +388,7 @@ public class DatacenterBroker extends SimEntity {
 				// all datacenters already queried
 				if (getVmsCreatedList().size() > 0) { // if some vm were created
 					submitCloudlets();
+					pullCloudletStream();
 				} else { // no vms created. abort
 					Log.printLine(CloudSim.clock() + ": " + getName()
 							+ ": none of the required VMs could be created. Aborting");
@@ -274,10 +407,49 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
-		getCloudletReceivedList().add(cloudlet);
+		if (isCloudletsRecorded()) {
+			getCloudletReceivedList().add(cloudlet);
+		}
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
 				+ " received");
 		cloudletsSubmitted--;
+		checkCloudletsExecution();
+	}
+
+	/**
+	 * Process a batched cloudlet return event, which carries all the cloudlets of this broker that
+	 * finished at the same time in a datacenter.
+	 * 
+	 * @param ev a SimEvent object whose data is a <tt>Cloudlet[]</tt>
+	 * @pre ev != $null
+	 * @post $none
+	 */
+	protected void processCloudletReturnBatch(SimEvent ev) {
+		Cloudlet[] cloudlets = (Cloudlet[]) ev.getData();
+		if (isCloudletsRecorded()) {
+			List<Cloudlet> receivedList = getCloudletReceivedList();
+			for (Cloudlet cloudlet : cloudlets) {
+				receivedList.add(cloudlet);
+			}
+		}
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": " + cloudlets.length
+				+ " Cloudlets received");
+		cloudletsSubmitted -= cloudlets.length;
+		checkCloudletsExecution();
+	}
+
+	/**
+	 * Checks whether all the submitted cloudlets have returned after a cloudlet return, finishing
+	 * the execution or resubmitting the cloudlets still waiting for their VMs.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void checkCloudletsExecution() {
+		if (isCloudletStreamPending()) { // some streamed cloudlets have not arrived yet
+			return;
+		}
+
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
 			// 任务执行完成，销毁数据中心，其中包括销毁虚拟机
@@ -324,12 +496,28 @@ public class DatacenterBroker extends SimEntity {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
 		String datacenterName = CloudSim.getEntityName(datacenterId);
-		for (Vm vm : getVmList()) {
-			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
-						+ " in " + datacenterName);
-				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
-				requestedVms++;
+		if (isVmCreationBatched()) {
+			List<Vm> requestedList = new ArrayList<Vm>();
+			for (Vm vm : getVmList()) {
+				if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
+					requestedList.add(vm);
+				}
+			}
+			requestedVms = requestedList.size();
+			if (requestedVms > 0) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create " + requestedVms
+						+ " VMs in " + datacenterName);
+				sendNow(datacenterId, CloudSimTags.VM_CREATE_BATCH_ACK,
+						requestedList.toArray(new Vm[requestedVms]));
+			}
+		} else {
+			for (Vm vm : getVmList()) {
+				if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
+					Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
+							+ " in " + datacenterName);
+					sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+					requestedVms++;
+				}
 			}
 		}
 
@@ -347,33 +535,170 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void submitCloudlets() {
 		int vmIndex = 0;
+		List<Cloudlet> postponedList = new ArrayList<Cloudlet>();
 		for (Cloudlet cloudlet : getCloudletList()) {//提交云任务
 			Vm vm;
 			// if user didn't bind this cloudlet and it has not been executed yet
 			if (cloudlet.getVmId() == -1) {//如果用户没有将任务绑定 到制定的虚拟机
 				vm = getVmsCreatedList().get(vmIndex);	//从虚拟机列表中取一个虚拟机
 			} else { // submit to the specific vm
-				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+				vm = getCreatedVmById(cloudlet.getVmId());
 				if (vm == null) { // vm was not created
 					Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
 							+ cloudlet.getCloudletId() + ": bount VM not available");
+					postponedList.add(cloudlet);
 					continue;
 				}
 			}
 
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
-					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
-			cloudlet.setVmId(vm.getId());	//设置云任务的虚拟机
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);//向这个虚拟机所在的数据中心发送一个云任务提交的事件
-			cloudletsSubmitted++;
+			submitCloudlet(cloudlet, vm);
 			vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
-			getCloudletSubmittedList().add(cloudlet);
+			getCloudletsMap().remove(cloudlet.getCloudletId());
 		}
 
 		// 从等待云任务列表中移除 remove submitted cloudlets from waiting list
-		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
-			getCloudletList().remove(cloudlet);
+		getCloudletList().clear();
+		getCloudletList().addAll(postponedList);
+	}
+
+	/**
+	 * Submits a cloudlet to a created VM.
+	 * 
+	 * @param cloudlet the cloudlet
+	 * @param vm the vm
+	 * @pre cloudlet != null
+	 * @pre vm != null
+	 * @post $none
+	 */
+	protected void submitCloudlet(Cloudlet cloudlet, Vm vm) {
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
+				+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+		cloudlet.setVmId(vm.getId());	//设置云任务的虚拟机
+		sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);//向这个虚拟机所在的数据中心发送一个云任务提交的事件
+		cloudletsSubmitted++;
+		if (isCloudletsRecorded()) {
+			getCloudletSubmittedList().add(cloudlet);
+		}
+	}
+
+	/**
+	 * Pulls cloudlets from the cloudlet stream, scheduling their arrival, until the look-ahead
+	 * window is full or the stream is exhausted.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void pullCloudletStream() {
+		if (getCloudletStream() == null) {
+			return;
+		}
+
+		while (cloudletsArriving < getCloudletStreamWindow() && getCloudletStream().hasNext()) {
+			Cloudlet cloudlet = getCloudletStream().next();
+			cloudlet.setUserId(getId());
+			double delay = Math.max(0.0, cloudlet.getArrivalTime() - CloudSim.clock());
+			schedule(getId(), delay, CloudSimTags.CLOUDLET_ARRIVAL, cloudlet);
+			cloudletsArriving++;
+		}
+	}
+
+	/**
+	 * Process the arrival of a streamed cloudlet, submitting it to a created VM and pulling the
+	 * next cloudlets from the stream.
+	 * 
+	 * @param ev a SimEvent object whose data is the cloudlet
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processCloudletArrival(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		cloudletsArriving--;
+
+		Vm vm = null;
+		if (cloudlet.getVmId() == -1) {
+			int vmsCreated = getVmsCreatedList().size();
+			if (vmsCreated > 0) {
+				cloudletStreamVmIndex = cloudletStreamVmIndex % vmsCreated;
+				vm = getVmsCreatedList().get(cloudletStreamVmIndex);
+				cloudletStreamVmIndex = (cloudletStreamVmIndex + 1) % vmsCreated;
+			}
+		} else {
+			vm = getCreatedVmById(cloudlet.getVmId());
+		}
+
+		if (vm != null) {
+			submitCloudlet(cloudlet, vm);
+		} else { // vm was not created
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
+					+ cloudlet.getCloudletId() + ": bount VM not available");
+			getCloudletList().add(cloudlet);
+			getCloudletsMap().put(cloudlet.getCloudletId(), cloudlet);
 		}
+
+		pullCloudletStream();
+		if (vm == null) {
+			checkCloudletsExecution();
+		}
+	}
+
+	/**
+	 * Checks if some streamed cloudlets have not arrived yet.
+	 * 
+	 * @return true, if the cloudlet stream is not exhausted
+	 */
+	protected boolean isCloudletStreamPending() {
+		return cloudletsArriving > 0 || (getCloudletStream() != null && getCloudletStream().hasNext());
+	}
+
+	/**
+	 * Gets a VM of this broker by its id.
+	 * 
+	 * @param vmId the vm id
+	 * @return the vm, or $null if it was not submitted to this broker
+	 */
+	protected Vm getVmById(int vmId) {
+		return getById(getVmList(), getVmsIndexMap(), vmId);
+	}
+
+	/**
+	 * Gets a created VM of this broker by its id.
+	 * 
+	 * @param vmId the vm id
+	 * @return the vm, or $null if it has not been created
+	 */
+	protected Vm getCreatedVmById(int vmId) {
+		return getById(getVmsCreatedList(), getVmsCreatedIndexMap(), vmId);
+	}
+
+	/**
+	 * Gets a VM of a list by its id, through the positions of the VMs in the list. The VM at the
+	 * indexed position is checked against the id, and the list is indexed again if the position is
+	 * stale. An id that is not indexed is looked for again only if the list was changed directly
+	 * since it was indexed, i.e. if it no longer holds as many VMs as the index; otherwise there is
+	 * no such VM, and $null is returned at once.
+	 * 
+	 * @param list the list of vms
+	 * @param indexMap the positions of the vms in the list, indexed by vm id
+	 * @param vmId the vm id
+	 * @return the first vm of the list with the id, or $null if there is none
+	 */
+	private static Vm getById(List<? extends Vm> list, Map<Integer, Integer> indexMap, int vmId) {
+		Integer index = indexMap.get(vmId);
+		if (index != null && index < list.size() && list.get(index).getId() == vmId) {
+			return list.get(index);
+		}
+		if (index == null && indexMap.size() == list.size()) {
+			return null;
+		}
+		// the list was changed directly
+		indexMap.clear();
+		for (int i = 0; i < list.size(); i++) {
+			if (!indexMap.containsKey(list.get(i).getId())) {
+				indexMap.put(list.get(i).getId(), i);
+			}
+		}
+		index = indexMap.get(vmId);
+		return index == null ? null : list.get(index);
 	}
 
 	/**
@@ -390,6 +715,7 @@ public class DatacenterBroker extends SimEntity {
 		}
 
 		getVmsCreatedList().clear();
+		getVmsCreatedIndexMap().clear();
 	}
 
 	/**
@@ -440,6 +766,9 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected <T extends Vm> void setVmList(List<T> vmList) {
 		this.vmList = vmList;
+		if (getVmsIndexMap() != null) {
+			getVmsIndexMap().clear();
+		}
 	}
 
 	/**
@@ -524,6 +853,9 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected <T extends Vm> void setVmsCreatedList(List<T> vmsCreatedList) {
 		this.vmsCreatedList = vmsCreatedList;
+		if (getVmsCreatedIndexMap() != null) {
+			getVmsCreatedIndexMap().clear();
+		}
 	}
 
 	/**
@@ -660,4 +992,135 @@ public class DatacenterBroker extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * Gets the vms index map.
+	 * 
+	 * @return the positions of the vms in the vm list, indexed by vm id
+	 */
+	protected Map<Integer, Integer> getVmsIndexMap() {
+		return vmsIndexMap;
+	}
+
+	/**
+	 * Sets the vms index map.
+	 * 
+	 * @param vmsIndexMap the positions of the vms in the vm list, indexed by vm id
+	 */
+	protected void setVmsIndexMap(Map<Integer, Integer> vmsIndexMap) {
+		this.vmsIndexMap = vmsIndexMap;
+	}
+
+	/**
+	 * Gets the vms created index map.
+	 * 
+	 * @return the positions of the created vms in their list, indexed by vm id
+	 */
+	protected Map<Integer, Integer> getVmsCreatedIndexMap() {
+		return vmsCreatedIndexMap;
+	}
+
+	/**
+	 * Sets the vms created index map.
+	 * 
+	 * @param vmsCreatedIndexMap the positions of the created vms in their list, indexed by vm id
+	 */
+	protected void setVmsCreatedIndexMap(Map<Integer, Integer> vmsCreatedIndexMap) {
+		this.vmsCreatedIndexMap = vmsCreatedIndexMap;
+	}
+
+	/**
+	 * Gets the cloudlets map.
+	 * 
+	 * @return the waiting cloudlets indexed by id
+	 */
+	protected Map<Integer, Cloudlet> getCloudletsMap() {
+		return cloudletsMap;
+	}
+
+	/**
+	 * Sets the cloudlets map.
+	 * 
+	 * @param cloudletsMap the waiting cloudlets indexed by id
+	 */
+	protected void setCloudletsMap(Map<Integer, Cloudlet> cloudletsMap) {
+		this.cloudletsMap = cloudletsMap;
+	}
+
+	/**
+	 * Checks if VMs are requested to datacenters in batches.
+	 * 
+	 * @return true, if the bulk VM creation protocol is used
+	 */
+	public boolean isVmCreationBatched() {
+		return vmCreationBatched;
+	}
+
+	/**
+	 * Sets whether VMs are requested to datacenters in batches. When enabled, all the VMs to be
+	 * created in a datacenter are sent in one {@link CloudSimTags#VM_CREATE_BATCH_ACK} request
+	 * instead of one {@link CloudSimTags#VM_CREATE_ACK} request per VM.
+	 * 
+	 * @param vmCreationBatched true to use the bulk VM creation protocol
+	 */
+	public void setVmCreationBatched(boolean vmCreationBatched) {
+		this.vmCreationBatched = vmCreationBatched;
+	}
+
+	/**
+	 * Gets the cloudlet stream.
+	 * 
+	 * @return the cloudlet stream, or $null if none was submitted
+	 */
+	protected Iterator<? extends Cloudlet> getCloudletStream() {
+		return cloudletStream;
+	}
+
+	/**
+	 * Sets the cloudlet stream.
+	 * 
+	 * @param cloudletStream the cloudlet stream
+	 */
+	protected void setCloudletStream(Iterator<? extends Cloudlet> cloudletStream) {
+		this.cloudletStream = cloudletStream;
+	}
+
+	/**
+	 * Gets the cloudlet stream window.
+	 * 
+	 * @return the max number of streamed cloudlets scheduled ahead of their arrival
+	 */
+	protected int getCloudletStreamWindow() {
+		return cloudletStreamWindow;
+	}
+
+	/**
+	 * Sets the cloudlet stream window.
+	 * 
+	 * @param cloudletStreamWindow the max number of streamed cloudlets scheduled ahead of their
+	 *            arrival
+	 */
+	protected void setCloudletStreamWindow(int cloudletStreamWindow) {
+		this.cloudletStreamWindow = cloudletStreamWindow;
+	}
+
+	/**
+	 * Checks if submitted and returned cloudlets are recorded in the submitted and received lists.
+	 * 
+	 * @return true, if the cloudlets are recorded
+	 */
+	public boolean isCloudletsRecorded() {
+		return cloudletsRecorded;
+	}
+
+	/**
+	 * Sets whether submitted and returned cloudlets are recorded in the submitted and received
+	 * lists. It is enabled by default; disable it for long streamed workloads, where keeping
+	 * every cloudlet would defeat the bounded memory of {@link #submitCloudletStream}.
+	 * 
+	 * @param cloudletsRecorded true to record the cloudlets
+	 */
+	public void setCloudletsRecorded(boolean cloudletsRecorded) {
+		this.cloudletsRecorded = cloudletsRecorded;
+	}
+
 }
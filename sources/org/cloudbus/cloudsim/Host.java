@@ -99,7 +99,7 @@ public class Host {
 		double smallerTime = Double.MAX_VALUE;
 
 		for (Vm vm : getVmList()) {
-			double time = vm.updateVmProcessing(currentTime, getVmScheduler().getAllocatedMipsForVm(vm));
+			double time = vm.updateVmProcessing(currentTime, getVmScheduler().getAllocatedMipsArrayForVm(vm));
 			if (time > 0.0 && time < smallerTime) {
 				smallerTime = time;
 			}
@@ -135,8 +135,8 @@ public class Host {
 				System.exit(0);
 			}
 
-			getVmScheduler().getVmsMigratingIn().add(vm.getUid());
-			if (!getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips())) {
+			getVmScheduler().getVmsMigratingIn().add(vm.getHandle());
+			if (!getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMipsArray())) {
 				Log.printLine("[VmScheduler.addMigratingInVm] Allocation of VM #" + vm.getId() + " to Host #"
 						+ getId() + " failed by MIPS");
 				System.exit(0);
@@ -160,7 +160,7 @@ public class Host {
 		vmDeallocate(vm);
 		getVmsMigratingIn().remove(vm);
 		getVmList().remove(vm);
-		getVmScheduler().getVmsMigratingIn().remove(vm.getUid());
+		getVmScheduler().getVmsMigratingIn().remove(Integer.valueOf(vm.getHandle()));
 		vm.setInMigration(false);
 	}
 
@@ -172,16 +172,60 @@ public class Host {
 			if (!getVmList().contains(vm)) {
 				getVmList().add(vm);
 			}
-			if (!getVmScheduler().getVmsMigratingIn().contains(vm.getUid())) {
-				getVmScheduler().getVmsMigratingIn().add(vm.getUid());
+			if (!getVmScheduler().getVmsMigratingIn().contains(vm.getHandle())) {
+				getVmScheduler().getVmsMigratingIn().add(vm.getHandle());
 			}
 			getRamProvisioner().allocateRamForVm(vm, vm.getCurrentRequestedRam());
 			getBwProvisioner().allocateBwForVm(vm, vm.getCurrentRequestedBw());
-			getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips());
+			getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMipsArray());
 			setStorage(getStorage() - vm.getSize());
 		}
 	}
 
+	/**
+	 * 按虚拟机当前的请求重新分配内存和带宽
+	 * Provisions the RAM and BW of the VMs again, at what they currently request, the VMs migrating
+	 * in first. The MIPS are kept up to date by {@link #updateVmsProcessing(double)}, whereas the
+	 * RAM and BW are otherwise only provisioned when a VM is created.
+	 * 
+	 * @return $true if the RAM and BW of all the VMs could be provisioned, $false otherwise
+	 */
+	public boolean reallocateRamAndBwForAllVms() {
+		getRamProvisioner().deallocateRamForAllVms();
+		getBwProvisioner().deallocateBwForAllVms();
+		boolean result = true;
+		for (Vm vm : getVmsMigratingIn()) {
+			result &= getRamProvisioner().allocateRamForVm(vm, vm.getCurrentRequestedRam());
+			result &= getBwProvisioner().allocateBwForVm(vm, vm.getCurrentRequestedBw());
+		}
+		for (Vm vm : getVmList()) {
+			if (getVmsMigratingIn().contains(vm)) {
+				continue;
+			}
+			result &= getRamProvisioner().allocateRamForVm(vm, vm.getCurrentRequestedRam());
+			result &= getBwProvisioner().allocateBwForVm(vm, vm.getCurrentRequestedBw());
+		}
+		return result;
+	}
+
+	/**
+	 * 检查虚拟机当前的内存和带宽请求是否与已分配的不同
+	 * Checks whether the RAM or BW provisioned to a VM differs from what it currently requests,
+	 * that is, whether {@link #reallocateRamAndBwForAllVms()} would change the host. The RAM
+	 * requested by a VM is capped by the RAM of the VM.
+	 * 
+	 * @return $true if the RAM or BW requested by a VM has changed, $false otherwise
+	 */
+	public boolean isRamOrBwRequestChanged() {
+		for (Vm vm : getVmList()) {
+			if (getRamProvisioner().getAllocatedRamForVm(vm) != Math.min(vm.getCurrentRequestedRam(), vm.getRam())
+					|| getBwProvisioner().getAllocatedBwForVm(vm) != vm.getCurrentRequestedBw()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * 判断主机是否符合VM对资源的需要
 	 * Checks if is suitable for vm.
@@ -230,7 +274,7 @@ public class Host {
 			return false;
 		}
 		// 虚拟机的调度，其实就是给虚拟机分配处理单元
-		if (!getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips())) {
+		if (!getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMipsArray())) {
 			Log.printLine("[VmScheduler.vmCreate] Allocation of VM #" + vm.getId() + " to Host #" + getId()
 					+ " failed by MIPS");
 			getRamProvisioner().deallocateRamForVm(vm);
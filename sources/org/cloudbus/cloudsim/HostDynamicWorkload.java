@@ -8,14 +8,16 @@
 
 package org.cloudbus.cloudsim;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.IntObjectMap;
 
 /**
  * The class of a host supporting dynamic workloads and performance degradation.
@@ -38,7 +40,10 @@ public class HostDynamicWorkload extends Host {
 	private int previousUtilizationRam;
 
 	/** The state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<HostStateHistoryEntry>();
+	private StateHistory stateHistory = new StateHistory();
+
+	/** The mips share each VM was provisioned with at the last update, by VM handle. */
+	private final IntObjectMap<double[]> provisionedMips = new IntObjectMap<double[]>();
 
 	/**
 	 * Instantiates a new host.
@@ -73,12 +78,8 @@ public class HostDynamicWorkload extends Host {
 		setUtilizationMips(0);
 		double hostTotalRequestedMips = 0;
 
-		for (Vm vm : getVmList()) {
-			getVmScheduler().deallocatePesForVm(vm);
-		}
-
-		for (Vm vm : getVmList()) {
-			getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips());
+		if (!updatePesForChangedVms()) {
+			reallocatePesForAllVms();
 		}
 
 		for (Vm vm : getVmList()) {
@@ -145,6 +146,51 @@ public class HostDynamicWorkload extends Host {
 		return smallerTime;
 	}
 
+	/**
+	 * Provisions again the PEs of the VMs whose requested mips have changed since the last update,
+	 * one VM at a time. VMs in migration are provisioned at every update, as their allocation also
+	 * depends on the migration state.
+	 * 
+	 * @return true, if the allocation of every VM is up to date; false, if the PEs of all the VMs
+	 *         have to be reallocated instead
+	 */
+	protected boolean updatePesForChangedVms() {
+		if (provisionedMips.size() != getVmList().size()) {
+			return false;
+		}
+		for (Vm vm : getVmList()) {
+			double[] mipsShare = vm.getCurrentRequestedMipsArray();
+			boolean inMigration = vm.isInMigration() || getVmsMigratingIn().contains(vm);
+			if (!inMigration && Arrays.equals(mipsShare, provisionedMips.get(vm.getHandle()))) {
+				continue;
+			}
+			if (!getVmScheduler().updatePesForVm(vm, mipsShare)) {
+				return false;
+			}
+			// a VM in migration is kept with no share, so that it is never taken as unchanged
+			provisionedMips.put(vm.getHandle(), inMigration ? null : mipsShare);
+		}
+		return provisionedMips.size() == getVmList().size();
+	}
+
+	/**
+	 * Releases the PEs of all the VMs and allocates them again from the requested mips.
+	 */
+	protected void reallocatePesForAllVms() {
+		provisionedMips.clear();
+		for (Vm vm : getVmList()) {
+			getVmScheduler().deallocatePesForVm(vm);
+		}
+
+		for (Vm vm : getVmList()) {
+			double[] mipsShare = vm.getCurrentRequestedMipsArray();
+			if (getVmScheduler().allocatePesForVm(vm, mipsShare)) {
+				boolean inMigration = vm.isInMigration() || getVmsMigratingIn().contains(vm);
+				provisionedMips.put(vm.getHandle(), inMigration ? null : mipsShare);
+			}
+		}
+	}
+
 	/**
 	 * Gets the completed vms.
 	 * 
@@ -335,14 +381,50 @@ public class HostDynamicWorkload extends Host {
 	}
 
 	/**
-	 * Gets the state history.
+	 * Gets the state history, as a read-only list view creating an entry object per element. The
+	 * SLA computations should read {@link #getStateHistoryStore()} instead.
 	 * 
 	 * @return the state history
 	 */
 	public List<HostStateHistoryEntry> getStateHistory() {
+		final StateHistory history = getStateHistoryStore();
+		return new AbstractList<HostStateHistoryEntry>() {
+
+			@Override
+			public HostStateHistoryEntry get(int index) {
+				return new HostStateHistoryEntry(
+						history.getTime(index),
+						history.getAllocatedMips(index),
+						history.getRequestedMips(index),
+						history.getFlag(index));
+			}
+
+			@Override
+			public int size() {
+				return history.size();
+			}
+
+		};
+	}
+
+	/**
+	 * Gets the state history store, whose flag is whether the host is active.
+	 * 
+	 * @return the state history store
+	 */
+	public StateHistory getStateHistoryStore() {
 		return stateHistory;
 	}
 
+	/**
+	 * Sets the state history store, which defines how much of the history is kept.
+	 * 
+	 * @param stateHistory the new state history store
+	 */
+	public void setStateHistoryStore(StateHistory stateHistory) {
+		this.stateHistory = stateHistory;
+	}
+
 	/**
 	 * Adds the state history entry.
 	 * 
@@ -354,20 +436,7 @@ public class HostDynamicWorkload extends Host {
 	public
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
-
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistoryStore().add(time, allocatedMips, requestedMips, isActive);
 	}
 
 }
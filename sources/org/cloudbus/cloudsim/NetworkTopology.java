@@ -9,8 +9,10 @@
 package org.cloudbus.cloudsim;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
@@ -89,7 +91,10 @@ public class NetworkTopology {
 	}
 
 	/**
-	 * Adds a new link in the network topology
+	 * Adds a new link in the network topology. Once the matrices have been generated, a link that
+	 * does not raise the delay between its nodes only updates them, relaxing the delays through the
+	 * link in O(n^2) instead of computing all of them again; to add many links at once, use a
+	 * {@link Builder}.
 	 * 
 	 * @param srcId ID of the link's source
 	 * @param destId ID of the link's destination
@@ -100,7 +105,72 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void addLink(int srcId, int destId, double bw, double lat) {
+		if (delayMatrix == null || bwMatrix == null || graph == null) {
+			addNodesAndLink(srcId, destId, bw, lat);
+			generateMatrices();
+			return;
+		}
+
+		float delay = (float) lat;
+		boolean raisesDelay = false;
+		if (map.containsKey(srcId) && map.containsKey(destId)) {
+			// the delay matrix keeps the delay of the last link between two nodes, 0 being no link
+			float previousDelay = getLastLinkDelay(map.get(srcId), map.get(destId));
+			raisesDelay = previousDelay != 0 && (delay == 0 || delay > previousDelay);
+		}
+
+		TopologicalLink link = addNodesAndLink(srcId, destId, bw, lat);
+		if (raisesDelay) {
+			generateMatrices();
+			return;
+		}
+
+		int nodes = graph.getNumberOfNodes();
+		delayMatrix.addNodes(nodes);
+		if (delay != 0) {
+			delayMatrix.addLink(link.getSrcNodeID(), link.getDestNodeID(), delay, false);
+		}
 
+		if (bwMatrix.length < nodes) {
+			double[][] mtx = new double[nodes][nodes];
+			for (int i = 0; i < bwMatrix.length; i++) {
+				System.arraycopy(bwMatrix[i], 0, mtx[i], 0, bwMatrix.length);
+			}
+			bwMatrix = mtx;
+		}
+		bwMatrix[link.getSrcNodeID()][link.getDestNodeID()] = link.getLinkBw();
+		bwMatrix[link.getDestNodeID()][link.getSrcNodeID()] = link.getLinkBw();
+
+		networkEnabled = true;
+	}
+
+	/**
+	 * Adds a link to the graph, and the nodes of the entities that have none yet, without
+	 * generating the matrices.
+	 * 
+	 * @param srcId ID of the link's source
+	 * @param destId ID of the link's destination
+	 * @param bw Link's bandwidth
+	 * @param lat link's latency
+	 * @return the link
+	 */
+	private static TopologicalLink addNodesAndLink(int srcId, int destId, double bw, double lat) {
+		// maybe add the nodes
+		addNode(srcId);
+		addNode(destId);
+
+		// generate a new link
+		TopologicalLink link = new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw);
+		graph.addLink(link);
+		return link;
+	}
+
+	/**
+	 * Adds a node to the graph for an entity, if the entity has none yet.
+	 * 
+	 * @param id ID of the entity
+	 */
+	private static void addNode(int id) {
 		if (graph == null) {
 			graph = new TopologicalGraph();
 		}
@@ -109,24 +179,31 @@ public class NetworkTopology {
 			map = new HashMap<Integer, Integer>();
 		}
 
-		// maybe add the nodes
-		if (!map.containsKey(srcId)) {
+		if (!map.containsKey(id)) {
 			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(srcId, nextIdx);
+			map.put(id, nextIdx);
 			nextIdx++;
 		}
+	}
 
-		if (!map.containsKey(destId)) {
-			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(destId, nextIdx);
-			nextIdx++;
+	/**
+	 * Gets the delay of the last link added between two nodes, in either direction.
+	 * 
+	 * @param node1 a node
+	 * @param node2 the other node
+	 * @return the delay, or 0 if there is no link
+	 */
+	private static float getLastLinkDelay(int node1, int node2) {
+		float delay = 0;
+		Iterator<TopologicalLink> iter = graph.getLinkIterator();
+		while (iter.hasNext()) {
+			TopologicalLink link = iter.next();
+			if ((link.getSrcNodeID() == node1 && link.getDestNodeID() == node2)
+					|| (link.getSrcNodeID() == node2 && link.getDestNodeID() == node1)) {
+				delay = link.getLinkDelay();
+			}
 		}
-
-		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
-
-		generateMatrices();
-
+		return delay;
 	}
 
 	/**
@@ -246,4 +323,91 @@ public class NetworkTopology {
 		return networkEnabled;
 	}
 
+	/**
+	 * Builds a network topology from entities and links, generating the delay and bandwidth
+	 * matrices once, when the changes are committed, instead of once per link. The nodes and links
+	 * are added to the current topology, if any.
+	 * 
+	 * <pre>
+	 * NetworkTopology.Builder builder = new NetworkTopology.Builder();
+	 * builder.addLink(datacenter0.getId(), broker.getId(), 10.0, 10);
+	 * ...
+	 * builder.commit();
+	 * </pre>
+	 */
+	public static class Builder {
+
+		/** The entities to add nodes for, in the order they were added. */
+		private final List<Integer> nodes = new ArrayList<Integer>();
+
+		/** The links to add, in the order they were added. */
+		private final List<PendingLink> links = new ArrayList<PendingLink>();
+
+		/**
+		 * Adds a node for an entity, if the entity has none yet.
+		 * 
+		 * @param id ID of the entity
+		 * @return this builder
+		 */
+		public Builder addNode(int id) {
+			nodes.add(id);
+			return this;
+		}
+
+		/**
+		 * Adds a link, and the nodes of the entities that have none yet.
+		 * 
+		 * @param srcId ID of the link's source
+		 * @param destId ID of the link's destination
+		 * @param bw Link's bandwidth
+		 * @param lat link's latency
+		 * @return this builder
+		 */
+		public Builder addLink(int srcId, int destId, double bw, double lat) {
+			links.add(new PendingLink(srcId, destId, bw, lat));
+			return this;
+		}
+
+		/**
+		 * Adds the nodes and links to the topology, and generates the matrices.
+		 */
+		public void commit() {
+			for (int id : nodes) {
+				NetworkTopology.addNode(id);
+			}
+			for (PendingLink link : links) {
+				addNodesAndLink(link.srcId, link.destId, link.bw, link.lat);
+			}
+			nodes.clear();
+			links.clear();
+
+			if (graph != null) {
+				generateMatrices();
+			}
+		}
+
+		/**
+		 * A link added to a builder.
+		 */
+		private static class PendingLink {
+
+			private final int srcId;
+
+			private final int destId;
+
+			private final double bw;
+
+			private final double lat;
+
+			public PendingLink(int srcId, int destId, double bw, double lat) {
+				this.srcId = srcId;
+				this.destId = destId;
+				this.bw = bw;
+				this.lat = lat;
+			}
+
+		}
+
+	}
+
 }
@@ -0,0 +1,305 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PlanetLab负载的二进制存储：一个文件保存一个负载目录中所有虚拟机的使用率
+ * The PlanetLab traces of a workload folder, converted once into a single binary file that is
+ * memory-mapped when read. The utilization of a trace is an integer percentage, stored in one
+ * byte per sample; the traces are stored one after the other, and identical traces are stored
+ * only once. The file starts with a header:
+ *
+ * <pre>
+ * int    magic ("PLTS")
+ * int    version
+ * int    number of traces
+ * int    number of samples per trace
+ * int    number of distinct traces
+ * then, for each trace, in the order of the workload folder:
+ * int    index of its distinct trace
+ * UTF    name of its file
+ * then, the distinct traces, one byte per sample.
+ * </pre>
+ *
+ * An open store is shared by all the utilization models reading it, and by all the simulations
+ * run in the same JVM, until it is {@link #release(String) released}; the file stays mapped as
+ * long as a utilization model reads it. Converting a store again writes a new file that replaces
+ * the old one, so that the stores still mapped keep reading the old file.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see UtilizationModelPlanetLabMapped
+ */
+public class PlanetLabTraceStore {
+
+	/** The magic number of the file. */
+	private static final int MAGIC = 0x504C5453;
+
+	/** The version of the file format. */
+	private static final int VERSION = 1;
+
+	/** The number of samples of a day of PlanetLab trace (5 min * 288 = 24 hours). */
+	public static final int DAY_SAMPLES = 288;
+
+	/** The open stores, keyed by canonical path. */
+	private static final Map<String, PlanetLabTraceStore> STORES = new HashMap<String, PlanetLabTraceStore>();
+
+	/** The names of the trace files, in the order of the workload folder. */
+	private final String[] names;
+
+	/** The offset in the buffer of each trace. */
+	private final int[] offsets;
+
+	/** The number of samples per trace. */
+	private final int samples;
+
+	/** The mapped file. */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Reads the header of a mapped store.
+	 *
+	 * @param buffer the mapped file
+	 * @param path the path of the file
+	 * @throws IOException if the file is not a trace store
+	 */
+	private PlanetLabTraceStore(ByteBuffer buffer, String path) throws IOException {
+		if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			throw new IOException(path + " is not a PlanetLab trace store");
+		}
+		int traces = buffer.getInt();
+		samples = buffer.getInt();
+		buffer.getInt(); // the number of distinct traces
+		names = new String[traces];
+		int[] rows = new int[traces];
+		for (int i = 0; i < traces; i++) {
+			rows[i] = buffer.getInt();
+			byte[] name = new byte[buffer.getShort() & 0xFFFF];
+			buffer.get(name);
+			names[i] = new String(name, "UTF-8");
+		}
+		offsets = new int[traces];
+		for (int i = 0; i < traces; i++) {
+			offsets[i] = buffer.position() + rows[i] * samples;
+		}
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Opens a store, mapping it the first time it is opened in the JVM.
+	 *
+	 * @param path the path of the store
+	 * @return the store
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static PlanetLabTraceStore open(String path) throws IOException {
+		String key = new File(path).getCanonicalPath();
+		synchronized (STORES) {
+			PlanetLabTraceStore store = STORES.get(key);
+			if (store == null) {
+				RandomAccessFile file = new RandomAccessFile(key, "r");
+				try {
+					FileChannel channel = file.getChannel();
+					MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+					store = new PlanetLabTraceStore(buffer, key);
+				} finally {
+					file.close();
+				}
+				STORES.put(key, store);
+			}
+			return store;
+		}
+	}
+
+	/**
+	 * Releases a store, so that it is mapped again the next time it is opened. The store is
+	 * unmapped once the utilization models reading it are no longer used.
+	 *
+	 * @param path the path of the store
+	 * @return true, if the store was open
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static boolean release(String path) throws IOException {
+		String key = new File(path).getCanonicalPath();
+		synchronized (STORES) {
+			return STORES.remove(key) != null;
+		}
+	}
+
+	/**
+	 * Converts the traces of a PlanetLab workload folder into a store. Each trace file holds one
+	 * integer percentage per line. The store is written to a temporary file first, then renamed,
+	 * so that a store being read is never overwritten.
+	 *
+	 * @param inputFolder the workload folder
+	 * @param outputPath the path of the store
+	 * @param samples the number of samples to keep from each trace
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws NumberFormatException if a line is not an integer
+	 */
+	public static void convert(String inputFolder, String outputPath, int samples)
+			throws IOException, NumberFormatException {
+		File[] files = new File(inputFolder).listFiles();
+		if (files == null) {
+			throw new IOException(inputFolder + " is not a folder");
+		}
+
+		Map<ByteBuffer, Integer> distinctRows = new HashMap<ByteBuffer, Integer>();
+		List<byte[]> rows = new ArrayList<byte[]>();
+		int[] traceRows = new int[files.length];
+		for (int i = 0; i < files.length; i++) {
+			byte[] row = readTrace(files[i], samples);
+			Integer index = distinctRows.get(ByteBuffer.wrap(row));
+			if (index == null) {
+				index = rows.size();
+				distinctRows.put(ByteBuffer.wrap(row), index);
+				rows.add(row);
+			}
+			traceRows[i] = index;
+		}
+
+		File target = new File(outputPath).getCanonicalFile();
+		File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+		boolean written = false;
+		try {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(temp)));
+			try {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(files.length);
+				output.writeInt(samples);
+				output.writeInt(rows.size());
+				for (int i = 0; i < files.length; i++) {
+					output.writeInt(traceRows[i]);
+					output.writeUTF(files[i].getName());
+				}
+				for (byte[] row : rows) {
+					output.write(row);
+				}
+			} finally {
+				output.close();
+			}
+			synchronized (STORES) {
+				// the old file is unlinked rather than overwritten, so that its mappings stay valid
+				if (!temp.renameTo(target) && !(target.delete() && temp.renameTo(target))) {
+					throw new IOException("Couldn't replace " + target + " with " + temp);
+				}
+				STORES.remove(target.getPath());
+			}
+			written = true;
+		} finally {
+			if (!written) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Reads a trace file.
+	 *
+	 * @param file the trace file
+	 * @param samples the number of samples to read
+	 * @return the samples, one byte each
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static byte[] readTrace(File file, int samples) throws IOException {
+		byte[] row = new byte[samples];
+		BufferedReader input = new BufferedReader(new FileReader(file));
+		try {
+			for (int i = 0; i < samples; i++) {
+				String line = input.readLine();
+				if (line == null) {
+					throw new IOException(file + " has fewer than " + samples + " samples");
+				}
+				int value = Integer.parseInt(line.trim());
+				if (value < 0 || value > 255) {
+					throw new IOException(file + " has a sample out of range: " + value);
+				}
+				row[i] = (byte) value;
+			}
+		} finally {
+			input.close();
+		}
+		return row;
+	}
+
+	/**
+	 * Gets the number of traces.
+	 *
+	 * @return the number of traces
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Gets the number of samples per trace.
+	 *
+	 * @return the number of samples
+	 */
+	public int getSamples() {
+		return samples;
+	}
+
+	/**
+	 * Gets the name of the file of a trace.
+	 *
+	 * @param trace the index of the trace
+	 * @return the file name
+	 */
+	public String getName(int trace) {
+		return names[trace];
+	}
+
+	/**
+	 * Gets the index of the trace of a file.
+	 *
+	 * @param name the file name
+	 * @return the index of the trace, or -1 if there is none
+	 */
+	public int indexOf(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets a sample of a trace.
+	 *
+	 * @param trace the index of the trace
+	 * @param sample the index of the sample
+	 * @return the utilization percentage
+	 */
+	public int getPercentage(int trace, int sample) {
+		if (sample < 0 || sample >= samples) {
+			throw new IndexOutOfBoundsException("Sample: " + sample + ", Samples: " + samples);
+		}
+		return buffer.get(offsets[trace] + sample) & 0xFF;
+	}
+
+}
@@ -0,0 +1,600 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * The state history of a host or a VM. Each entry holds the time, the allocated mips, the
+ * requested mips and a flag, which is whether the host is active, or whether the VM is in
+ * migration. The entries are kept in primitive columns split into chunks, rather than one object
+ * per entry.
+ * <p>
+ * The history keeps either every entry, only the last entries (a ring buffer), or one entry per
+ * time bucket (downsampled). A downsampled entry holds the time-weighted mean of the mips over its
+ * bucket, so that integrals of the mips over time are preserved, and its flag is set if the flag
+ * was set at any time of the bucket. The complete chunks of a history that is not a ring buffer can
+ * be spilled to a memory-mapped {@link SpillFile}, out of the Java heap.
+ * <p>
+ * As in the previous list-based history, an entry added at the same time as the last entry
+ * replaces it.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class StateHistory {
+
+	/** The number of entries of a chunk, as a power of two. */
+	private static final int CHUNK_SHIFT = 10;
+
+	/** The number of entries of a chunk. */
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	/** The mask giving the position of an entry in its chunk. */
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** The size of a chunk in a spill file: three double columns and a byte column. */
+	private static final int CHUNK_BYTES = CHUNK_SIZE * (3 * 8 + 1);
+
+	/** The retention policies. */
+	public enum Retention {
+		/** Every entry is kept. */
+		FULL,
+		/** Only the last entries are kept. */
+		RING,
+		/** One entry is kept per time bucket. */
+		DOWNSAMPLED
+	}
+
+	/** The retention policy. */
+	private final Retention retention;
+
+	/** The maximum number of entries of a ring buffer. */
+	private final int capacity;
+
+	/** The length of a time bucket of a downsampled history. */
+	private final double resolution;
+
+	/** The time column, by chunk. */
+	private double[][] times;
+
+	/** The allocated mips column, by chunk. */
+	private double[][] allocatedMips;
+
+	/** The requested mips column, by chunk. */
+	private double[][] requestedMips;
+
+	/** The flag column, by chunk. */
+	private boolean[][] flags;
+
+	/** The chunks spilled to the spill file, or null for the chunks on the heap. */
+	private ByteBuffer[] spilledChunks;
+
+	/** The spill file, or null if the chunks are kept on the heap. */
+	private SpillFile spillFile;
+
+	/** The number of chunks spilled so far. */
+	private int spilledChunkCount;
+
+	/** The number of entries. */
+	private int size;
+
+	/** The physical position of the oldest entry of a ring buffer. */
+	private int first;
+
+	/** The time of the last entry added to a downsampled history. */
+	private double lastTime;
+
+	/** The allocated mips of the last entry added to a downsampled history. */
+	private double lastAllocatedMips;
+
+	/** The requested mips of the last entry added to a downsampled history. */
+	private double lastRequestedMips;
+
+	/** The flag of the last entry added to a downsampled history. */
+	private boolean lastFlag;
+
+	/** The allocated mips integrated over the open bucket, up to the last entry added. */
+	private double bucketAllocatedMips;
+
+	/** The requested mips integrated over the open bucket, up to the last entry added. */
+	private double bucketRequestedMips;
+
+	/** Whether the flag was set in the open bucket, before the last entry added. */
+	private boolean bucketFlag;
+
+	/**
+	 * Instantiates a new history keeping every entry.
+	 */
+	public StateHistory() {
+		this(Retention.FULL, Integer.MAX_VALUE, 0);
+	}
+
+	/**
+	 * Instantiates a new history.
+	 *
+	 * @param retention the retention policy
+	 * @param capacity the maximum number of entries of a ring buffer
+	 * @param resolution the length of a time bucket of a downsampled history
+	 */
+	private StateHistory(Retention retention, int capacity, double resolution) {
+		this.retention = retention;
+		this.capacity = capacity;
+		this.resolution = resolution;
+		times = new double[1][];
+		allocatedMips = new double[1][];
+		requestedMips = new double[1][];
+		flags = new boolean[1][];
+		spilledChunks = new ByteBuffer[1];
+	}
+
+	/**
+	 * Creates a history keeping only the last entries.
+	 *
+	 * @param capacity the maximum number of entries
+	 * @return the history
+	 */
+	public static StateHistory ringBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+		}
+		return new StateHistory(Retention.RING, capacity, 0);
+	}
+
+	/**
+	 * Creates a history keeping one entry per time bucket.
+	 *
+	 * @param resolution the length of a time bucket, in seconds
+	 * @return the history
+	 */
+	public static StateHistory downsampled(double resolution) {
+		if (resolution <= 0) {
+			throw new IllegalArgumentException("The resolution must be positive: " + resolution);
+		}
+		return new StateHistory(Retention.DOWNSAMPLED, Integer.MAX_VALUE, resolution);
+	}
+
+	/**
+	 * Spills the complete chunks of this history to a file from now on. A file can be shared by
+	 * several histories.
+	 *
+	 * @param spillFile the spill file
+	 */
+	public void setSpillFile(SpillFile spillFile) {
+		if (retention == Retention.RING) {
+			throw new IllegalStateException("A ring buffer is not spilled");
+		}
+		this.spillFile = spillFile;
+	}
+
+	/**
+	 * Adds an entry.
+	 *
+	 * @param time the time
+	 * @param allocated the allocated mips
+	 * @param requested the requested mips
+	 * @param flag the flag
+	 */
+	public void add(double time, double allocated, double requested, boolean flag) {
+		if (retention == Retention.DOWNSAMPLED) {
+			addDownsampled(time, allocated, requested, flag);
+		} else if (size > 0 && getTime(size - 1) == time) {
+			set(size - 1, time, allocated, requested, flag);
+		} else {
+			append(time, allocated, requested, flag);
+		}
+	}
+
+	/**
+	 * Adds an entry to a downsampled history, folding it into the open bucket.
+	 *
+	 * @param time the time
+	 * @param allocated the allocated mips
+	 * @param requested the requested mips
+	 * @param flag the flag
+	 */
+	private void addDownsampled(double time, double allocated, double requested, boolean flag) {
+		if (size == 0) {
+			append(time, allocated, requested, flag);
+		} else if (time != lastTime) {
+			// the last entry held from its time until now
+			double duration = time - lastTime;
+			bucketAllocatedMips += lastAllocatedMips * duration;
+			bucketRequestedMips += lastRequestedMips * duration;
+			bucketFlag |= lastFlag;
+
+			double bucketStart = getTime(size - 1);
+			double bucketLength = time - bucketStart;
+			set(size - 1, bucketStart, bucketAllocatedMips / bucketLength, bucketRequestedMips
+					/ bucketLength, bucketFlag);
+			if (bucketLength >= resolution) {
+				append(time, allocated, requested, flag);
+				bucketAllocatedMips = 0;
+				bucketRequestedMips = 0;
+				bucketFlag = false;
+			} else {
+				setFlag(size - 1, bucketFlag || flag);
+			}
+		} else if (getTime(size - 1) == time) {
+			set(size - 1, time, allocated, requested, flag);
+		} else {
+			setFlag(size - 1, bucketFlag || flag);
+		}
+		lastTime = time;
+		lastAllocatedMips = allocated;
+		lastRequestedMips = requested;
+		lastFlag = flag;
+	}
+
+	/**
+	 * Appends an entry, dropping the oldest one if a ring buffer is full.
+	 *
+	 * @param time the time
+	 * @param allocated the allocated mips
+	 * @param requested the requested mips
+	 * @param flag the flag
+	 */
+	private void append(double time, double allocated, double requested, boolean flag) {
+		if (size == capacity) {
+			first = (first + 1) % capacity;
+			size--;
+		}
+		int position = position(size);
+		int chunk = position >>> CHUNK_SHIFT;
+		if (chunk >= times.length) {
+			int chunks = Math.max(chunk + 1, times.length << 1);
+			times = Arrays.copyOf(times, chunks);
+			allocatedMips = Arrays.copyOf(allocatedMips, chunks);
+			requestedMips = Arrays.copyOf(requestedMips, chunks);
+			flags = Arrays.copyOf(flags, chunks);
+			spilledChunks = Arrays.copyOf(spilledChunks, chunks);
+		}
+		if (times[chunk] == null) {
+			int length = Math.min(CHUNK_SIZE, capacity - (chunk << CHUNK_SHIFT));
+			times[chunk] = new double[length];
+			allocatedMips[chunk] = new double[length];
+			requestedMips[chunk] = new double[length];
+			flags[chunk] = new boolean[length];
+		}
+		size++;
+		set(size - 1, time, allocated, requested, flag);
+
+		// only the last entry may change, so the chunks before it are complete
+		if (spillFile != null && (position & CHUNK_MASK) == 0) {
+			for (int i = spilledChunkCount; i < chunk; i++) {
+				spill(i);
+			}
+		}
+	}
+
+	/**
+	 * Moves a complete chunk to the spill file.
+	 *
+	 * @param chunk the chunk
+	 */
+	private void spill(int chunk) {
+		ByteBuffer buffer;
+		try {
+			buffer = spillFile.allocate(CHUNK_BYTES);
+		} catch (IOException e) {
+			throw new IllegalStateException("The state history cannot be spilled", e);
+		}
+		for (int i = 0; i < CHUNK_SIZE; i++) {
+			buffer.putDouble(i << 3, times[chunk][i]);
+			buffer.putDouble((CHUNK_SIZE + i) << 3, allocatedMips[chunk][i]);
+			buffer.putDouble((2 * CHUNK_SIZE + i) << 3, requestedMips[chunk][i]);
+			buffer.put(24 * CHUNK_SIZE + i, flags[chunk][i] ? (byte) 1 : (byte) 0);
+		}
+		spilledChunks[chunk] = buffer;
+		times[chunk] = null;
+		allocatedMips[chunk] = null;
+		requestedMips[chunk] = null;
+		flags[chunk] = null;
+		spilledChunkCount = chunk + 1;
+	}
+
+	/**
+	 * Sets the columns of an entry, which is on the heap.
+	 *
+	 * @param index the index of the entry
+	 * @param time the time
+	 * @param allocated the allocated mips
+	 * @param requested the requested mips
+	 * @param flag the flag
+	 */
+	private void set(int index, double time, double allocated, double requested, boolean flag) {
+		int position = position(index);
+		int chunk = position >>> CHUNK_SHIFT;
+		int offset = position & CHUNK_MASK;
+		times[chunk][offset] = time;
+		allocatedMips[chunk][offset] = allocated;
+		requestedMips[chunk][offset] = requested;
+		flags[chunk][offset] = flag;
+	}
+
+	/**
+	 * Sets the flag of an entry, which is on the heap.
+	 *
+	 * @param index the index of the entry
+	 * @param flag the flag
+	 */
+	private void setFlag(int index, boolean flag) {
+		int position = position(index);
+		flags[position >>> CHUNK_SHIFT][position & CHUNK_MASK] = flag;
+	}
+
+	/**
+	 * Gets the physical position of an entry.
+	 *
+	 * @param index the index of the entry, from the oldest one
+	 * @return the position
+	 */
+	private int position(int index) {
+		if (retention != Retention.RING) {
+			return index;
+		}
+		int position = first + index;
+		return position < capacity ? position : position - capacity;
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the history is empty.
+	 *
+	 * @return true, if there is no entry
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the retention policy.
+	 *
+	 * @return the retention policy
+	 */
+	public Retention getRetention() {
+		return retention;
+	}
+
+	/**
+	 * Gets the time of an entry.
+	 *
+	 * @param index the index of the entry, from the oldest one
+	 * @return the time
+	 */
+	public double getTime(int index) {
+		return getDouble(index, times, 0);
+	}
+
+	/**
+	 * Gets the allocated mips of an entry.
+	 *
+	 * @param index the index of the entry, from the oldest one
+	 * @return the allocated mips
+	 */
+	public double getAllocatedMips(int index) {
+		return getDouble(index, allocatedMips, 1);
+	}
+
+	/**
+	 * Gets the requested mips of an entry.
+	 *
+	 * @param index the index of the entry, from the oldest one
+	 * @return the requested mips
+	 */
+	public double getRequestedMips(int index) {
+		return getDouble(index, requestedMips, 2);
+	}
+
+	/**
+	 * Gets the flag of an entry: whether the host is active, or whether the VM is in migration.
+	 *
+	 * @param index the index of the entry, from the oldest one
+	 * @return the flag
+	 */
+	public boolean getFlag(int index) {
+		checkIndex(index);
+		int position = position(index);
+		int chunk = position >>> CHUNK_SHIFT;
+		int offset = position & CHUNK_MASK;
+		if (flags[chunk] == null) {
+			return spilledChunks[chunk].get(24 * CHUNK_SIZE + offset) != 0;
+		}
+		return flags[chunk][offset];
+	}
+
+	/**
+	 * Gets a double column of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @param column the column on the heap
+	 * @param columnIndex the index of the column in a spilled chunk
+	 * @return the value
+	 */
+	private double getDouble(int index, double[][] column, int columnIndex) {
+		checkIndex(index);
+		int position = position(index);
+		int chunk = position >>> CHUNK_SHIFT;
+		int offset = position & CHUNK_MASK;
+		if (column[chunk] == null) {
+			return spilledChunks[chunk].getDouble((columnIndex * CHUNK_SIZE + offset) << 3);
+		}
+		return column[chunk][offset];
+	}
+
+	/**
+	 * Checks that an entry exists.
+	 *
+	 * @param index the index of the entry
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Gets a cursor over the entries, from the oldest one. The history must not be modified while
+	 * the cursor is used.
+	 *
+	 * @return the cursor
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * A cursor over the entries of a history, which reads the columns without creating an object
+	 * per entry:
+	 *
+	 * <pre>
+	 * StateHistory.Cursor entry = history.cursor();
+	 * while (entry.next()) {
+	 * 	double time = entry.getTime();
+	 * 	...
+	 * }
+	 * </pre>
+	 */
+	public class Cursor {
+
+		/** The index of the current entry. */
+		private int index = -1;
+
+		/**
+		 * Moves to the next entry.
+		 *
+		 * @return true, if there is a next entry
+		 */
+		public boolean next() {
+			if (index + 1 >= size) {
+				return false;
+			}
+			index++;
+			return true;
+		}
+
+		/**
+		 * Gets the time of the current entry.
+		 *
+		 * @return the time
+		 */
+		public double getTime() {
+			return StateHistory.this.getTime(index);
+		}
+
+		/**
+		 * Gets the allocated mips of the current entry.
+		 *
+		 * @return the allocated mips
+		 */
+		public double getAllocatedMips() {
+			return StateHistory.this.getAllocatedMips(index);
+		}
+
+		/**
+		 * Gets the requested mips of the current entry.
+		 *
+		 * @return the requested mips
+		 */
+		public double getRequestedMips() {
+			return StateHistory.this.getRequestedMips(index);
+		}
+
+		/**
+		 * Gets the flag of the current entry.
+		 *
+		 * @return the flag
+		 */
+		public boolean getFlag() {
+			return StateHistory.this.getFlag(index);
+		}
+
+	}
+
+	/**
+	 * A file holding the spilled chunks of state histories, mapped into memory chunk by chunk.
+	 */
+	public static class SpillFile {
+
+		/**
+		 * The size of the regions mapped at once. The chunks are handed out as slices of them, so
+		 * that long simulations do not run out of memory mappings.
+		 */
+		private static final int REGION_BYTES = 32 << 20;
+
+		/** The file. */
+		private final RandomAccessFile file;
+
+		/** The length of the file mapped so far. */
+		private long length;
+
+		/** The region being handed out, or null if none was mapped yet. */
+		private MappedByteBuffer region;
+
+		/** The offset of the free part of the region. */
+		private int regionOffset;
+
+		/**
+		 * Opens a spill file, discarding its previous content.
+		 *
+		 * @param file the file
+		 * @throws IOException if the file cannot be opened
+		 */
+		public SpillFile(File file) throws IOException {
+			this.file = new RandomAccessFile(file, "rw");
+			this.file.setLength(0);
+		}
+
+		/**
+		 * Allocates a new block of the file, as a slice of the mapped region. A new region is mapped
+		 * at the end of the file when the block does not fit in the current one.
+		 *
+		 * @param bytes the size of the block
+		 * @return the mapped block
+		 * @throws IOException if the file cannot be mapped
+		 */
+		synchronized ByteBuffer allocate(int bytes) throws IOException {
+			if (region == null || region.capacity() - regionOffset < bytes) {
+				int regionBytes = Math.max(REGION_BYTES, bytes);
+				region = file.getChannel().map(FileChannel.MapMode.READ_WRITE, length, regionBytes);
+				regionOffset = 0;
+				length += regionBytes;
+			}
+			ByteBuffer block = region.duplicate();
+			block.position(regionOffset);
+			block.limit(regionOffset + bytes);
+			regionOffset += bytes;
+			return block.slice();
+		}
+
+		/**
+		 * Closes the file. The regions already mapped stay readable.
+		 *
+		 * @throws IOException if the file cannot be closed
+		 */
+		public void close() throws IOException {
+			file.close();
+		}
+
+	}
+
+}
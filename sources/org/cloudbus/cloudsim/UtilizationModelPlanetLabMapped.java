@@ -0,0 +1,133 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+
+/**
+ * 从PlanetLab负载的二进制存储中读取云任务的占用资源率
+ * The utilization model of a PlanetLab trace read from a {@link PlanetLabTraceStore}. The
+ * utilization is the same as the one of {@link UtilizationModelPlanetLabInMemory} reading the
+ * trace file: the samples of the trace are followed by a copy of the last one, and the utilization
+ * between two samples is interpolated linearly. The samples are read from the mapped store, and
+ * are not copied.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationModelPlanetLabMapped implements UtilizationModel {
+
+	/** The scheduling interval. */
+	private double schedulingInterval;
+
+	/** The store. */
+	private final PlanetLabTraceStore store;
+
+	/** The index of the trace in the store. */
+	private final int trace;
+
+	/**
+	 * Instantiates a new utilization model reading a trace of a store.
+	 *
+	 * @param store the store
+	 * @param trace the index of the trace in the store
+	 * @param schedulingInterval the scheduling interval
+	 */
+	public UtilizationModelPlanetLabMapped(PlanetLabTraceStore store, int trace, double schedulingInterval) {
+		if (trace < 0 || trace >= store.size()) {
+			throw new IndexOutOfBoundsException("Trace: " + trace + ", Traces: " + store.size());
+		}
+		this.store = store;
+		this.trace = trace;
+		setSchedulingInterval(schedulingInterval);
+	}
+
+	/**
+	 * Instantiates a new utilization model reading the trace of a file from a store.
+	 *
+	 * @param storePath the path of the store
+	 * @param name the name of the trace file
+	 * @param schedulingInterval the scheduling interval
+	 * @throws IOException if the store cannot be read, or has no trace of the file
+	 */
+	public UtilizationModelPlanetLabMapped(String storePath, String name, double schedulingInterval)
+			throws IOException {
+		store = PlanetLabTraceStore.open(storePath);
+		trace = store.indexOf(name);
+		if (trace < 0) {
+			throw new IOException(storePath + " has no trace " + name);
+		}
+		setSchedulingInterval(schedulingInterval);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		if (time % getSchedulingInterval() == 0) {
+			return getData((int) time / (int) getSchedulingInterval());
+		}
+		int time1 = (int) Math.floor(time / getSchedulingInterval());
+		int time2 = (int) Math.ceil(time / getSchedulingInterval());
+		double utilization1 = getData(time1);
+		double utilization2 = getData(time2);
+		double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
+		double utilization = utilization1 + delta * (time - time1 * getSchedulingInterval());
+		return utilization;
+	}
+
+	/**
+	 * Gets a sample of the trace; the sample after the last one is a copy of the last one.
+	 *
+	 * @param index the index of the sample
+	 * @return the utilization
+	 */
+	protected double getData(int index) {
+		int samples = store.getSamples();
+		return store.getPercentage(trace, index == samples ? samples - 1 : index) / 100.0;
+	}
+
+	/**
+	 * Gets the store.
+	 *
+	 * @return the store
+	 */
+	public PlanetLabTraceStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Gets the index of the trace in the store.
+	 *
+	 * @return the index of the trace
+	 */
+	public int getTrace() {
+		return trace;
+	}
+
+	/**
+	 * Sets the scheduling interval.
+	 *
+	 * @param schedulingInterval the new scheduling interval
+	 */
+	public void setSchedulingInterval(double schedulingInterval) {
+		this.schedulingInterval = schedulingInterval;
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 *
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+
+/**
+ * 由采样点给出的资源使用率：每个采样点的使用率一直保持到下一个采样点
+ * The utilization model of a task of a cluster trace, given by usage samples. The utilization of a
+ * sample holds from its time until the time of the next one; before the first sample, the
+ * utilization is the one of the first sample, and after the last one, the one of the last sample.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see org.cloudbus.cloudsim.util.ClusterTraceReader
+ */
+public class UtilizationModelSampled implements UtilizationModel {
+
+	/** The times of the samples, in increasing order. */
+	private final double[] times;
+
+	/** The utilization of the samples. */
+	private final double[] utilizations;
+
+	/** The index of the sample found by the last call, as the time mostly goes forward. */
+	private int last;
+
+	/**
+	 * Instantiates a new utilization model.
+	 *
+	 * @param times the times of the samples, in increasing order
+	 * @param utilizations the utilization of the samples
+	 */
+	public UtilizationModelSampled(double[] times, double[] utilizations) {
+		if (times.length != utilizations.length || times.length == 0) {
+			throw new IllegalArgumentException("There must be as many times as utilizations, and at least one.");
+		}
+		this.times = times;
+		this.utilizations = utilizations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		int i = last;
+		if (time >= times[i] && (i == times.length - 1 || time < times[i + 1])) {
+			return utilizations[i];
+		}
+		if (time < times[0]) {
+			i = 0;
+		} else {
+			i = Arrays.binarySearch(times, time);
+			if (i < 0) {
+				i = -i - 2;
+			}
+			// the last of the samples of the same time holds
+			while (i < times.length - 1 && times[i + 1] == time) {
+				i++;
+			}
+		}
+		last = i;
+		return utilizations[i];
+	}
+
+	/**
+	 * Gets the number of samples.
+	 *
+	 * @return the number of samples
+	 */
+	public int size() {
+		return times.length;
+	}
+
+}
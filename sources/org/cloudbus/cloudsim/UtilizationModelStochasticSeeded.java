@@ -0,0 +1,115 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.distributions.SplitMix64;
+
+/**
+ * 可复现的随机资源使用率：由(种子, 流, 时间)直接算出，不保存历史
+ * A stochastic utilization model that keeps no history: the utilization at a time is a uniform
+ * random number in [0, 1) computed by {@link SplitMix64} from the seed, the stream and the time.
+ * As {@link UtilizationModelStochastic}, it gives the same utilization each time it is asked for
+ * the same time; in addition, the utilization does not depend on the order in which the times are
+ * asked for, so that a simulation gives the same results when cloudlets are processed in parallel,
+ * or in another order.
+ *
+ * Each cloudlet should use its own stream, such as its id, so that the utilizations of the
+ * cloudlets are independent.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationModelStochasticSeeded implements UtilizationModel {
+
+	/** The seed. */
+	private final long seed;
+
+	/** The stream. */
+	private final long stream;
+
+	/** The length of the time buckets, or 0 if each time has its own utilization. */
+	private final double bucketLength;
+
+	/**
+	 * Instantiates a new model giving each time its own utilization.
+	 *
+	 * @param seed the seed
+	 * @param stream the stream, such as the id of the cloudlet
+	 */
+	public UtilizationModelStochasticSeeded(long seed, long stream) {
+		this(seed, stream, 0);
+	}
+
+	/**
+	 * Instantiates a new model giving the same utilization to all the times of a bucket.
+	 *
+	 * @param seed the seed
+	 * @param stream the stream, such as the id of the cloudlet
+	 * @param bucketLength the length of the time buckets, such as the scheduling interval; 0 if
+	 *            each time has its own utilization
+	 */
+	public UtilizationModelStochasticSeeded(long seed, long stream, double bucketLength) {
+		if (bucketLength < 0) {
+			throw new IllegalArgumentException("Bucket length must not be negative.");
+		}
+		this.seed = seed;
+		this.stream = stream;
+		this.bucketLength = bucketLength;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		return SplitMix64.toDouble(SplitMix64.hash(seed, stream, getCounter(time)));
+	}
+
+	/**
+	 * Gets the counter of a time: the index of its bucket, or the bits of the time if each time has
+	 * its own utilization.
+	 *
+	 * @param time the time
+	 * @return the counter
+	 */
+	protected long getCounter(double time) {
+		if (bucketLength > 0) {
+			return (long) Math.floor(time / bucketLength);
+		}
+		return Double.doubleToLongBits(time);
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the stream.
+	 *
+	 * @return the stream
+	 */
+	public long getStream() {
+		return stream;
+	}
+
+	/**
+	 * Gets the length of the time buckets.
+	 *
+	 * @return the bucket length, 0 if each time has its own utilization
+	 */
+	public double getBucketLength() {
+		return bucketLength;
+	}
+
+}
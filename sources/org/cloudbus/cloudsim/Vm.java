@@ -7,10 +7,14 @@
 
 package org.cloudbus.cloudsim;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.MathUtil;
+
 /**
  * Vm represents a VM: it runs inside a Host, sharing hostList with other VMs. It processes
  * cloudlets. This processing happens according to a policy, defined by the CloudletScheduler. Each
@@ -31,6 +35,9 @@ public class Vm {
 	/** The uid. */
 	private String uid;
 
+	/** The dense integer handle of the VM, unique among the VMs of the simulation. */
+	private final int handle;
+
 	/** 镜像大小The size. */
 	private long size;
 
@@ -80,7 +87,7 @@ public class Vm {
 
 	/** The mips allocation history. */
 	// 虚拟机分配的历史
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<VmStateHistoryEntry>();
+	private StateHistory stateHistory = new StateHistory();
 
 	/**
 	 * Creates a new VMCharacteristics object.
@@ -114,6 +121,7 @@ public class Vm {
 			long size,
 			String vmm,
 			CloudletScheduler cloudletScheduler) {
+		handle = CloudSim.nextVmHandle();
 		setId(id);
 		setUserId(userId);
 		setUid(getUid(userId, id));
@@ -139,7 +147,7 @@ public class Vm {
 	 * Updates the processing of cloudlets running on this VM.
 	 * 
 	 * @param currentTime current simulation time
-	 * @param mipsShare array with MIPS share of each Pe available to the scheduler
+	 * @param mipsShare list with MIPS share of each Pe available to the scheduler
 	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is no
 	 *         next events VMs将返回当前由VMs管理的任务单元下次预计完成时间，如果返回值为0表示没有事件在虚拟机中被处理
 	 * @pre currentTime >= 0
@@ -152,6 +160,23 @@ public class Vm {
 		return 0.0;
 	}
 
+	/**
+	 * Updates the processing of cloudlets running on this VM, given the MIPS share as an array.
+	 * This is the method called by the hosts; by default, it is an adapter of
+	 * {@link #updateVmProcessing(double, List)}. VMs override it to pass the array to the scheduler
+	 * directly, and then make the list version call it.
+	 * 
+	 * @param currentTime current simulation time
+	 * @param mipsShare array with MIPS share of each Pe available to the scheduler
+	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is no
+	 *         next events
+	 * @pre currentTime >= 0
+	 * @post $none
+	 */
+	public double updateVmProcessing(double currentTime, double[] mipsShare) {
+		return updateVmProcessing(currentTime, mipsShare == null ? null : MathUtil.arrayToList(mipsShare));
+	}
+
 	/**
 	 * 获取虚拟机请求的MIPS 如果是正在实例化，则返回虚拟机编程时候设置的MIPS，否则 Gets the current requested mips.
 	 * 
@@ -168,6 +193,20 @@ public class Vm {
 		return currentRequestedMips;
 	}
 
+	/**
+	 * Gets the current requested mips as an array, which must not be modified.
+	 * 
+	 * @return the current requested mips
+	 */
+	public double[] getCurrentRequestedMipsArray() {
+		if (isBeingInstantiated()) {
+			double[] currentRequestedMips = new double[getNumberOfPes()];
+			Arrays.fill(currentRequestedMips, getMips());
+			return currentRequestedMips;
+		}
+		return getCloudletScheduler().getCurrentRequestedMipsArray();
+	}
+
 	/**
 	 * Gets the current requested total mips.
 	 * 
@@ -175,7 +214,7 @@ public class Vm {
 	 */
 	public double getCurrentRequestedTotalMips() {
 		double totalRequestedMips = 0;
-		for (double mips : getCurrentRequestedMips()) {
+		for (double mips : getCurrentRequestedMipsArray()) {
 			totalRequestedMips += mips;
 		}
 		return totalRequestedMips;
@@ -189,7 +228,7 @@ public class Vm {
 	 */
 	public double getCurrentRequestedMaxMips() {
 		double maxMips = 0;
-		for (double mips : getCurrentRequestedMips()) {
+		for (double mips : getCurrentRequestedMipsArray()) {
 			if (mips > maxMips) {
 				maxMips = mips;
 			}
@@ -270,6 +309,18 @@ public class Vm {
 		return userId + "-" + vmId;
 	}
 
+	/**
+	 * Gets the integer handle of the VM. Unlike the uid, the handle is assigned once at creation
+	 * from a dense sequence, restarted by each simulation, so hosts, schedulers and provisioners
+	 * key their per-VM state by it without building or hashing strings.
+	 * 
+	 * @return the handle
+	 * @see CloudSim#nextVmHandle()
+	 */
+	public int getHandle() {
+		return handle;
+	}
+
 	/**
 	 * Gets the id.
 	 * 
@@ -578,14 +629,50 @@ public class Vm {
 	}
 
 	/**
-	 * Gets the state history.
+	 * Gets the state history, as a read-only list view creating an entry object per element. The
+	 * SLA computations should read {@link #getStateHistoryStore()} instead.
 	 * 
 	 * @return the state history
 	 */
 	public List<VmStateHistoryEntry> getStateHistory() {
+		final StateHistory history = getStateHistoryStore();
+		return new AbstractList<VmStateHistoryEntry>() {
+
+			@Override
+			public VmStateHistoryEntry get(int index) {
+				return new VmStateHistoryEntry(
+						history.getTime(index),
+						history.getAllocatedMips(index),
+						history.getRequestedMips(index),
+						history.getFlag(index));
+			}
+
+			@Override
+			public int size() {
+				return history.size();
+			}
+
+		};
+	}
+
+	/**
+	 * Gets the state history store, whose flag is whether the VM is in migration.
+	 * 
+	 * @return the state history store
+	 */
+	public StateHistory getStateHistoryStore() {
 		return stateHistory;
 	}
 
+	/**
+	 * Sets the state history store, which defines how much of the history is kept.
+	 * 
+	 * @param stateHistory the new state history store
+	 */
+	public void setStateHistoryStore(StateHistory stateHistory) {
+		this.stateHistory = stateHistory;
+	}
+
 	/**
 	 * Adds the state history entry.
 	 * 
@@ -599,19 +686,7 @@ public class Vm {
 			double allocatedMips,
 			double requestedMips,
 			boolean isInMigration) {
-		VmStateHistoryEntry newState = new VmStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isInMigration);
-		if (!getStateHistory().isEmpty()) {
-			VmStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistoryStore().add(time, allocatedMips, requestedMips, isInMigration);
 	}
 
 }
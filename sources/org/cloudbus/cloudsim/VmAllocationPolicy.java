@@ -61,6 +61,25 @@ public abstract class VmAllocationPolicy {
 	 */
 	public abstract boolean allocateHostForVm(Vm vm, Host host);
 
+	/**
+	 * 批量为虚拟机分配物理机 Allocates hosts for a list of VMs. The default implementation places the
+	 * VMs one by one through {@link #allocateHostForVm(Vm)}; policies able to place VMs in bulk
+	 * should override it.
+	 * 
+	 * @param vmList the VMs to be allocated
+	 * @return the allocation result of each VM, in the order of the list
+	 * @pre vmList != null
+	 * @post $none
+	 */
+	public boolean[] allocateHostsForVms(List<? extends Vm> vmList) {
+		boolean[] results = new boolean[vmList.size()];
+		int i = 0;
+		for (Vm vm : vmList) {
+			results[i++] = allocateHostForVm(vm);
+		}
+		return results;
+	}
+
 	/**
 	 * Optimize allocation of the VMs according to current utilization.
 	 * 
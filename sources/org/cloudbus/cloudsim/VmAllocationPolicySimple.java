@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.MaxSegmentTree;
 
 /**
  * 简单的VM非配策略，将VM非配给可用PE数最多的物理机
@@ -35,6 +36,12 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	/** 空闲的PE的PE个数 The free pes. */
 	private List<Integer> freePes;
 
+	/** 按空闲PE数索引物理机 The free pes, indexed to find the host with the most free pes. */
+	private MaxSegmentTree freePesIndex;
+
+	/** 物理机在列表中的位置 The position of each host in the host list. */
+	private Map<Host, Integer> hostIndex;
+
 	/**
 	 * Creates the new VmAllocationPolicySimple object.
 	 * 
@@ -46,12 +53,17 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 		super(list);
 
 		setFreePes(new ArrayList<Integer>());
+		hostIndex = new HashMap<Host, Integer>();
+		int[] freePesOfHosts = new int[getHostList().size()];
+		int idx = 0;
 		//将物理机列表中的剩余PE数，依次加入剩余PE列表
 		for (Host host : getHostList()) {
 			//host.getNumberOfPes()获取的是物理机的PE个数
 			getFreePes().add(host.getNumberOfPes());
-
+			freePesOfHosts[idx] = host.getNumberOfPes();
+			hostIndex.put(host, idx++);
 		}
+		freePesIndex = new MaxSegmentTree(freePesOfHosts);
 
 		setVmTable(new HashMap<String, Host>());
 		setUsedPes(new HashMap<String, Integer>());
@@ -67,30 +79,47 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	 */
 	@Override
 	public boolean allocateHostForVm(Vm vm) {
+		return allocateHostForVm(vm, new ArrayList<Integer>());
+	}
+
+	/**
+	 * Allocates a host for each VM of a list in turn, sharing the bookkeeping of the hosts tried.
+	 * 
+	 * @param vmList the VMs to be allocated
+	 * @return the allocation result of each VM, in the order of the list
+	 * @pre vmList != null
+	 * @post $none
+	 */
+	@Override
+	public boolean[] allocateHostsForVms(List<? extends Vm> vmList) {
+		boolean[] results = new boolean[vmList.size()];
+		List<Integer> failedHosts = new ArrayList<Integer>();
+		int i = 0;
+		for (Vm vm : vmList) {
+			results[i++] = allocateHostForVm(vm, failedHosts);
+		}
+		return results;
+	}
+
+	/**
+	 * Allocates the host with the most free PEs to a VM, trying the next one as long as the VM
+	 * cannot be created. The hosts tried are left out of the index until the VM is placed.
+	 * 
+	 * @param vm the vm
+	 * @param failedHosts an empty list, to hold the positions of the hosts tried
+	 * @return $true if the host could be allocated; $false otherwise
+	 */
+	private boolean allocateHostForVm(Vm vm, List<Integer> failedHosts) {
 		//获取虚拟机需要的PE数
 		int requiredPes = vm.getNumberOfPes();
 		boolean result = false;
 		int tries = 0;
-		List<Integer> freePesTmp = new ArrayList<Integer>();
-		// 临时保存每台物理机可用的PE数
-		for (Integer freePes : getFreePes()) {
-			freePesTmp.add(freePes);
-		}
-		
+
 		//如果该虚拟机没有分配物理机，为其分配物理机
 		if (!getVmTable().containsKey(vm.getUid())) { // if this vm was not created
 			do {// we still trying until we find a host or until we try all of them
-				int moreFree = Integer.MIN_VALUE;
-				// 可用PE数最多的索引
-				int idx = -1;
-
 				// 找到可用PE数最多的物理机 we want the host with less pes in use
-				for (int i = 0; i < freePesTmp.size(); i++) {
-					if (freePesTmp.get(i) > moreFree) {
-						moreFree = freePesTmp.get(i);
-						idx = i;
-					}
-				}
+				int idx = freePesIndex.indexOfMax();
 				// 获取可用PE数最大的物理机
 				Host host = getHostList().get(idx);
 				// 在其上面创建虚拟机
@@ -103,19 +132,24 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 					//	减少相应的物理机的PE数
 					getVmTable().put(vm.getUid(), host);
 					getUsedPes().put(vm.getUid(), requiredPes);
-					getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
-					result = true;
+					updateFreePes(idx, -requiredPes);
 					break;
 				} else {
-					// 如果分配失败，则将该物理机的可用PE数设置为整数最小值（只是在临时列表中设置），从而排除该物理机。
+					// 如果分配失败，则暂时将该物理机移出索引，从而排除该物理机。
 					// 具体失败原因参考vmCreate的内部实现。
-					freePesTmp.set(idx, Integer.MIN_VALUE);
+					freePesIndex.set(idx, Integer.MIN_VALUE);
+					failedHosts.add(idx);
 				}
 				// 尝试的次数加1
 				tries++;
 				//最多尝试的次数是有空闲PE的主机列表的长度
 			} while (!result && tries < getFreePes().size());
 
+			// 恢复被排除的物理机 put the hosts tried back into the index
+			for (int idx : failedHosts) {
+				freePesIndex.set(idx, getFreePes().get(idx));
+			}
+			failedHosts.clear();
 		}
 
 		return result;
@@ -131,11 +165,11 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	@Override
 	public void deallocateHostForVm(Vm vm) {
 		Host host = getVmTable().remove(vm.getUid());
-		int idx = getHostList().indexOf(host);
 		int pes = getUsedPes().remove(vm.getUid());
 		if (host != null) {
+			int idx = hostIndex.get(host);
 			host.vmDestroy(vm);
-			getFreePes().set(idx, getFreePes().get(idx) + pes);
+			updateFreePes(idx, pes);
 		}
 	}
 
@@ -220,6 +254,28 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 		this.freePes = freePes;
 	}
 
+	/**
+	 * Changes the free pes of a host, in the list and in the index.
+	 * 
+	 * @param idx the position of the host in the host list
+	 * @param pes the number of pes freed, or minus the number of pes taken
+	 */
+	private void updateFreePes(int idx, int pes) {
+		int freePesOfHost = getFreePes().get(idx) + pes;
+		getFreePes().set(idx, freePesOfHost);
+		freePesIndex.set(idx, freePesOfHost);
+	}
+
+	/**
+	 * Gets the position of the first host having at least a number of free pes.
+	 * 
+	 * @param pes the number of pes
+	 * @return the position of the host in the host list, or -1 if there is none
+	 */
+	protected int getFirstHostWithFreePes(int pes) {
+		return freePesIndex.firstAtLeast(pes);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.VmAllocationPolicy#optimizeAllocation(double, cloudsim.VmList, double)
@@ -241,9 +297,9 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 			getVmTable().put(vm.getUid(), host);
 
 			int requiredPes = vm.getNumberOfPes();
-			int idx = getHostList().indexOf(host);
+			int idx = hostIndex.get(host);
 			getUsedPes().put(vm.getUid(), requiredPes);
-			getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+			updateFreePes(idx, -requiredPes);
 
 			Log.formatLine(
 					"%.2f: VM #" + vm.getId() + " has been allocated to the host #" + host.getId(),
@@ -8,11 +8,11 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.util.IntObjectMap;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * 虚拟机在物理机上面的调度策略：
@@ -38,20 +38,20 @@ public abstract class VmScheduler {
 	/** PE列表 The peList. */
 	private List<? extends Pe> peList;
 
-	/** 虚拟机和PE的映射表 The map of VMs to PEs. */
-	private Map<String, List<Pe>> peMap;
+	/** 虚拟机和PE的映射表 The map of VMs to PEs, keyed by VM handle. */
+	private IntObjectMap<List<Pe>> peMap;
 
-	/** 虚拟机和处理器资源列表的映射表 The MIPS that are currently allocated to the VMs. */
-	private Map<String, List<Double>> mipsMap;
+	/** 虚拟机和处理器资源列表的映射表 The MIPS that are currently allocated to the VMs, keyed by VM handle. */
+	private IntObjectMap<double[]> mipsMap;
 
 	/** 可用的处理器资源 The total available mips. */
 	private double availableMips;
 
-	/** 迁移进来的虚拟机列表 The VMs migrating in. */
-	private List<String> vmsMigratingIn;
+	/** 迁移进来的虚拟机列表 The handles of the VMs migrating in. */
+	private List<Integer> vmsMigratingIn;
 
-	/** 迁移出去的虚拟机列表 The VMs migrating out. */
-	private List<String> vmsMigratingOut;
+	/** 迁移出去的虚拟机列表 The handles of the VMs migrating out. */
+	private List<Integer> vmsMigratingOut;
 
 	/**
 	 * Creates a new HostAllocationPolicy.
@@ -62,11 +62,11 @@ public abstract class VmScheduler {
 	 */
 	public VmScheduler(List<? extends Pe> pelist) {
 		setPeList(pelist);
-		setPeMap(new HashMap<String, List<Pe>>());
-		setMipsMap(new HashMap<String, List<Double>>());
+		setPeMap(new IntObjectMap<List<Pe>>());
+		setMipsMap(new IntObjectMap<double[]>());
 		setAvailableMips(PeList.getTotalMips(getPeList()));
-		setVmsMigratingIn(new ArrayList<String>());
-		setVmsMigratingOut(new ArrayList<String>());
+		setVmsMigratingIn(new ArrayList<Integer>());
+		setVmsMigratingOut(new ArrayList<Integer>());
 	}
 
 	/**
@@ -80,6 +80,35 @@ public abstract class VmScheduler {
 	 */
 	public abstract boolean allocatePesForVm(Vm vm, List<Double> mipsShare);
 
+	/**
+	 * Allocates PEs for a VM. The array is not modified, and may be kept by the scheduler.
+	 * 
+	 * @param vm the vm
+	 * @param mipsShare the mips share
+	 * @return $true if this policy allows a new VM in the host, $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	public boolean allocatePesForVm(Vm vm, double[] mipsShare) {
+		return allocatePesForVm(vm, MathUtil.arrayToList(mipsShare));
+	}
+
+	/**
+	 * Changes the mips share of a VM that already holds PEs, leaving the allocation of the other
+	 * VMs untouched. A scheduler that cannot do so in place returns false without changing
+	 * anything, and the caller has to reallocate the PEs of all the VMs instead; this is what the
+	 * default implementation does.
+	 *
+	 * @param vm the vm
+	 * @param mipsShare the new mips share
+	 * @return $true if the allocation of the VM has been updated, $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	public boolean updatePesForVm(Vm vm, double[] mipsShare) {
+		return false;
+	}
+
 	/**
 	 * Releases PEs allocated to a VM.
 	 * 
@@ -110,7 +139,7 @@ public abstract class VmScheduler {
 	 * @return the pes allocated for vm
 	 */
 	public List<Pe> getPesAllocatedForVM(Vm vm) {
-		return getPeMap().get(vm.getUid());
+		return getPeMap().get(vm.getHandle());
 	}
 
 	/**
@@ -122,7 +151,23 @@ public abstract class VmScheduler {
 	 * @post $none
 	 */
 	public List<Double> getAllocatedMipsForVm(Vm vm) {
-		return getMipsMap().get(vm.getUid());
+		double[] allocatedMips = getAllocatedMipsArrayForVm(vm);
+		return allocatedMips == null ? null : MathUtil.arrayToList(allocatedMips);
+	}
+
+	/**
+	 * Returns the MIPS share of each Pe that is allocated to a given VM. The array is owned by the
+	 * scheduler and must not be modified; a new array is made whenever the allocation changes, so
+	 * the per-tick processing does not allocate.
+	 * 
+	 * @param vm the vm
+	 * @return an array containing the amount of MIPS of each pe that is available to the VM, or
+	 *         null if the VM has no allocation
+	 * @pre $none
+	 * @post $none
+	 */
+	public double[] getAllocatedMipsArrayForVm(Vm vm) {
+		return getMipsMap().get(vm.getHandle());
 	}
 
 	/**
@@ -133,7 +178,7 @@ public abstract class VmScheduler {
 	 */
 	public double getTotalAllocatedMipsForVm(Vm vm) {
 		double allocated = 0;
-		List<Double> mipsMap = getAllocatedMipsForVm(vm);
+		double[] mipsMap = getAllocatedMipsArrayForVm(vm);
 		if (mipsMap != null) {
 			for (double mips : mipsMap) {
 				allocated += mips;
@@ -203,7 +248,7 @@ public abstract class VmScheduler {
 	 * 
 	 * @return the mips map
 	 */
-	protected Map<String, List<Double>> getMipsMap() {
+	protected IntObjectMap<double[]> getMipsMap() {
 		return mipsMap;
 	}
 
@@ -212,7 +257,7 @@ public abstract class VmScheduler {
 	 * 
 	 * @param mipsMap the mips map
 	 */
-	protected void setMipsMap(Map<String, List<Double>> mipsMap) {
+	protected void setMipsMap(IntObjectMap<double[]> mipsMap) {
 		this.mipsMap = mipsMap;
 	}
 
@@ -235,11 +280,11 @@ public abstract class VmScheduler {
 	}
 
 	/**
-	 * Gets the vms in migration.
+	 * Gets the handles of the vms in migration.
 	 * 
 	 * @return the vms in migration
 	 */
-	public List<String> getVmsMigratingOut() {
+	public List<Integer> getVmsMigratingOut() {
 		return vmsMigratingOut;
 	}
 
@@ -248,16 +293,16 @@ public abstract class VmScheduler {
 	 * 
 	 * @param vmsInMigration the new vms migrating out
 	 */
-	protected void setVmsMigratingOut(List<String> vmsInMigration) {
+	protected void setVmsMigratingOut(List<Integer> vmsInMigration) {
 		vmsMigratingOut = vmsInMigration;
 	}
 
 	/**
-	 * Gets the vms migrating in.
+	 * Gets the handles of the vms migrating in.
 	 * 
 	 * @return the vms migrating in
 	 */
-	public List<String> getVmsMigratingIn() {
+	public List<Integer> getVmsMigratingIn() {
 		return vmsMigratingIn;
 	}
 
@@ -266,7 +311,7 @@ public abstract class VmScheduler {
 	 * 
 	 * @param vmsMigratingIn the new vms migrating in
 	 */
-	protected void setVmsMigratingIn(List<String> vmsMigratingIn) {
+	protected void setVmsMigratingIn(List<Integer> vmsMigratingIn) {
 		this.vmsMigratingIn = vmsMigratingIn;
 	}
 
@@ -275,7 +320,7 @@ public abstract class VmScheduler {
 	 * 
 	 * @return the pe map
 	 */
-	public Map<String, List<Pe>> getPeMap() {
+	public IntObjectMap<List<Pe>> getPeMap() {
 		return peMap;
 	}
 
@@ -284,7 +329,7 @@ public abstract class VmScheduler {
 	 * 
 	 * @param peMap the pe map
 	 */
-	protected void setPeMap(Map<String, List<Pe>> peMap) {
+	protected void setPeMap(IntObjectMap<List<Pe>> peMap) {
 		this.peMap = peMap;
 	}
 
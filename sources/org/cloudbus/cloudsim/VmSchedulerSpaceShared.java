@@ -9,10 +9,11 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+
+import org.cloudbus.cloudsim.util.IntObjectMap;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * 空间共享分配策略：
@@ -27,8 +28,8 @@ import java.util.Map;
  */
 public class VmSchedulerSpaceShared extends VmScheduler {
 
-	/** 虚拟机ID和分配给虚拟机的PE列表的映射 Map containing VM ID and a vector of PEs allocated to this VM. */
-	private Map<String, List<Pe>> peAllocationMap;
+	/** 虚拟机句柄和分配给虚拟机的PE列表的映射 Map containing VM handle and a vector of PEs allocated to this VM. */
+	private IntObjectMap<List<Pe>> peAllocationMap;
 
 	/** 空闲的处理单元列表 The free pes vector. */
 	private List<Pe> freePes;
@@ -40,7 +41,7 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 */
 	public VmSchedulerSpaceShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setPeAllocationMap(new HashMap<String, List<Pe>>());
+		setPeAllocationMap(new IntObjectMap<List<Pe>>());
 		setFreePes(new ArrayList<Pe>());
 		getFreePes().addAll(pelist);
 	}
@@ -82,8 +83,8 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 		// 所以对于，空间共享，需要满足两个条件，一是处理单元个数足够，二是总的处理能力足够
 		getFreePes().removeAll(selectedPes);
 
-		getPeAllocationMap().put(vm.getUid(), selectedPes);
-		getMipsMap().put(vm.getUid(), mipsShare);
+		getPeAllocationMap().put(vm.getHandle(), selectedPes);
+		getMipsMap().put(vm.getHandle(), MathUtil.listToArray(mipsShare));
 		setAvailableMips(getAvailableMips() - totalMips);
 		return true;
 	}
@@ -94,16 +95,15 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 */
 	@Override
 	public void deallocatePesForVm(Vm vm) {
-		getFreePes().addAll(getPeAllocationMap().get(vm.getUid()));
-		getPeAllocationMap().remove(vm.getUid());
+		getFreePes().addAll(getPeAllocationMap().remove(vm.getHandle()));
 
 		double totalMips = 0;
-		for (double mips : getMipsMap().get(vm.getUid())) {
+		for (double mips : getMipsMap().get(vm.getHandle())) {
 			totalMips += mips;
 		}
 		setAvailableMips(getAvailableMips() + totalMips);
 
-		getMipsMap().remove(vm.getUid());
+		getMipsMap().remove(vm.getHandle());
 	}
 
 	/**
@@ -111,7 +111,7 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 * 
 	 * @param peAllocationMap the pe allocation map
 	 */
-	protected void setPeAllocationMap(Map<String, List<Pe>> peAllocationMap) {
+	protected void setPeAllocationMap(IntObjectMap<List<Pe>> peAllocationMap) {
 		this.peAllocationMap = peAllocationMap;
 	}
 
@@ -120,7 +120,7 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 * 
 	 * @return the pe allocation map
 	 */
-	protected Map<String, List<Pe>> getPeAllocationMap() {
+	protected IntObjectMap<List<Pe>> getPeAllocationMap() {
 		return peAllocationMap;
 	}
 
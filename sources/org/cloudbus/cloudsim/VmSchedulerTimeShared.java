@@ -7,15 +7,14 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.PeProvisioner;
+import org.cloudbus.cloudsim.util.IntObjectMap;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * VmSchedulerTimeShared is a VMM allocation policy that allocates one or more Pe to a VM, and
@@ -29,7 +28,7 @@ import org.cloudbus.cloudsim.provisioners.PeProvisioner;
 public class VmSchedulerTimeShared extends VmScheduler {
 
 	/** The mips map requested. */
-	private Map<String, List<Double>> mipsMapRequested;
+	private IntObjectMap<double[]> mipsMapRequested;
 
 	/** The pes in use. */
 	private int pesInUse;
@@ -41,7 +40,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	public VmSchedulerTimeShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setMipsMapRequested(new HashMap<String, List<Double>>());
+		setMipsMapRequested(new IntObjectMap<double[]>());
 	}
 
 	/*
@@ -50,34 +49,103 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	@Override
 	public boolean allocatePesForVm(Vm vm, List<Double> mipsShareRequested) {
+		return allocatePesForVm(vm, MathUtil.listToArray(mipsShareRequested));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.VmScheduler#allocatePesForVm(cloudsim.Vm, double[])
+	 */
+	@Override
+	public boolean allocatePesForVm(Vm vm, double[] mipsShareRequested) {
+		updateVmsMigratingOut(vm);
+		boolean result = allocatePesForVm(vm.getHandle(), mipsShareRequested);
+		updatePeProvisioning();
+		return result;
+	}
+
+	/**
+	 * Changes the mips share of a VM in place: the MIPS of its previous share are given back, the
+	 * new share is allocated as {@link #allocatePesForVm(int, double[])} would, and only the PEs of
+	 * this VM are provisioned again.
+	 * 
+	 * @param vm the vm
+	 * @param mipsShareRequested the new mips share
+	 * @return true, if the allocation of the VM has been updated
+	 */
+	@Override
+	public boolean updatePesForVm(Vm vm, double[] mipsShareRequested) {
+		int vmHandle = vm.getHandle();
+		double[] previousMipsShare = getMipsMapRequested().get(vmHandle);
+		if (previousMipsShare == null || !getMipsMap().containsKey(vmHandle)) {
+			return false;
+		}
+
+		updateVmsMigratingOut(vm);
+		double availableMips = getAvailableMips();
+		setAvailableMips(availableMips + getRequiredMips(vmHandle, previousMipsShare));
+		setPesInUse(getPesInUse() - previousMipsShare.length);
+		if (!allocatePesForVm(vmHandle, mipsShareRequested)) {
+			setAvailableMips(availableMips);
+			setPesInUse(getPesInUse() + previousMipsShare.length);
+			return false;
+		}
+		updatePeProvisioning(vm);
+		return true;
+	}
+
+	/**
+	 * Keeps the list of the VMs migrating out in line with the migration state of a VM.
+	 * 
+	 * @param vm the vm
+	 */
+	private void updateVmsMigratingOut(Vm vm) {
 		/**
 		 * TODO: add the same to RAM and BW provisioners
 		 */
  		if (vm.isInMigration()) {
-			if (!getVmsMigratingIn().contains(vm.getUid()) && !getVmsMigratingOut().contains(vm.getUid())) {
-				getVmsMigratingOut().add(vm.getUid());
+			if (!getVmsMigratingIn().contains(vm.getHandle()) && !getVmsMigratingOut().contains(vm.getHandle())) {
+				getVmsMigratingOut().add(vm.getHandle());
 			}
 		} else {
-			if (getVmsMigratingOut().contains(vm.getUid())) {
-				getVmsMigratingOut().remove(vm.getUid());
+			if (getVmsMigratingOut().contains(vm.getHandle())) {
+				getVmsMigratingOut().remove(Integer.valueOf(vm.getHandle()));
 			}
 		}
-		boolean result = allocatePesForVm(vm.getUid(), mipsShareRequested);
-		updatePeProvisioning();
-		return result;
+	}
+
+	/**
+	 * Gets the MIPS that an allocated share takes from the available MIPS of the host. Each virtual
+	 * PE counts for at most the capacity of a physical PE.
+	 * 
+	 * @param vmHandle the vm handle
+	 * @param mipsShareRequested the mips share requested
+	 * @return the required mips
+	 */
+	protected double getRequiredMips(int vmHandle, double[] mipsShareRequested) {
+		double requiredMips = 0;
+		double peMips = getPeCapacity();
+		for (double mips : mipsShareRequested) {
+			requiredMips += Math.min(mips, peMips);
+		}
+		if (getVmsMigratingIn().contains(vmHandle)) {
+			// the destination host only experience 10% of the migrating VM's MIPS
+			requiredMips *= 0.1;
+		}
+		return requiredMips;
 	}
 
 	/**
 	 * 时间共享 Allocate pes for vm.
 	 * 
-	 * @param vmUid the vm uid
+	 * @param vmHandle the vm handle
 	 * @param mipsShareRequested the mips share requested
 	 * @return true, if successful
 	 */
-	protected boolean allocatePesForVm(String vmUid, List<Double> mipsShareRequested) {
+	protected boolean allocatePesForVm(int vmHandle, double[] mipsShareRequested) {
 		double totalRequestedMips = 0;
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (double mips : mipsShareRequested) {
 			// 物理机的每一个处理单元的处理能力必须大于虚拟机的处理单元所需的处理器资源 each virtual PE of a VM must require not more than the capacity of a physical PE
 			if (mips > peMips) {
 				return false;
@@ -93,27 +161,30 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			return false;
 		}
 		//放入请求表中
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
-		setPesInUse(getPesInUse() + mipsShareRequested.size());
+		getMipsMapRequested().put(vmHandle, mipsShareRequested);
+		setPesInUse(getPesInUse() + mipsShareRequested.length);
 
-		if (getVmsMigratingIn().contains(vmUid)) {
+		boolean migratingIn = getVmsMigratingIn().contains(vmHandle);
+		boolean migratingOut = getVmsMigratingOut().contains(vmHandle);
+		if (migratingIn) {
 			// the destination host only experience 10% of the migrating VM's MIPS
 			totalRequestedMips *= 0.1;
 		}
 
-		List<Double> mipsShareAllocated = new ArrayList<Double>();
-		for (Double mipsRequested : mipsShareRequested) {
-			if (getVmsMigratingOut().contains(vmUid)) {
+		double[] mipsShareAllocated = new double[mipsShareRequested.length];
+		for (int i = 0; i < mipsShareRequested.length; i++) {
+			double mipsRequested = mipsShareRequested[i];
+			if (migratingOut) {
 				// performance degradation due to migration = 10% MIPS
 				mipsRequested *= 0.9;
-			} else if (getVmsMigratingIn().contains(vmUid)) {
+			} else if (migratingIn) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				mipsRequested *= 0.1;
 			}
-			mipsShareAllocated.add(mipsRequested);
+			mipsShareAllocated[i] = mipsRequested;
 		}
 
-		getMipsMap().put(vmUid, mipsShareAllocated);
+		getMipsMap().put(vmHandle, mipsShareAllocated);
 		setAvailableMips(getAvailableMips() - totalRequestedMips);//减少物理机总的可用的处理能力
 
 		return true;
@@ -133,26 +204,28 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		PeProvisioner peProvisioner = pe.getPeProvisioner();
 		double availableMips = peProvisioner.getAvailableMips();
 
-		for (Map.Entry<String, List<Double>> entry : getMipsMap().entrySet()) {
-			String vmUid = entry.getKey();
-			getPeMap().put(vmUid, new LinkedList<Pe>());
+		IntObjectMap<double[]> mipsMap = getMipsMap();
+		for (int slot = mipsMap.nextSlot(-1); slot >= 0; slot = mipsMap.nextSlot(slot)) {
+			int vmHandle = mipsMap.keyAt(slot);
+			List<Pe> pes = new LinkedList<Pe>();
+			getPeMap().put(vmHandle, pes);
 
-			for (double mips : entry.getValue()) {
+			for (double mips : mipsMap.valueAt(slot)) {
 				while (mips >= 0.1) {
 					if (availableMips >= mips) {
-						peProvisioner.allocateMipsForVm(vmUid, mips);
-						getPeMap().get(vmUid).add(pe);
+						peProvisioner.allocateMipsForVm(vmHandle, mips);
+						pes.add(pe);
 						availableMips -= mips;
 						break;
 					} else {
-						peProvisioner.allocateMipsForVm(vmUid, availableMips);
-						getPeMap().get(vmUid).add(pe);
+						peProvisioner.allocateMipsForVm(vmHandle, availableMips);
+						pes.add(pe);
 						mips -= availableMips;
 						if (mips <= 0.1) {
 							break;
 						}
 						if (!peIterator.hasNext()) {
-							Log.printLine("There is no enough MIPS (" + mips + ") to accommodate VM " + vmUid);
+							Log.printLine("There is no enough MIPS (" + mips + ") to accommodate VM #" + vmHandle);
 							// System.exit(0);
 						}
 						pe = peIterator.next();
@@ -164,13 +237,62 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		}
 	}
 
+	/**
+	 * Update allocation of one VM on PEs, filling the MIPS left free by the other VMs.
+	 * 
+	 * @param vm the vm
+	 */
+	protected void updatePeProvisioning(Vm vm) {
+		int vmHandle = vm.getHandle();
+		List<Pe> pes = getPeMap().get(vmHandle);
+		if (pes == null) {
+			pes = new LinkedList<Pe>();
+			getPeMap().put(vmHandle, pes);
+		} else {
+			for (Pe pe : pes) {
+				pe.getPeProvisioner().deallocateMipsForVm(vm);
+			}
+			pes.clear();
+		}
+
+		Iterator<Pe> peIterator = getPeList().iterator();
+		Pe pe = null;
+		PeProvisioner peProvisioner = null;
+		double availableMips = 0;
+
+		for (double mips : getMipsMap().get(vmHandle)) {
+			while (mips >= 0.1) {
+				if (availableMips >= mips) {
+					peProvisioner.allocateMipsForVm(vmHandle, mips);
+					pes.add(pe);
+					availableMips -= mips;
+					break;
+				}
+				if (availableMips > 0) {
+					peProvisioner.allocateMipsForVm(vmHandle, availableMips);
+					pes.add(pe);
+					mips -= availableMips;
+				}
+				if (!peIterator.hasNext()) {
+					Log.printLine("There is no enough MIPS (" + mips + ") to accommodate VM #" + vmHandle);
+					return;
+				}
+				pe = peIterator.next();
+				peProvisioner = pe.getPeProvisioner();
+				availableMips = peProvisioner.getAvailableMips();
+			}
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.VmScheduler#deallocatePesForVm(cloudsim.Vm)
 	 */
 	@Override
 	public void deallocatePesForVm(Vm vm) {
-		getMipsMapRequested().remove(vm.getUid());
+		// the VM no longer runs on this host, so it is not migrating out of it either
+		getVmsMigratingOut().remove(Integer.valueOf(vm.getHandle()));
+		getMipsMapRequested().remove(vm.getHandle());
 		setPesInUse(0);
 		getMipsMap().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
@@ -179,8 +301,9 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			pe.getPeProvisioner().deallocateMipsForVm(vm);
 		}
 
-		for (Map.Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
-			allocatePesForVm(entry.getKey(), entry.getValue());
+		IntObjectMap<double[]> mipsMapRequested = getMipsMapRequested();
+		for (int slot = mipsMapRequested.nextSlot(-1); slot >= 0; slot = mipsMapRequested.nextSlot(slot)) {
+			allocatePesForVm(mipsMapRequested.keyAt(slot), mipsMapRequested.valueAt(slot));
 		}
 
 		updatePeProvisioning();
@@ -233,7 +356,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 * 
 	 * @return the mips map requested
 	 */
-	protected Map<String, List<Double>> getMipsMapRequested() {
+	protected IntObjectMap<double[]> getMipsMapRequested() {
 		return mipsMapRequested;
 	}
 
@@ -242,7 +365,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 * 
 	 * @param mipsMapRequested the mips map requested
 	 */
-	protected void setMipsMapRequested(Map<String, List<Double>> mipsMapRequested) {
+	protected void setMipsMapRequested(IntObjectMap<double[]> mipsMapRequested) {
 		this.mipsMapRequested = mipsMapRequested;
 	}
 
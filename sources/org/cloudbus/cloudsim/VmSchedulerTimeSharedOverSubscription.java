@@ -7,13 +7,10 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.util.IntObjectMap;
 
 /**
  * This is a Time-Shared VM Scheduler, which allows over-subscription. In other words, the scheduler
@@ -41,50 +38,52 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 	 * Oversubscription results in performance degradation. Each virtual PE cannot be allocated more
 	 * CPU capacity than MIPS of a single PE.
 	 * 
-	 * @param vmUid the vm uid
+	 * @param vmHandle the vm handle
 	 * @param mipsShareRequested the mips share requested
 	 * @return true, if successful
 	 */
 	@Override
-	protected boolean allocatePesForVm(String vmUid, List<Double> mipsShareRequested) {
+	protected boolean allocatePesForVm(int vmHandle, double[] mipsShareRequested) {
 		double totalRequestedMips = 0;
 
 		// if the requested mips is bigger than the capacity of a single PE, we cap
 		// the request to the PE's capacity
-		List<Double> mipsShareRequestedCapped = new ArrayList<Double>();
+		double[] mipsShareRequestedCapped = new double[mipsShareRequested.length];
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (int i = 0; i < mipsShareRequested.length; i++) {
+			double mips = mipsShareRequested[i];
 			if (mips > peMips) {
-				mipsShareRequestedCapped.add(peMips);
+				mipsShareRequestedCapped[i] = peMips;
 				totalRequestedMips += peMips;
 			} else {
-				mipsShareRequestedCapped.add(mips);
+				mipsShareRequestedCapped[i] = mips;
 				totalRequestedMips += mips;
 			}
 		}
 
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
-		setPesInUse(getPesInUse() + mipsShareRequested.size());
+		getMipsMapRequested().put(vmHandle, mipsShareRequested);
+		setPesInUse(getPesInUse() + mipsShareRequested.length);
 
-		if (getVmsMigratingIn().contains(vmUid)) {
+		boolean migratingIn = getVmsMigratingIn().contains(vmHandle);
+		boolean migratingOut = getVmsMigratingOut().contains(vmHandle);
+		if (migratingIn) {
 			// the destination host only experience 10% of the migrating VM's MIPS
 			totalRequestedMips *= 0.1;
 		}
 
 		if (getAvailableMips() >= totalRequestedMips) {
-			List<Double> mipsShareAllocated = new ArrayList<Double>();
-			for (Double mipsRequested : mipsShareRequestedCapped) {
-				if (getVmsMigratingOut().contains(vmUid)) {
+			double[] mipsShareAllocated = mipsShareRequestedCapped;
+			for (int i = 0; i < mipsShareAllocated.length; i++) {
+				if (migratingOut) {
 					// performance degradation due to migration = 10% MIPS
-					mipsRequested *= 0.9;
-				} else if (getVmsMigratingIn().contains(vmUid)) {
+					mipsShareAllocated[i] *= 0.9;
+				} else if (migratingIn) {
 					// the destination host only experience 10% of the migrating VM's MIPS
-					mipsRequested *= 0.1;
+					mipsShareAllocated[i] *= 0.1;
 				}
-				mipsShareAllocated.add(mipsRequested);
 			}
 
-			getMipsMap().put(vmUid, mipsShareAllocated);
+			getMipsMap().put(vmHandle, mipsShareAllocated);
 			setAvailableMips(getAvailableMips() - totalRequestedMips);
 		} else {
 			redistributeMipsDueToOverSubscription();
@@ -93,6 +92,29 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		return true;
 	}
 
+	/**
+	 * Changes the mips share of a VM in place, as long as the host is not oversubscribed before
+	 * nor after the change. Otherwise the MIPS of every VM are scaled together, and the PEs of all
+	 * the VMs have to be reallocated.
+	 * 
+	 * @param vm the vm
+	 * @param mipsShareRequested the new mips share
+	 * @return true, if the allocation of the VM has been updated
+	 */
+	@Override
+	public boolean updatePesForVm(Vm vm, double[] mipsShareRequested) {
+		int vmHandle = vm.getHandle();
+		double[] previousMipsShare = getMipsMapRequested().get(vmHandle);
+		if (previousMipsShare == null || getAvailableMips() <= 0) {
+			return false;
+		}
+		double availableMips = getAvailableMips() + getRequiredMips(vmHandle, previousMipsShare);
+		if (availableMips < getRequiredMips(vmHandle, mipsShareRequested)) {
+			return false;
+		}
+		return super.updatePesForVm(vm, mipsShareRequested);
+	}
+
 	/**
 	 * This method recalculates distribution of MIPs among VMs considering eventual shortage of MIPS
 	 * compared to the amount requested by VMs.
@@ -102,27 +124,29 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		// proportionally
 		double totalRequiredMipsByAllVms = 0;
 
-		Map<String, List<Double>> mipsMapCapped = new HashMap<String, List<Double>>();
-		for (Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
+		IntObjectMap<double[]> mipsMapRequested = getMipsMapRequested();
+		IntObjectMap<double[]> mipsMapCapped = new IntObjectMap<double[]>(mipsMapRequested.size());
+		for (int slot = mipsMapRequested.nextSlot(-1); slot >= 0; slot = mipsMapRequested.nextSlot(slot)) {
 
 			double requiredMipsByThisVm = 0.0;
-			String vmId = entry.getKey();
-			List<Double> mipsShareRequested = entry.getValue();
-			List<Double> mipsShareRequestedCapped = new ArrayList<Double>();
+			int vmHandle = mipsMapRequested.keyAt(slot);
+			double[] mipsShareRequested = mipsMapRequested.valueAt(slot);
+			double[] mipsShareRequestedCapped = new double[mipsShareRequested.length];
 			double peMips = getPeCapacity();
-			for (Double mips : mipsShareRequested) {
+			for (int i = 0; i < mipsShareRequested.length; i++) {
+				double mips = mipsShareRequested[i];
 				if (mips > peMips) {
-					mipsShareRequestedCapped.add(peMips);
+					mipsShareRequestedCapped[i] = peMips;
 					requiredMipsByThisVm += peMips;
 				} else {
-					mipsShareRequestedCapped.add(mips);
+					mipsShareRequestedCapped[i] = mips;
 					requiredMipsByThisVm += mips;
 				}
 			}
 
-			mipsMapCapped.put(vmId, mipsShareRequestedCapped);
+			mipsMapCapped.put(vmHandle, mipsShareRequestedCapped);
 
-			if (getVmsMigratingIn().contains(entry.getKey())) {
+			if (getVmsMigratingIn().contains(vmHandle)) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				requiredMipsByThisVm *= 0.1;
 			}
@@ -136,18 +160,19 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		getMipsMap().clear();
 
 		// Update the actual MIPS allocated to the VMs
-		for (Entry<String, List<Double>> entry : mipsMapCapped.entrySet()) {
-			String vmUid = entry.getKey();
-			List<Double> requestedMips = entry.getValue();
-
-			List<Double> updatedMipsAllocation = new ArrayList<Double>();
-			for (Double mips : requestedMips) {
-				if (getVmsMigratingOut().contains(vmUid)) {
+		for (int slot = mipsMapCapped.nextSlot(-1); slot >= 0; slot = mipsMapCapped.nextSlot(slot)) {
+			int vmHandle = mipsMapCapped.keyAt(slot);
+			double[] requestedMips = mipsMapCapped.valueAt(slot);
+
+			double[] updatedMipsAllocation = new double[requestedMips.length];
+			for (int i = 0; i < requestedMips.length; i++) {
+				double mips = requestedMips[i];
+				if (getVmsMigratingOut().contains(vmHandle)) {
 					// the original amount is scaled
 					mips *= scalingFactor;
 					// performance degradation due to migration = 10% MIPS
 					mips *= 0.9;
-				} else if (getVmsMigratingIn().contains(vmUid)) {
+				} else if (getVmsMigratingIn().contains(vmHandle)) {
 					// the destination host only experiences 10% of the migrating VM's MIPS
 					mips *= 0.1;
 					// the final 10% of the requested MIPS are scaled
@@ -156,11 +181,11 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 					mips *= scalingFactor;
 				}
 
-				updatedMipsAllocation.add(Math.floor(mips));
+				updatedMipsAllocation[i] = Math.floor(mips);
 			}
 
 			// add in the new map
-			getMipsMap().put(vmUid, updatedMipsAllocation);
+			getMipsMap().put(vmHandle, updatedMipsAllocation);
 
 		}
 
@@ -340,6 +340,9 @@ public class CloudSim {
 	/** The abrupt terminate. */
 	private static boolean abruptTerminate = false;
 
+	/** The number of VM handles given out in this simulation. */
+	private static int vmHandleCount = 0;
+
 	/**
 	 * Initialise the simulation for stand alone simulations. This function should be called at the
 	 * start of the simulation.
@@ -353,6 +356,17 @@ public class CloudSim {
 		waitPredicates = new HashMap<Integer, Predicate>();
 		clock = 0;	//全局时钟初始化
 		running = false;
+		vmHandleCount = 0;
+	}
+
+	/**
+	 * Gives out the handle of a new VM. The handles are given per simulation, as the entity ids
+	 * are: they start from 0 each time CloudSim is initialised, so that they stay dense.
+	 * 
+	 * @return the handle
+	 */
+	public static synchronized int nextVmHandle() {
+		return vmHandleCount++;
 	}
 
 	// The two standard predicates
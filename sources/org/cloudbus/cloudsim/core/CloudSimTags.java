@@ -266,6 +266,31 @@ public class CloudSimTags {
 
 	public static final int NextCycle = BASE + 48;
 
+	/**
+	 * Denotes the return of several Cloudlets back to sender in one event, carried as a
+	 * <tt>Cloudlet[]</tt>. This tag is normally used by CloudResource entity.
+	 */
+	public static final int CLOUDLET_RETURN_BATCH = BASE + 49;
+
+	/**
+	 * Denotes a request to create several VMs in a Datacentre in one event, carried as a
+	 * <tt>Vm[]</tt>
+	 */
+	public static final int VM_CREATE_BATCH = BASE + 50;
+
+	/**
+	 * Denotes a request to create several VMs in a Datacentre in one event, carried as a
+	 * <tt>Vm[]</tt>, with acknowledgement information sent by the Datacentre. The ack is an
+	 * <tt>int[]</tt> holding the Datacentre id followed by a (vm id, result) pair for each VM.
+	 */
+	public static final int VM_CREATE_BATCH_ACK = BASE + 51;
+
+	/**
+	 * Denotes the arrival of a streamed Cloudlet at its arrival time. This tag is normally used
+	 * internally by a Broker
+	 */
+	public static final int CLOUDLET_ARRIVAL = BASE + 52;
+
 	/** Private Constructor */
 	private CloudSimTags() {
 		throw new UnsupportedOperationException("CloudSim Tags cannot be instantiated");
@@ -0,0 +1,57 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.distributions;
+
+import java.util.Random;
+
+/**
+ * 连续分布的基类：保存随机数生成器，并可一次生成一批样本
+ * A continuous distribution drawing its samples from a {@link Random}. Any {@link Random} can be
+ * plugged in, such as a {@link SplitMix64} split off for each entity of a simulation.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class AbstractContinuousDistribution implements ContinuousDistribution {
+
+	/** The num gen. */
+	private final Random numGen;
+
+	/**
+	 * Instantiates a new distribution.
+	 *
+	 * @param numGen the random number generator
+	 */
+	protected AbstractContinuousDistribution(Random numGen) {
+		if (numGen == null) {
+			throw new IllegalArgumentException("Random number generator must not be null.");
+		}
+		this.numGen = numGen;
+	}
+
+	/**
+	 * Fills an array with samples, as many calls to {@link #sample()} would.
+	 *
+	 * @param samples the array
+	 */
+	public void sample(double[] samples) {
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = sample();
+		}
+	}
+
+	/**
+	 * Gets the random number generator.
+	 *
+	 * @return the random number generator
+	 */
+	protected Random getRandomGenerator() {
+		return numGen;
+	}
+
+}
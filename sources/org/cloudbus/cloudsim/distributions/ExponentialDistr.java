@@ -16,10 +16,7 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class ExponentialDistr implements ContinuousDistribution {
-
-	/** The num gen. */
-	private final Random numGen;
+public class ExponentialDistr extends AbstractContinuousDistribution {
 
 	/** The mean. */
 	private final double mean;
@@ -31,10 +28,24 @@ public class ExponentialDistr implements ContinuousDistribution {
 	 * @param mean the mean for the distribution.
 	 */
 	public ExponentialDistr(long seed, double mean) {
+		super(new Random(seed));
+		if (mean <= 0.0) {
+			throw new IllegalArgumentException("Mean must be greater than 0.0");
+		}
+		this.mean = mean;
+	}
+
+	/**
+	 * Creates a new exponential number generator.
+	 * 
+	 * @param numGen the random number generator
+	 * @param mean the mean for the distribution.
+	 */
+	public ExponentialDistr(Random numGen, double mean) {
+		super(numGen);
 		if (mean <= 0.0) {
 			throw new IllegalArgumentException("Mean must be greater than 0.0");
 		}
-		numGen = new Random(seed);
 		this.mean = mean;
 	}
 
@@ -44,10 +55,10 @@ public class ExponentialDistr implements ContinuousDistribution {
 	 * @param mean the mean for the distribution.
 	 */
 	public ExponentialDistr(double mean) {
+		super(new Random(System.currentTimeMillis()));
 		if (mean <= 0.0) {
 			throw new IllegalArgumentException("Mean must be greated than 0.0");
 		}
-		numGen = new Random(System.currentTimeMillis());
 		this.mean = mean;
 	}
 
@@ -58,7 +69,7 @@ public class ExponentialDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
-		return -mean * Math.log(numGen.nextDouble());
+		return -mean * Math.log(getRandomGenerator().nextDouble());
 	}
 
 }
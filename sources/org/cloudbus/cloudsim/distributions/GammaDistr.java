@@ -17,10 +17,7 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class GammaDistr implements ContinuousDistribution {
-
-	/** The num gen. */
-	private final Random numGen;
+public class GammaDistr extends AbstractContinuousDistribution {
 
 	/** The alpha. */
 	private final int alpha;
@@ -36,11 +33,11 @@ public class GammaDistr implements ContinuousDistribution {
 	 * @param beta the beta
 	 */
 	public GammaDistr(Random seed, int alpha, double beta) {
+		super(seed);
 		if (alpha <= 0 || beta <= 0.0) {
 			throw new IllegalArgumentException("Alpha and beta must be greater than 0.0");
 		}
 
-		numGen = seed;
 		this.alpha = alpha;
 		this.beta = beta;
 	}
@@ -52,11 +49,11 @@ public class GammaDistr implements ContinuousDistribution {
 	 * @param beta the beta
 	 */
 	public GammaDistr(int alpha, double beta) {
+		super(new Random(System.currentTimeMillis()));
 		if (alpha <= 0 || beta <= 0.0) {
 			throw new IllegalArgumentException("Alpha and beta must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
 		this.alpha = alpha;
 		this.beta = beta;
 	}
@@ -69,7 +66,7 @@ public class GammaDistr implements ContinuousDistribution {
 	public double sample() {
 		double sum = 0.0;
 		for (int i = 0; i < alpha; i++) {
-			sum += Math.log(numGen.nextDouble());
+			sum += Math.log(getRandomGenerator().nextDouble());
 		}
 
 		return -beta * sum;
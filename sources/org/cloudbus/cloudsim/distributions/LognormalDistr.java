@@ -16,10 +16,7 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class LognormalDistr implements ContinuousDistribution {
-
-	/** The num gen. */
-	private final Random numGen;
+public class LognormalDistr extends AbstractContinuousDistribution {
 
 	/** The mean. */
 	private final double mean;
@@ -35,11 +32,11 @@ public class LognormalDistr implements ContinuousDistribution {
 	 * @param dev the dev
 	 */
 	public LognormalDistr(Random seed, double mean, double dev) {
+		super(seed);
 		if (mean <= 0.0 || dev <= 0.0) {
 			throw new IllegalArgumentException("Mean and deviation must be greater than 0.0");
 		}
 
-		numGen = seed;
 		this.mean = mean;
 		this.dev = dev;
 	}
@@ -51,11 +48,11 @@ public class LognormalDistr implements ContinuousDistribution {
 	 * @param dev the dev
 	 */
 	public LognormalDistr(double mean, double dev) {
+		super(new Random(System.currentTimeMillis()));
 		if (mean <= 0.0 || dev <= 0.0) {
 			throw new IllegalArgumentException("Mean and deviation must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
 		this.mean = mean;
 		this.dev = dev;
 	}
@@ -67,8 +64,8 @@ public class LognormalDistr implements ContinuousDistribution {
 	@Override
 	public double sample() {
 		// generate a normal variate from a uniform variate
-		double n = Math.sqrt(-2 * Math.log(numGen.nextDouble()))
-				* Math.sin(2 * Math.PI * numGen.nextDouble());
+		double n = Math.sqrt(-2 * Math.log(getRandomGenerator().nextDouble()))
+				* Math.sin(2 * Math.PI * getRandomGenerator().nextDouble());
 
 		// use it to generate the lognormal variate
 		return Math.pow(Math.E, mean + dev * n);
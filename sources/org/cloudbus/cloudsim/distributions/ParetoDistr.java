@@ -17,10 +17,7 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class ParetoDistr implements ContinuousDistribution {
-
-	/** The num gen. */
-	private final Random numGen;
+public class ParetoDistr extends AbstractContinuousDistribution {
 
 	/** The shape. */
 	private final double shape;
@@ -36,11 +33,11 @@ public class ParetoDistr implements ContinuousDistribution {
 	 * @param location the location
 	 */
 	public ParetoDistr(Random seed, double shape, double location) {
+		super(seed);
 		if (shape <= 0.0 || location <= 0.0) {
 			throw new IllegalArgumentException("Mean and deviation must be greater than 0.0");
 		}
 
-		numGen = seed;
 		this.shape = shape;
 		this.location = location;
 	}
@@ -52,11 +49,11 @@ public class ParetoDistr implements ContinuousDistribution {
 	 * @param location the location
 	 */
 	public ParetoDistr(double shape, double location) {
+		super(new Random(System.currentTimeMillis()));
 		if (shape <= 0.0 || location <= 0.0) {
 			throw new IllegalArgumentException("Mean and deviation must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
 		this.shape = shape;
 		this.location = location;
 	}
@@ -67,7 +64,7 @@ public class ParetoDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
-		return location / Math.pow(numGen.nextDouble(), 1 / shape);
+		return location / Math.pow(getRandomGenerator().nextDouble(), 1 / shape);
 	}
 
 }
@@ -0,0 +1,206 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.distributions;
+
+import java.util.Random;
+
+/**
+ * SplitMix64随机数生成器：可拆分出互不相关的子流，也可由(种子, 流, 计数)直接算出随机数
+ * The SplitMix64 generator of Steele, Lea and Flood. It is a {@link Random}, so that it can be
+ * given to the distributions in place of one; unlike {@link Random}, its state is a plain long,
+ * which is faster to update but makes it unsafe to share a generator between threads. Each thread,
+ * or each entity of a simulation, should use its own generator, either split from another one with
+ * {@link #split()} or made for its stream with {@link #forStream(long, long)}, so that the
+ * numbers it draws do not depend on the order in which the entities are processed.
+ *
+ * The mixing function is also used as a counter-based generator, see
+ * {@link #hash(long, long, long)}: the random number of a counter is computed from the seed, the
+ * stream and the counter alone, so that the numbers can be drawn in any order, by any thread, and
+ * drawn again.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SplitMix64 extends Random {
+
+	/** The serial version uid. */
+	private static final long serialVersionUID = 1L;
+
+	/** The odd constant added to the state at each step, derived from the golden ratio. */
+	public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/** The scale of a 53 bit integer to a double in [0, 1). */
+	private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+	/** The state. Not initialized here, as the constructor of Random sets it through setSeed. */
+	private long state;
+
+	/** The odd constant added to the state at each step. */
+	private long gamma;
+
+	/**
+	 * Instantiates a new generator seeded from the clock.
+	 */
+	public SplitMix64() {
+		this(mix64(System.nanoTime()) ^ mix64(System.currentTimeMillis() + GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Instantiates a new generator.
+	 *
+	 * @param seed the seed
+	 */
+	public SplitMix64(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Instantiates a new generator with its state and gamma.
+	 *
+	 * @param state the state
+	 * @param gamma the gamma, made odd
+	 */
+	private SplitMix64(long state, long gamma) {
+		super(state);
+		this.state = state;
+		this.gamma = gamma | 1L;
+	}
+
+	/**
+	 * Gets the generator of a stream of a seed, such as the id of an entity, so that each entity
+	 * draws the same numbers however the entities are processed.
+	 *
+	 * @param seed the seed
+	 * @param stream the stream
+	 * @return the generator of the stream
+	 */
+	public static SplitMix64 forStream(long seed, long stream) {
+		return new SplitMix64(hash(seed, stream, 0), mixGamma(hash(seed, stream, 1)));
+	}
+
+	/**
+	 * Splits off a new generator, whose numbers are independent of the ones of this generator.
+	 *
+	 * @return the new generator
+	 */
+	public SplitMix64 split() {
+		return new SplitMix64(nextLong(), mixGamma(nextSeed()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Random#setSeed(long)
+	 */
+	@Override
+	public void setSeed(long seed) {
+		state = seed;
+		gamma = GOLDEN_GAMMA;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Random#next(int)
+	 */
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Random#nextLong()
+	 */
+	@Override
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Random#nextDouble()
+	 */
+	@Override
+	public double nextDouble() {
+		return toDouble(nextLong());
+	}
+
+	/**
+	 * Fills an array with doubles in [0, 1).
+	 *
+	 * @param doubles the array
+	 */
+	public void nextDoubles(double[] doubles) {
+		long s = state;
+		long g = gamma;
+		for (int i = 0; i < doubles.length; i++) {
+			s += g;
+			doubles[i] = toDouble(mix64(s));
+		}
+		state = s;
+	}
+
+	/**
+	 * Advances the state.
+	 *
+	 * @return the new state
+	 */
+	private long nextSeed() {
+		return state += gamma;
+	}
+
+	/**
+	 * Makes a gamma from a random number: an odd number with enough bit changes between its
+	 * neighbouring bits, as SplittableRandom makes them.
+	 *
+	 * @param z the random number
+	 * @return the gamma
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+	}
+
+	/**
+	 * Mixes the bits of a value, so that close values give unrelated results.
+	 *
+	 * @param z the value
+	 * @return the mixed value
+	 */
+	public static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Gets the random number of a counter of a stream.
+	 *
+	 * @param seed the seed
+	 * @param stream the stream
+	 * @param counter the counter
+	 * @return the random number
+	 */
+	public static long hash(long seed, long stream, long counter) {
+		long z = mix64(seed + GOLDEN_GAMMA * (stream + 1));
+		return mix64(z + GOLDEN_GAMMA * (counter + 1));
+	}
+
+	/**
+	 * Converts a random number to a double in [0, 1), from its 53 high bits.
+	 *
+	 * @param bits the random number
+	 * @return the double
+	 */
+	public static double toDouble(long bits) {
+		return (bits >>> 11) * DOUBLE_UNIT;
+	}
+
+}
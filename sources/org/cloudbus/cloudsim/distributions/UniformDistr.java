@@ -16,10 +16,7 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class UniformDistr implements ContinuousDistribution {
-
-	/** The num gen. */
-	private final Random numGen;
+public class UniformDistr extends AbstractContinuousDistribution {
 
 	/** The min. */
 	private final double mag, min;
@@ -31,10 +28,10 @@ public class UniformDistr implements ContinuousDistribution {
 	 * @param max maximum value
 	 */
 	public UniformDistr(double min, double max) {
+		super(new Random());
 		if (min >= max) {
 			throw new IllegalArgumentException("Maximum must be greater than the minimum.");
 		}
-		numGen = new Random();
 		mag = max - min;
 		this.min = min;
 	}
@@ -47,11 +44,28 @@ public class UniformDistr implements ContinuousDistribution {
 	 * @param seed simulation seed to be used
 	 */
 	public UniformDistr(double min, double max, long seed) {
+		super(new Random(seed));
+		if (min >= max) {
+			throw new IllegalArgumentException("Maximum must be greater than the minimum.");
+		}
+
+		mag = max - min;
+		this.min = min;
+	}
+
+	/**
+	 * Creates new uniform distribution.
+	 * 
+	 * @param min minimum value
+	 * @param max maximum value
+	 * @param numGen the random number generator
+	 */
+	public UniformDistr(double min, double max, Random numGen) {
+		super(numGen);
 		if (min >= max) {
 			throw new IllegalArgumentException("Maximum must be greater than the minimum.");
 		}
 
-		numGen = new Random(seed);
 		mag = max - min;
 		this.min = min;
 	}
@@ -63,7 +77,28 @@ public class UniformDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
-		return (numGen.nextDouble() * (mag)) + min;
+		return (getRandomGenerator().nextDouble() * (mag)) + min;
+	}
+
+	/**
+	 * Generates new random numbers, drawing the doubles in one call if the generator is a
+	 * {@link SplitMix64}.
+	 * 
+	 * @param samples the array to fill
+	 */
+	@Override
+	public void sample(double[] samples) {
+		Random numGen = getRandomGenerator();
+		if (numGen instanceof SplitMix64) {
+			((SplitMix64) numGen).nextDoubles(samples);
+		} else {
+			for (int i = 0; i < samples.length; i++) {
+				samples[i] = numGen.nextDouble();
+			}
+		}
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = (samples[i] * (mag)) + min;
+		}
 	}
 
 	/**
@@ -89,7 +124,7 @@ public class UniformDistr implements ContinuousDistribution {
 	 * @param seed the new seed for the generator
 	 */
 	public void setSeed(long seed) {
-		numGen.setSeed(seed);
+		getRandomGenerator().setSeed(seed);
 	}
 
 }
\ No newline at end of file
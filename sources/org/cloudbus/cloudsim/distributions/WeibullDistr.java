@@ -17,10 +17,7 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class WeibullDistr implements ContinuousDistribution {
-
-	/** The num gen. */
-	private final Random numGen;
+public class WeibullDistr extends AbstractContinuousDistribution {
 
 	/** The alpha. */
 	private final double alpha;
@@ -36,11 +33,11 @@ public class WeibullDistr implements ContinuousDistribution {
 	 * @param beta the beta
 	 */
 	public WeibullDistr(Random seed, double alpha, double beta) {
+		super(seed);
 		if (alpha <= 0.0 || beta <= 0.0) {
 			throw new IllegalArgumentException("Alpha and beta must be greater than 0.0");
 		}
 
-		numGen = seed;
 		this.alpha = alpha;
 		this.beta = beta;
 	}
@@ -52,11 +49,11 @@ public class WeibullDistr implements ContinuousDistribution {
 	 * @param beta the beta
 	 */
 	public WeibullDistr(double alpha, double beta) {
+		super(new Random(System.currentTimeMillis()));
 		if (alpha <= 0.0 || beta <= 0.0) {
 			throw new IllegalArgumentException("Alpha and beta must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
 		this.alpha = alpha;
 		this.beta = beta;
 	}
@@ -67,7 +64,7 @@ public class WeibullDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
-		return beta * Math.pow(-Math.log(numGen.nextDouble()), 1 / alpha);
+		return beta * Math.pow(-Math.log(getRandomGenerator().nextDouble()), 1 / alpha);
 	}
 
 }
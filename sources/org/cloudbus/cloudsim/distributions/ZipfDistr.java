@@ -12,15 +12,16 @@ package org.cloudbus.cloudsim.distributions;
 import java.util.Random;
 
 /**
- * The Class ZipfDistr.
+ * The Class ZipfDistr. A sample is the cumulative probability of a rank, found by inversion of a
+ * uniform variate. The cumulative probabilities are computed once, at construction, together with
+ * a guide table of the first rank to search for each slice of [0, 1), so that a sample takes O(1)
+ * expected time instead of O(population), and is the same as the one found by walking the
+ * harmonic series from the first rank.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class ZipfDistr implements ContinuousDistribution {
-
-	/** The num gen. */
-	private final Random numGen;
+public class ZipfDistr extends AbstractContinuousDistribution {
 
 	/** The shape. */
 	private final double shape;
@@ -28,6 +29,15 @@ public class ZipfDistr implements ContinuousDistribution {
 	/** The den. */
 	private double den;
 
+	/** The samples: the cumulative probability up to rank i + 1. */
+	private double[] values;
+
+	/** The thresholds: a variate up to thresholds[i], and above thresholds[i - 1], gives values[i]. */
+	private double[] thresholds;
+
+	/** The guide table: the first index whose threshold is not below g / guide.length. */
+	private int[] guide;
+
 	/**
 	 * Instantiates a new zipf distr.
 	 * 
@@ -36,13 +46,25 @@ public class ZipfDistr implements ContinuousDistribution {
 	 * @param population the population
 	 */
 	public ZipfDistr(long seed, double shape, int population) {
+		this(new Random(seed), shape, population);
+	}
+
+	/**
+	 * Instantiates a new zipf distr.
+	 * 
+	 * @param numGen the random number generator
+	 * @param shape the shape
+	 * @param population the population
+	 */
+	public ZipfDistr(Random numGen, double shape, int population) {
+		super(numGen);
 		if (shape <= 0.0 || population < 1) {
 			throw new IllegalArgumentException("Mean must be greater than 0.0 and population greater than 0");
 		}
-		numGen = new Random(seed);
 		this.shape = shape;
 
 		computeDen(shape, population);
+		computeTables(shape, population);
 	}
 
 	/**
@@ -52,12 +74,13 @@ public class ZipfDistr implements ContinuousDistribution {
 	 * @param population the population
 	 */
 	public ZipfDistr(double shape, int population) {
+		super(new Random(System.currentTimeMillis()));
 		if (shape <= 0.0) {
 			throw new IllegalArgumentException("Mean must be greated than 0.0 and population greater than 0");
 		}
-		numGen = new Random(System.currentTimeMillis());
 		this.shape = shape;
 		computeDen(shape, population);
+		computeTables(shape, population);
 	}
 
 	/**
@@ -67,18 +90,27 @@ public class ZipfDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
-		double variate = numGen.nextDouble();
-		double num = 1;
-		double nextNum = 1 + 1 / Math.pow(2, shape);
-		double j = 3;
+		double variate = getRandomGenerator().nextDouble();
+		int last = thresholds.length - 1;
+		int i = guide[Math.min((int) (variate * guide.length), guide.length - 1)];
 
-		while (variate > nextNum / den) {
-			num = nextNum;
-			nextNum += 1 / Math.pow(j, shape);
-			j++;
+		// the guide may be one slice off when variate * guide.length is rounded up
+		while (i > 0 && !(variate > thresholds[i - 1])) {
+			i--;
 		}
+		while (i < last && variate > thresholds[i]) {
+			i++;
+		}
+		return values[i];
+	}
 
-		return num / den;
+	/**
+	 * Gets the shape.
+	 * 
+	 * @return the shape
+	 */
+	public double getShape() {
+		return shape;
 	}
 
 	/**
@@ -94,4 +126,36 @@ public class ZipfDistr implements ContinuousDistribution {
 		}
 	}
 
+	/**
+	 * Computes the samples, their thresholds and the guide table. The partial sums are added in
+	 * the order of the ranks, as computeDen adds them, so that the last threshold is exactly 1.
+	 * The first sample stands for the first two ranks, and there is one sample for a population
+	 * of one, as when walking the harmonic series.
+	 * 
+	 * @param shape the shape
+	 * @param population the population
+	 */
+	private void computeTables(double shape, int population) {
+		int size = Math.max(population, 2) - 1;
+		values = new double[size];
+		thresholds = new double[size];
+		double num = 1;
+		for (int i = 0; i < size; i++) {
+			double nextNum = num + 1 / Math.pow(i + 2, shape);
+			values[i] = num / den;
+			thresholds[i] = nextNum / den;
+			num = nextNum;
+		}
+
+		guide = new int[size];
+		int i = 0;
+		for (int g = 0; g < size; g++) {
+			double start = (double) g / size;
+			while (i < size - 1 && start > thresholds[i]) {
+				i++;
+			}
+			guide[g] = i;
+		}
+	}
+
 }
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -64,6 +65,75 @@ public class DelayMatrix_Float {
 		return mDelayMatrix[srcID][destID];
 	}
 
+	/**
+	 * grows the matrix to hold more nodes, which are not connected to any other node yet
+	 * 
+	 * @param totalNodeNum the new number of nodes
+	 */
+	public void addNodes(int totalNodeNum) {
+		if (totalNodeNum <= mTotalNodeNum) {
+			return;
+		}
+		float[][] matrix = new float[totalNodeNum][];
+		for (int row = 0; row < totalNodeNum; ++row) {
+			if (row < mTotalNodeNum) {
+				matrix[row] = Arrays.copyOf(mDelayMatrix[row], totalNodeNum);
+				Arrays.fill(matrix[row], mTotalNodeNum, totalNodeNum, Float.MAX_VALUE);
+			} else {
+				matrix[row] = new float[totalNodeNum];
+				Arrays.fill(matrix[row], Float.MAX_VALUE);
+				matrix[row][row] = 0;
+			}
+		}
+		mDelayMatrix = matrix;
+		mTotalNodeNum = totalNodeNum;
+	}
+
+	/**
+	 * lowers the delays for a new link, relaxing every pair of nodes through it in O(n^2) instead
+	 * of calculating all pairs shortest paths again; this is only right if the link does not raise
+	 * the delay between its nodes, as replacing a link by a slower one does
+	 * 
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link
+	 * @param directed true if the matrix is directed, false otherwise
+	 */
+	public void addLink(int srcID, int destID, float delay, boolean directed) {
+		relaxLink(srcID, destID, delay);
+		if (!directed) {
+			relaxLink(destID, srcID, delay);
+		}
+	}
+
+	/**
+	 * relaxes every pair of nodes through a directed link
+	 * 
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link
+	 */
+	private void relaxLink(int srcID, int destID, float delay) {
+		float[] toSrc = new float[mTotalNodeNum];
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			toSrc[row] = mDelayMatrix[row][srcID];
+		}
+		float[] fromDest = mDelayMatrix[destID].clone();
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			if (toSrc[row] == Float.MAX_VALUE) {
+				continue;
+			}
+			float viaLink = toSrc[row] + delay;
+			float[] delays = mDelayMatrix[row];
+			for (int col = 0; col < mTotalNodeNum; ++col) {
+				float delayViaLink = viaLink + fromDest[col];
+				if (delayViaLink < delays[col] && row != col) {
+					delays[col] = delayViaLink;
+				}
+			}
+		}
+	}
+
 	/**
 	 * creates all internal necessary network-distance structures from the given graph for
 	 * similarity we assume all kommunikation-distances are symmetrical thus leads to an undirected
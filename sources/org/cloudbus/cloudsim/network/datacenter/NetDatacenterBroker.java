@@ -22,6 +22,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.distributions.SplitMix64;
 import org.cloudbus.cloudsim.distributions.UniformDistr;
 import org.cloudbus.cloudsim.lists.VmList;
 
@@ -38,6 +39,9 @@ public class NetDatacenterBroker extends SimEntity {
 
 	// TODO: remove unnecessary variables
 
+	/** The seed of the streams from which the applications draw their vms. */
+	private static final long VM_PLACEMENT_SEED = 5;
+
 	/** The vm list. */
 	private List<? extends Vm> vmList;
 
@@ -175,6 +179,10 @@ public class NetDatacenterBroker extends SimEntity {
 			case CloudSimTags.CLOUDLET_RETURN:
 				processCloudletReturn(ev);
 				break;
+			// Finished cloudlets returned at once
+			case CloudSimTags.CLOUDLET_RETURN_BATCH:
+				processCloudletReturnBatch(ev);
+				break;
 			// if the simulation finishes
 			case CloudSimTags.END_OF_SIMULATION:
 				shutdownEntity();
@@ -249,7 +257,34 @@ public class NetDatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletReturn(SimEvent ev) {
-		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		processCloudletReturn((Cloudlet) ev.getData());
+	}
+
+	/**
+	 * Process a batched cloudlet return event, which carries all the cloudlets of this broker that
+	 * finished at the same time in a datacenter. Each cloudlet is processed as if it had returned
+	 * alone.
+	 * 
+	 * @param ev a SimEvent object whose data is a <tt>Cloudlet[]</tt>
+	 * 
+	 * @pre ev != $null
+	 * @post $none
+	 */
+	protected void processCloudletReturnBatch(SimEvent ev) {
+		for (Cloudlet cloudlet : (Cloudlet[]) ev.getData()) {
+			processCloudletReturn(cloudlet);
+		}
+	}
+
+	/**
+	 * Process the return of a finished cloudlet.
+	 * 
+	 * @param cloudlet the cloudlet
+	 * 
+	 * @pre cloudlet != $null
+	 * @post $none
+	 */
+	protected void processCloudletReturn(Cloudlet cloudlet) {
 		getCloudletReceivedList().add(cloudlet);
 		cloudletsSubmitted--;
 		// all cloudlets executed
@@ -320,10 +355,14 @@ public class NetDatacenterBroker extends SimEntity {
 
 			List<Integer> vmids = new ArrayList<Integer>();
 			int numVms = linkDC.getVmList().size();
-			UniformDistr ufrnd = new UniformDistr(0, numVms, 5);
+			// each application draws its vms from its own stream, whatever the order of the
+			// applications
+			UniformDistr ufrnd = new UniformDistr(0, numVms, SplitMix64.forStream(VM_PLACEMENT_SEED, app.appID));
+			double[] samples = new double[app.numbervm];
+			ufrnd.sample(samples);
 			for (int i = 0; i < app.numbervm; i++) {
 
-				int vmid = (int) ufrnd.sample();
+				int vmid = (int) samples[i];
 				vmids.add(vmid);
 
 			}
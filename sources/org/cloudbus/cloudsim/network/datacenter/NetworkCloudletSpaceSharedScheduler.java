@@ -19,6 +19,7 @@ import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.ResCloudlet;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * CloudletSchedulerSpaceShared implements a policy of scheduling performed by a virtual machine. It
@@ -76,6 +77,15 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		pktrecv = new HashMap<Integer, List<HostPacket>>();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#updateVmProcessing(double, java.util.List)
+	 */
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		return updateVmProcessing(currentTime, mipsShare == null ? null : MathUtil.listToArray(mipsShare));
+	}
+
 	/**
 	 * Updates the processing of cloudlets running under management of this scheduler.
 	 * 
@@ -87,13 +97,13 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 	 * @post $none
 	 */
 	@Override
-	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+	public double updateVmProcessing(double currentTime, double[] mipsShare) {
 		setCurrentMipsShare(mipsShare);
 		// update
 		double capacity = 0.0;
 		int cpus = 0;
 
-		for (Double mips : mipsShare) { // count the CPUs available to the VMM
+		for (double mips : mipsShare) { // count the CPUs available to the VMM
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -451,7 +461,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 				// calculate the expected time for cloudlet completion
 				double capacity = 0.0;
 				int cpus = 0;
-				for (Double mips : getCurrentMipsShare()) {
+				for (double mips : getCurrentMipsShareArray()) {
 					capacity += mips;
 					if (mips > 0) {
 						cpus++;
@@ -515,7 +525,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		// calculate the expected time for cloudlet completion
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : getCurrentMipsShare()) {
+		for (double mips : getCurrentMipsShareArray()) {
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -744,6 +754,18 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		return mipsShare;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#getCurrentRequestedMipsArray()
+	 */
+	@Override
+	public double[] getCurrentRequestedMipsArray() {
+		if (getCurrentMipsShareArray() == null) {
+			return new double[0];
+		}
+		return getCurrentMipsShareArray();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.cloudbus.cloudsim.CloudletScheduler# getTotalCurrentAvailableMipsForCloudlet
@@ -122,7 +122,7 @@ public class NetworkDatacenter extends Datacenter {
 			getVmList().add(vm);
 
 			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
-					.getAllocatedMipsForVm(vm));
+					.getAllocatedMipsArrayForVm(vm));
 		}
 		return result;
 	}
@@ -90,7 +90,7 @@ public class NetworkHost extends Host {
 		recvpackets();
 		for (Vm vm : super.getVmList()) {
 			double time = ((NetworkVm) vm).updateVmProcessing(currentTime, getVmScheduler()
-					.getAllocatedMipsForVm(vm));
+					.getAllocatedMipsArrayForVm(vm));
 			if (time > 0.0 && time < smallerTime) {
 				smallerTime = time;
 			}
@@ -178,7 +178,7 @@ public class NetworkHost extends Host {
 		}
 		if (flag) {
 			for (Vm vm : super.getVmList()) {
-				vm.updateVmProcessing(CloudSim.clock(), getVmScheduler().getAllocatedMipsForVm(vm));
+				vm.updateVmProcessing(CloudSim.clock(), getVmScheduler().getAllocatedMipsArrayForVm(vm));
 			}
 		}
 
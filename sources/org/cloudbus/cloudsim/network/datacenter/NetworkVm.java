@@ -9,9 +9,11 @@
 package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * NetworkVm class extends Vm to support simulation of networked datacenters. It executes actions
@@ -59,6 +61,19 @@ public class NetworkVm extends Vm implements Comparable<Object> {
 		return flagfree;
 	}
 
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		return updateVmProcessing(currentTime, mipsShare == null ? null : MathUtil.listToArray(mipsShare));
+	}
+
+	@Override
+	public double updateVmProcessing(double currentTime, double[] mipsShare) {
+		if (mipsShare != null) {
+			return getCloudletScheduler().updateVmProcessing(currentTime, mipsShare);
+		}
+		return 0.0;
+	}
+
 	@Override
 	public int compareTo(Object arg0) {
 		NetworkVm hs = (NetworkVm) arg0;
@@ -51,6 +51,9 @@ public class PowerDatacenter extends Datacenter {
 	/** 迁移计数 The migration count. */
 	private int migrationCount;
 
+	/** 能耗累加器 The energy accumulator. */
+	private final PowerEnergyAccumulator energyAccumulator = new PowerEnergyAccumulator();
+
 	/**
 	 * Instantiates a new datacenter.
 	 * 
@@ -197,36 +200,26 @@ public class PowerDatacenter extends Datacenter {
 					getLastProcessTime(),
 					currentTime);
 
-			for (PowerHost host : this.<PowerHost> getHostList()) {
-				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
-				double utilizationOfCpu = host.getUtilizationOfCpu();
-				double previousUtilizationOfMem = host.getPreviousUtilizationOfMem();
-				double utilizationOfMem = host.getUtilizationOfMem();
-				double timeFrameHostEnergy = host.getEnergyLinearInterpolation(
-						previousUtilizationOfCpu,
-						utilizationOfCpu,
-						previousUtilizationOfMem,
-						utilizationOfMem,
-						timeDiff);
-//				double timeFrameHostEnergy = host.getEnergyLinearInterpolation(
-//						previousUtilizationOfCpu,
-//						utilizationOfCpu,
-//						timeDiff);
-				timeFrameDatacenterEnergy += timeFrameHostEnergy;
-
-				Log.printLine();
-				Log.formatLine(
-						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-						currentTime,
-						host.getId(),
-						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
-				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
-						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+			List<PowerHost> hostList = getHostList();
+			PowerEnergyAccumulator accumulator = getEnergyAccumulator();
+			timeFrameDatacenterEnergy = accumulator.accumulate(hostList, timeDiff);
+
+			if (!Log.isDisabled()) {
+				for (int i = 0; i < hostList.size(); i++) {
+					Log.printLine();
+					Log.formatLine(
+							"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+							currentTime,
+							hostList.get(i).getId(),
+							getLastProcessTime(),
+							accumulator.getPreviousUtilizationOfCpu(i) * 100,
+							accumulator.getUtilizationOfCpu(i) * 100);
+					Log.formatLine(
+							"%.2f: [Host #%d] energy is %.2f W*sec",
+							currentTime,
+							hostList.get(i).getId(),
+							accumulator.getEnergy(i));
+				}
 			}
 
 			Log.formatLine(
@@ -368,6 +361,15 @@ public class PowerDatacenter extends Datacenter {
 		this.migrationCount = migrationCount;
 	}
 
+	/**
+	 * Gets the energy accumulator.
+	 * 
+	 * @return the energy accumulator
+	 */
+	protected PowerEnergyAccumulator getEnergyAccumulator() {
+		return energyAccumulator;
+	}
+
 	/**
 	 * Increment migration count.
 	 */
@@ -41,22 +41,16 @@ public class PowerDatacenterBroker extends DatacenterBroker {
 
 	/*
 	 * (non-Javadoc)
-	 * @see
-	 * org.cloudbus.cloudsim.DatacenterBroker#processVmCreate(org.cloudbus.cloudsim.core.SimEvent)
+	 * @see org.cloudbus.cloudsim.DatacenterBroker#processVmCreateResult(int, int, int)
 	 */
 	@Override
-	protected void processVmCreate(SimEvent ev) {
-		int[] data = (int[]) ev.getData();
-		int result = data[2];
-
+	protected void processVmCreateResult(int datacenterId, int vmId, int result) {
 		if (result != CloudSimTags.TRUE) {
-			int datacenterId = data[0];
-			int vmId = data[1];
 			System.out.println(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
 					+ " failed in Datacenter #" + datacenterId);
 			System.exit(0);
 		}
-		super.processVmCreate(ev);
+		super.processVmCreateResult(datacenterId, vmId, result);
 	}
 
 }
@@ -0,0 +1,129 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.List;
+
+/**
+ * 数据中心能耗的列式累加器
+ * Computes the energy consumed by the hosts of a datacenter over a time frame. The utilization of
+ * the hosts is first read into columns of primitives, and the energy of all the hosts is then
+ * computed in one loop over the columns by
+ * {@link PowerHost#getEnergyLinearInterpolation(double, double, double, double, double)}, so that
+ * the hosts overriding it keep their own energy model. The columns are kept from one time frame
+ * to the next, so that they are only allocated when hosts are added.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerEnergyAccumulator {
+
+	/** The previous cpu utilization of the hosts. */
+	private double[] previousUtilizationOfCpu = new double[0];
+
+	/** The cpu utilization of the hosts. */
+	private double[] utilizationOfCpu = new double[0];
+
+	/** The previous memory utilization of the hosts. */
+	private double[] previousUtilizationOfMem = new double[0];
+
+	/** The memory utilization of the hosts. */
+	private double[] utilizationOfMem = new double[0];
+
+	/** The energy of the hosts over the time frame. */
+	private double[] energy = new double[0];
+
+	/** The number of hosts. */
+	private int size;
+
+	/**
+	 * Computes the energy consumed by the hosts over a time frame.
+	 *
+	 * @param hostList the hosts
+	 * @param time the length of the time frame
+	 * @return the energy consumed by all the hosts
+	 */
+	public double accumulate(List<? extends PowerHost> hostList, double time) {
+		size = hostList.size();
+		ensureCapacity(size);
+		for (int i = 0; i < size; i++) {
+			PowerHost host = hostList.get(i);
+			previousUtilizationOfCpu[i] = host.getPreviousUtilizationOfCpu();
+			utilizationOfCpu[i] = host.getUtilizationOfCpu();
+			previousUtilizationOfMem[i] = host.getPreviousUtilizationOfMem();
+			utilizationOfMem[i] = host.getUtilizationOfMem();
+		}
+
+		double totalEnergy = 0;
+		for (int i = 0; i < size; i++) {
+			energy[i] = hostList.get(i).getEnergyLinearInterpolation(
+					previousUtilizationOfCpu[i],
+					utilizationOfCpu[i],
+					previousUtilizationOfMem[i],
+					utilizationOfMem[i],
+					time);
+			totalEnergy += energy[i];
+		}
+		return totalEnergy;
+	}
+
+	/**
+	 * Gets the number of hosts of the last time frame.
+	 *
+	 * @return the number of hosts
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the energy consumed by a host over the last time frame.
+	 *
+	 * @param index the index of the host
+	 * @return the energy
+	 */
+	public double getEnergy(int index) {
+		return energy[index];
+	}
+
+	/**
+	 * Gets the cpu utilization of a host at the start of the last time frame.
+	 *
+	 * @param index the index of the host
+	 * @return the previous cpu utilization
+	 */
+	public double getPreviousUtilizationOfCpu(int index) {
+		return previousUtilizationOfCpu[index];
+	}
+
+	/**
+	 * Gets the cpu utilization of a host at the end of the last time frame.
+	 *
+	 * @param index the index of the host
+	 * @return the cpu utilization
+	 */
+	public double getUtilizationOfCpu(int index) {
+		return utilizationOfCpu[index];
+	}
+
+	/**
+	 * Makes the columns hold at least a number of hosts.
+	 *
+	 * @param capacity the number of hosts
+	 */
+	private void ensureCapacity(int capacity) {
+		if (energy.length < capacity) {
+			previousUtilizationOfCpu = new double[capacity];
+			utilizationOfCpu = new double[capacity];
+			previousUtilizationOfMem = new double[capacity];
+			utilizationOfMem = new double[capacity];
+			energy = new double[capacity];
+		}
+	}
+
+}
@@ -8,14 +8,18 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.SlidingWindowRegression;
 
 /**
  * The class of a host that stores its CPU utilization history. The history is used by VM allocation
@@ -34,6 +38,19 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/** 已聚合的虚拟机 The VMs summed in the host utilization history, in the order of the VM list. */
+	private final List<PowerVm> aggregatedVms = new ArrayList<PowerVm>();
+
+	/** The utilization history versions of the aggregated VMs when they were summed. */
+	private long[] aggregatedVersions = new long[16];
+
+	/** 物理机使用率历史 The host utilization history of the aggregated VMs, the latest value first. */
+	private final double[] aggregatedHistory = new double[PowerVm.HISTORY_LENGTH];
+
+	/** The host utilization window of the aggregated VMs. */
+	private SlidingWindowRegression aggregatedWindow = new SlidingWindowRegression(
+			PowerVm.REGRESSION_WINDOW_LENGTH, PowerVm.HISTORY_LENGTH);
+
 	/**
 	 * Instantiates a new power host utilization history.
 	 * 
@@ -62,14 +79,123 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	 * @return the host utilization history
 	 */
 	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		return getUtilizationHistory(null);
+	}
+
+	/**
+	 * Gets the host utilization history as it would be if a VM were created on the host, without
+	 * changing the host.
+	 * 
+	 * @param vm the vm
+	 * @return the host utilization history after allocation
+	 */
+	protected double[] getUtilizationHistoryAfterAllocation(Vm vm) {
+		return getUtilizationHistory((PowerVm) vm);
+	}
+
+	/**
+	 * Gets the host utilization history, including an extra VM.
+	 * 
+	 * @param extraVm the extra vm, or null
+	 * @return the host utilization history
+	 */
+	private double[] getUtilizationHistory(PowerVm extraVm) {
+		updateAggregate();
+		if (extraVm == null) {
+			return MathUtil.trimZeroTail(aggregatedHistory);
+		}
+		double[] utilizationHistory = Arrays.copyOf(aggregatedHistory, aggregatedHistory.length);
+		addUtilizationHistory(utilizationHistory, extraVm, getTotalMips());
+		return MathUtil.trimZeroTail(utilizationHistory);
+	}
+
+	/**
+	 * Gets the latest values of the host utilization, with their regression sums. The window is the
+	 * sum of the windows of the VMs, weighted by their share of the host MIPS. The window kept by
+	 * the host is copied, so that the caller cannot change it.
+	 * 
+	 * @return the host utilization window
+	 */
+	protected SlidingWindowRegression getUtilizationWindow() {
+		return getUtilizationWindow(null);
+	}
+
+	/**
+	 * Gets the latest values of the host utilization as they would be if a VM were created on the
+	 * host, without changing the host.
+	 * 
+	 * @param vm the vm
+	 * @return the host utilization window after allocation
+	 */
+	protected SlidingWindowRegression getUtilizationWindowAfterAllocation(Vm vm) {
+		return getUtilizationWindow((PowerVm) vm);
+	}
+
+	/**
+	 * Gets the latest values of the host utilization, including an extra VM.
+	 * 
+	 * @param extraVm the extra vm, or null
+	 * @return the host utilization window
+	 */
+	private SlidingWindowRegression getUtilizationWindow(PowerVm extraVm) {
+		updateAggregate();
+		if (extraVm == null) {
+			return new SlidingWindowRegression(aggregatedWindow);
+		}
+		SlidingWindowRegression utilizationWindow = new SlidingWindowRegression(aggregatedWindow);
+		utilizationWindow.addScaled(extraVm.getUtilizationWindow(), extraVm.getMips() / getTotalMips());
+		return utilizationWindow;
+	}
+
+	/**
+	 * 更新聚合的使用率历史 Brings the host utilization history and window up to date with the VM
+	 * list. The VMs placed at the end of the list since the last update, as migrations and their
+	 * planning do, are added to the sums; any other change of the VM list, or a new value in the
+	 * history of an aggregated VM, makes the sums be computed again.
+	 */
+	private void updateAggregate() {
+		List<PowerVm> vmList = getVmList();
+		int aggregated = aggregatedVms.size();
+		boolean valid = vmList.size() >= aggregated;
+		for (int i = 0; valid && i < aggregated; i++) {
+			PowerVm vm = vmList.get(i);
+			valid = vm == aggregatedVms.get(i)
+					&& vm.getUtilizationHistoryVersion() == aggregatedVersions[i];
+		}
+		if (!valid) {
+			aggregatedVms.clear();
+			Arrays.fill(aggregatedHistory, 0);
+			aggregatedWindow = new SlidingWindowRegression(
+					PowerVm.REGRESSION_WINDOW_LENGTH,
+					PowerVm.HISTORY_LENGTH);
+			aggregated = 0;
+		}
+
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		for (int i = aggregated; i < vmList.size(); i++) {
+			PowerVm vm = vmList.get(i);
+			addUtilizationHistory(aggregatedHistory, vm, hostMips);
+			aggregatedWindow.addScaled(vm.getUtilizationWindow(), vm.getMips() / hostMips);
+			if (i == aggregatedVersions.length) {
+				aggregatedVersions = Arrays.copyOf(aggregatedVersions, 2 * i);
 			}
+			aggregatedVersions[i] = vm.getUtilizationHistoryVersion();
+			aggregatedVms.add(vm);
+		}
+	}
+
+	/**
+	 * Adds the utilization history of a VM to the host utilization history.
+	 * 
+	 * @param utilizationHistory the host utilization history
+	 * @param vm the vm
+	 * @param hostMips the total mips of the host
+	 */
+	private static void addUtilizationHistory(double[] utilizationHistory, PowerVm vm, double hostMips) {
+		List<Double> vmUtilizationHistory = vm.getUtilizationHistory();
+		for (int i = 0; i < vmUtilizationHistory.size(); i++) {
+			utilizationHistory[i] += vmUtilizationHistory.get(i) * vm.getMips() / hostMips;
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
 	}
 
 }
@@ -8,13 +8,14 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.SlidingWindowRegression;
+import org.cloudbus.cloudsim.util.SortedSlidingWindow;
 
 /**
  * The class of a VM that stores its CPU utilization history. The history is used by VM allocation
@@ -36,9 +37,19 @@ public class PowerVm extends Vm {
 	/** The Constant HISTORY_LENGTH. */
 	public static final int HISTORY_LENGTH = 30;
 
-	/** The utilization history. */
+	/** The number of latest utilization values regressed by the local regression policies. */
+	public static final int REGRESSION_WINDOW_LENGTH = 10;
+
+	/** The utilization history, in a ring that is also kept sorted. */
 	// 使用率历史 什么使用率的历史???
-	private final List<Double> utilizationHistory = new LinkedList<Double>();
+	private final SortedSlidingWindow utilizationHistory = new SortedSlidingWindow(HISTORY_LENGTH);
+
+	/** 使用率历史的版本 The number of values added to the utilization history. */
+	private long utilizationHistoryVersion;
+
+	/** 最近的使用率及其回归统计量 The latest utilization values, with their regression sums. */
+	private final SlidingWindowRegression utilizationWindow = new SlidingWindowRegression(
+			REGRESSION_WINDOW_LENGTH, HISTORY_LENGTH);
 
 	/** The previous time. */
 	private double previousTime;
@@ -78,6 +89,15 @@ public class PowerVm extends Vm {
 		setSchedulingInterval(schedulingInterval);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Vm#updateVmProcessing(double, java.util.List)
+	 */
+	@Override
+	public double updateVmProcessing(final double currentTime, final List<Double> mipsShare) {
+		return updateVmProcessing(currentTime, mipsShare == null ? null : MathUtil.listToArray(mipsShare));
+	}
+
 	/**
 	 * Updates the processing of cloudlets running on this VM.
 	 * 
@@ -91,8 +111,11 @@ public class PowerVm extends Vm {
 	 * @post $none
 	 */
 	@Override
-	public double updateVmProcessing(final double currentTime, final List<Double> mipsShare) {
-		double time = super.updateVmProcessing(currentTime, mipsShare);
+	public double updateVmProcessing(final double currentTime, final double[] mipsShare) {
+		double time = 0.0;
+		if (mipsShare != null) {
+			time = getCloudletScheduler().updateVmProcessing(currentTime, mipsShare);
+		}
 		if (currentTime > getPreviousTime() && (currentTime - 0.1) % getSchedulingInterval() == 0) {
 			double utilization = getTotalUtilizationOfCpu(getCloudletScheduler().getPreviousTime());
 			if (CloudSim.clock() != 0 || utilization != 0) {
@@ -109,20 +132,7 @@ public class PowerVm extends Vm {
 	 * @return the utilization mean in MIPS
 	 */
 	public double getUtilizationMad() {
-		double mad = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			double median = MathUtil.median(getUtilizationHistory());
-			double[] deviationSum = new double[n];
-			for (int i = 0; i < n; i++) {
-				deviationSum[i] = Math.abs(median - getUtilizationHistory().get(i));
-			}
-			mad = MathUtil.median(deviationSum);
-		}
-		return mad;
+		return getSortedUtilizationHistory().getMad();
 	}
 
 	/**
@@ -132,13 +142,11 @@ public class PowerVm extends Vm {
 	 */
 	public double getUtilizationMean() {
 		double mean = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		SortedSlidingWindow history = getSortedUtilizationHistory();
+		if (history.size() > 0) {
+			int n = history.size();
 			for (int i = 0; i < n; i++) {
-				mean += getUtilizationHistory().get(i);
+				mean += history.get(i);
 			}
 			mean /= n;
 		}
@@ -153,13 +161,11 @@ public class PowerVm extends Vm {
 	public double getUtilizationVariance() {
 		double mean = getUtilizationMean();
 		double variance = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		SortedSlidingWindow history = getSortedUtilizationHistory();
+		if (history.size() > 0) {
+			int n = history.size();
 			for (int i = 0; i < n; i++) {
-				double tmp = getUtilizationHistory().get(i) * getMips() - mean;
+				double tmp = history.get(i) * getMips() - mean;
 				variance += tmp * tmp;
 			}
 			variance /= n;
@@ -173,21 +179,50 @@ public class PowerVm extends Vm {
 	 * @param utilization the utilization
 	 */
 	public void addUtilizationHistoryValue(final double utilization) {
-		getUtilizationHistory().add(0, utilization);
-		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
-			getUtilizationHistory().remove(HISTORY_LENGTH);
-		}
+		getSortedUtilizationHistory().add(utilization);
+		getUtilizationWindow().add(utilization);
+		utilizationHistoryVersion++;
 	}
 
 	/**
-	 * Gets the utilization history.
+	 * Gets a read-only view of the utilization history, the latest value first.
 	 * 
 	 * @return the utilization history
 	 */
 	protected List<Double> getUtilizationHistory() {
+		return utilizationHistory.asList();
+	}
+
+	/**
+	 * Gets the utilization history, kept sorted. The window is not handed out, so that only
+	 * {@link #addUtilizationHistoryValue(double)} changes it; the other classes read the history
+	 * through {@link #getUtilizationHistory()}.
+	 * 
+	 * @return the sorted utilization history
+	 */
+	private SortedSlidingWindow getSortedUtilizationHistory() {
 		return utilizationHistory;
 	}
 
+	/**
+	 * Gets the number of values added to the utilization history, which tells whether the history
+	 * has changed since it was last read.
+	 * 
+	 * @return the utilization history version
+	 */
+	protected long getUtilizationHistoryVersion() {
+		return utilizationHistoryVersion;
+	}
+
+	/**
+	 * Gets the latest utilization values, with their regression sums.
+	 * 
+	 * @return the utilization window
+	 */
+	protected SlidingWindowRegression getUtilizationWindow() {
+		return utilizationWindow;
+	}
+
 	/**
 	 * Gets the previous time.
 	 * 
@@ -15,6 +15,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
@@ -22,6 +28,7 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.power.PowerVmPlacementOverlay.VmRequest;
 import org.cloudbus.cloudsim.power.lists.PowerVmList;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
 
@@ -42,14 +49,20 @@ import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
  */
 public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAllocationPolicyAbstract {
 
+	/**
+	 * The history entries added by a thread checking hosts for over-utilization, which are
+	 * recorded afterwards in the order of the hosts; null when the entries are recorded at once.
+	 */
+	private static final ThreadLocal<List<HistoryEntry>> HISTORY_ENTRY_BUFFER = new ThreadLocal<List<HistoryEntry>>();
+
 	/** 虚拟机选择策略 The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
 	
 	/** The policy of vm placement in host, for example: BestPower, FirstResource, BestResource and so on. **/
 	private String findHostPolicy = "";
 
-	/** The saved allocation. */
-	private final List<Map<String, Object>> savedAllocation = new ArrayList<Map<String, Object>>();
+	/** 规划虚拟机迁移时的物理机覆盖层 The overlay of the hosts on which the migrations are planned. */
+	private final PowerVmPlacementOverlay placementOverlay = new PowerVmPlacementOverlay();
 
 	/** The utilization history. */
 	private final Map<Integer, List<Double>> utilizationHistory = new HashMap<Integer, List<Double>>();
@@ -72,6 +85,15 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The execution time history total. */
 	private final List<Double> executionTimeHistoryTotal = new LinkedList<Double>();
 
+	/** The number of threads checking or scoring the hosts. */
+	private int hostEvaluationThreads = 1;
+
+	/** The threads checking or scoring the hosts, created when first needed. */
+	private ExecutorService hostEvaluationExecutor;
+
+	/** The resources requested by the VM whose hosts are being scored, read before the scoring. */
+	private volatile VmRequest scoredVmRequest;
+
 	/**
 	 * Instantiates a new power vm allocation policy migration abstract.
 	 * 
@@ -97,7 +119,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/**
 	 * 在PowerDatacenter.updateCloudletProcessing()函数中被调用
 	 * Algorithm 1：VM Placement Optimization
-	 * Optimize allocation of the VMs according to current utilization.
+	 * Optimize allocation of the VMs according to current utilization. The migrations are planned
+	 * on the {@link #getPlacementOverlay() placement overlay}, which is cleared afterwards, even if
+	 * the planning fails, so the hosts are left as they were.
 	 * 
 	 * @param vmList the vm list
 	 * 
@@ -107,35 +131,39 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
 		ExecutionTimeMeasurer.start("optimizeAllocationTotal");//记录总的VPO算法执行的时间
 
-		ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");//记录过载主机选择时间
-		//1， 遍历主机列表，取出，有过载的主机
-		List<PowerHostUtilizationHistory> overUtilizedHosts = getOverUtilizedHosts();
-		getExecutionTimeHistoryHostSelection().add(
-				ExecutionTimeMeasurer.end("optimizeAllocationHostSelection"));
-		//输出过载Host的信息
-		printOverUtilizedHosts(overUtilizedHosts);
-		//???保存当前分配状态
-		saveAllocation();
-		//2,从过载的Host中选择出迁移的虚拟机
-		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
-		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
-		getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
-
-		Log.printLine("Reallocation of VMs from the over-utilized hosts:");
-		
-		//3,将需要迁移的虚拟机从新分配,并返回迁移的虚拟机和Host的映射表
-		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
-		List<Map<String, Object>> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
-				overUtilizedHosts));
-		getExecutionTimeHistoryVmReallocation().add(
-				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
-		Log.printLine();
-
-		migrationMap.addAll(
-				//4，将欠载的Host中虚拟机找出来，并重新分配
-				getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
-
-		restoreAllocation();
+		List<Map<String, Object>> migrationMap;
+		Set<Host> changedHosts;
+		try {
+			ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");//记录过载主机选择时间
+			//1， 遍历主机列表，取出，有过载的主机
+			List<PowerHostUtilizationHistory> overUtilizedHosts = getOverUtilizedHosts();
+			getExecutionTimeHistoryHostSelection().add(
+					ExecutionTimeMeasurer.end("optimizeAllocationHostSelection"));
+			//输出过载Host的信息
+			printOverUtilizedHosts(overUtilizedHosts);
+			//2,从过载的Host中选择出迁移的虚拟机
+			ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
+			List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
+			getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
+
+			Log.printLine("Reallocation of VMs from the over-utilized hosts:");
+
+			//3,将需要迁移的虚拟机从新分配,并返回迁移的虚拟机和Host的映射表
+			ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
+			migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(overUtilizedHosts));
+			getExecutionTimeHistoryVmReallocation().add(
+					ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
+			Log.printLine();
+
+			migrationMap.addAll(
+					//4，将欠载的Host中虚拟机找出来，并重新分配
+					getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
+		} finally {
+			// 只撤销规划中的改动 only the changes made by the plan are undone
+			changedHosts = getPlacementOverlay().getChangedHosts();
+			getPlacementOverlay().clear();
+		}
+		reallocateRamAndBw(changedHosts);
 
 		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
 
@@ -250,15 +278,110 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param excludedHosts the excluded hosts
 	 * @return the power host
 	 */
-	public PowerHost findHostForVmBestPower(Vm vm, Set<? extends Host> excludedHosts) {
- 		double minPower = Double.MAX_VALUE;
-		PowerHost allocatedHost = null;
+	public PowerHost findHostForVmBestPower(final Vm vm, final Set<? extends Host> excludedHosts) {
+		// the resources requested by the VM are read once, on this thread, before the hosts are
+		// scored, so that the threads scoring the hosts never read the VM
+		final VmRequest request = new VmRequest(vm);
+		setScoredVmRequest(request);
+		try {
+			List<PowerHost> hostList = this.<PowerHost> getHostList();
+			int threads = getHostEvaluationThreads();
+			if (threads <= 1 || hostList.size() < 2 * threads) {
+				return findHostForVmBestPower(request, excludedHosts, hostList).getHost();
+			}
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
+			List<Callable<BestPowerHost>> tasks = new ArrayList<Callable<BestPowerHost>>(threads);
+			int chunkSize = (hostList.size() + threads - 1) / threads;
+			for (int from = 0; from < hostList.size(); from += chunkSize) {
+				final List<PowerHost> hosts = hostList.subList(from, Math.min(from + chunkSize, hostList.size()));
+				tasks.add(new Callable<BestPowerHost>() {
+
+					@Override
+					public BestPowerHost call() {
+						return findHostForVmBestPower(request, excludedHosts, hosts);
+					}
+				});
+			}
+
+			BestPowerHost bestHost = new BestPowerHost();
+			for (BestPowerHost chunkBestHost : invokeAll(tasks)) {
+				if (chunkBestHost.getHost() != null) {
+					bestHost.offer(chunkBestHost.getHost(), chunkBestHost.getPowerDiff());
+				}
+			}
+			return bestHost.getHost();
+		} finally {
+			setScoredVmRequest(null);
+		}
+	}
+
+	/**
+	 * Sets the resources requested by the VM whose hosts are being scored, on this policy and on
+	 * the fallback policies it defers to.
+	 * 
+	 * @param request the resources requested by the vm, or null once the hosts are scored
+	 */
+	private void setScoredVmRequest(VmRequest request) {
+		PowerVmAllocationPolicyMigrationAbstract policy = this;
+		while (policy != null && policy.scoredVmRequest != request) {
+			policy.scoredVmRequest = request;
+			policy = policy.getFallbackVmAllocationPolicy();
+		}
+	}
+
+	/**
+	 * Gets the total MIPS requested by a VM. While the hosts are scored for a VM, the value read
+	 * before the scoring is returned.
+	 * 
+	 * @param vm the vm
+	 * @return the requested total mips
+	 */
+	protected double getRequestedTotalMips(Vm vm) {
+		VmRequest request = scoredVmRequest;
+		return request != null && request.getVm() == vm ? request.getTotalMips() : vm.getCurrentRequestedTotalMips();
+	}
+
+	/**
+	 * Gets the RAM requested by a VM. While the hosts are scored for a VM, the value read before
+	 * the scoring is returned.
+	 * 
+	 * @param vm the vm
+	 * @return the requested ram
+	 */
+	protected int getRequestedRam(Vm vm) {
+		VmRequest request = scoredVmRequest;
+		return request != null && request.getVm() == vm ? request.getRam() : vm.getCurrentRequestedRam();
+	}
+
+	/**
+	 * Gets the policy this one defers to when it cannot check a host, e.g. for lack of history.
+	 * 
+	 * @return the fallback vm allocation policy, or null if there is none
+	 */
+	public PowerVmAllocationPolicyMigrationAbstract getFallbackVmAllocationPolicy() {
+		return null;
+	}
+
+	/**
+	 * Finds the host of a list whose power increases the least with a VM. Nothing is changed, so
+	 * that several lists can be scored at the same time.
+	 * 
+	 * @param request the resources requested by the vm
+	 * @param excludedHosts the excluded hosts
+	 * @param hosts the hosts to score
+	 * @return the best host of the list
+	 */
+	private BestPowerHost findHostForVmBestPower(
+			VmRequest request,
+			Set<? extends Host> excludedHosts,
+			List<PowerHost> hosts) {
+		Vm vm = request.getVm();
+		BestPowerHost bestHost = new BestPowerHost();
+		for (PowerHost host : hosts) {
 			if (excludedHosts.contains(host)) {
 				continue;
 			}
-			if (host.isSuitableForVm(vm)) {
+			if (getPlacementOverlay().isSuitableForVm(host, request)) {
 				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
 					continue;
 				}
@@ -266,21 +389,68 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				try {
 					double powerAfterAllocation = getPowerAfterAllocation(host, vm);	//分配之后的能耗
 					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {//选择分配能耗最小的
-							minPower = powerDiff;
-							allocatedHost = host;
-						}
+						//选择分配能耗最小的
+						bestHost.offer(host, powerAfterAllocation - host.getPower());
 					}
 				} catch (Exception e) {
 				}
 			}
 		}
-		return allocatedHost;
+		return bestHost;
+	}
+
+	/**
+	 * The host whose power increases the least with a VM, among the hosts offered. Hosts with the
+	 * same power increase are ordered by id, so that the choice does not depend on the order in
+	 * which the hosts are scored.
+	 */
+	private static class BestPowerHost {
+
+		/** The least power increase. */
+		private double powerDiff = Double.MAX_VALUE;
+
+		/** The host. */
+		private PowerHost host;
+
+		/**
+		 * Offers a host.
+		 * 
+		 * @param host the host
+		 * @param powerDiff the power increase of the host
+		 */
+		public void offer(PowerHost host, double powerDiff) {
+			if (powerDiff < this.powerDiff
+					|| (this.host != null && powerDiff == this.powerDiff && host.getId() < this.host.getId())) {
+				this.powerDiff = powerDiff;
+				this.host = host;
+			}
+		}
+
+		/**
+		 * Gets the host.
+		 * 
+		 * @return the host, or null if no host was accepted
+		 */
+		public PowerHost getHost() {
+			return host;
+		}
+
+		/**
+		 * Gets the power increase of the host.
+		 * 
+		 * @return the power increase
+		 */
+		public double getPowerDiff() {
+			return powerDiff;
+		}
+
 	}
 
 	/**
-	 * Checks if is host over utilized after allocation.
+	 * Checks if is host over utilized after allocation. This default implementation places the
+	 * VM on the host through the placement overlay and takes it off afterwards; the policies of
+	 * this package override it to compute the answer without changing the host, which is required
+	 * to score the hosts in parallel.
 	 * 
 	 * @param host the host
 	 * @param vm the vm
@@ -288,13 +458,44 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
 		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.vmCreate(vm)) {
+		if (getPlacementOverlay().vmCreate(host, vm)) {
 			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.vmDestroy(vm);
+			getPlacementOverlay().vmDestroy(host, vm);
 		}
 		return isHostOverUtilizedAfterAllocation;
 	}
 
+	/**
+	 * Checks, without changing the host, whether a VM that the host is suitable for could be
+	 * created on it: creating the VM also takes its storage.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host has enough storage for the vm
+	 */
+	protected boolean isStorageSuitableForVm(PowerHost host, Vm vm) {
+		return getPlacementOverlay().getStorage(host) >= vm.getSize();
+	}
+
+	/**
+	 * Gets the utilization of the CPU requested by the VMs of a host, and by one more VM if
+	 * given, without changing the host.
+	 * 
+	 * @param host the host
+	 * @param vm the vm to add, or null
+	 * @return the requested utilization of the CPU
+	 */
+	protected double getRequestedUtilizationOfCpu(PowerHost host, Vm vm) {
+		double totalRequestedMips = 0;
+		for (Vm hostVm : host.getVmList()) {
+			totalRequestedMips += hostVm.getCurrentRequestedTotalMips();
+		}
+		if (vm != null) {
+			totalRequestedMips += getRequestedTotalMips(vm);
+		}
+		return totalRequestedMips / host.getTotalMips();
+	}
+
 	/**
 	 * Find host for vm.
 	 * 
@@ -339,7 +540,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				getPlacementOverlay().vmCreate(allocatedHost, vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
@@ -366,7 +567,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				getPlacementOverlay().vmCreate(allocatedHost, vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
@@ -376,7 +577,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			} else {//如果虚拟机迁移失败，则退出
 				Log.printLine("Not all VMs can be reallocated from the host, reallocation cancelled");
 				for (Map<String, Object> map : migrationMap) {
-					((Host) map.get("host")).vmDestroy((Vm) map.get("vm"));
+					getPlacementOverlay().vmDestroy((Host) map.get("host"), (Vm) map.get("vm"));
 				}
 				migrationMap.clear();
 				break;
@@ -403,7 +604,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.vmDestroy(vm);
+				getPlacementOverlay().vmDestroy(host, vm);
 				if (!isHostOverUtilized(host)) {
 					break;
 				}
@@ -429,13 +630,66 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Gets the over utilized hosts.
+	 * Gets the over utilized hosts. With more than one {@link #setHostEvaluationThreads(int) host
+	 * evaluation thread}, the hosts are checked in parallel, and the history entries added by the
+	 * checks are recorded afterwards in the order of the hosts, so the result is the same.
 	 * 
 	 * @return the over utilized hosts
 	 */
 	protected List<PowerHostUtilizationHistory> getOverUtilizedHosts() {
+		List<PowerHostUtilizationHistory> hostList = this.<PowerHostUtilizationHistory> getHostList();
+		int threads = getHostEvaluationThreads();
+		if (threads <= 1 || hostList.size() < 2 * threads) {
+			return getOverUtilizedHosts(hostList);
+		}
+
+		// the requested mips of the VMs are computed and cached once, before the hosts are checked
+		for (PowerHost host : hostList) {
+			for (Vm vm : host.getVmList()) {
+				vm.getCurrentRequestedMipsArray();
+			}
+		}
+
+		List<Callable<OverUtilizedHosts>> tasks = new ArrayList<Callable<OverUtilizedHosts>>(threads);
+		int chunkSize = (hostList.size() + threads - 1) / threads;
+		for (int from = 0; from < hostList.size(); from += chunkSize) {
+			final List<PowerHostUtilizationHistory> hosts = hostList.subList(
+					from,
+					Math.min(from + chunkSize, hostList.size()));
+			tasks.add(new Callable<OverUtilizedHosts>() {
+
+				@Override
+				public OverUtilizedHosts call() {
+					List<HistoryEntry> historyEntries = new ArrayList<HistoryEntry>();
+					HISTORY_ENTRY_BUFFER.set(historyEntries);
+					try {
+						return new OverUtilizedHosts(getOverUtilizedHosts(hosts), historyEntries);
+					} finally {
+						HISTORY_ENTRY_BUFFER.remove();
+					}
+				}
+			});
+		}
+
+		List<PowerHostUtilizationHistory> overUtilizedHosts = new LinkedList<PowerHostUtilizationHistory>();
+		for (OverUtilizedHosts chunkOverUtilizedHosts : invokeAll(tasks)) {
+			for (HistoryEntry entry : chunkOverUtilizedHosts.historyEntries) {
+				entry.policy.recordHistoryEntry(entry.host, entry.metric);
+			}
+			overUtilizedHosts.addAll(chunkOverUtilizedHosts.hosts);
+		}
+		return overUtilizedHosts;
+	}
+
+	/**
+	 * Gets the over utilized hosts of a list.
+	 * 
+	 * @param hosts the hosts to check
+	 * @return the over utilized hosts of the list
+	 */
+	private List<PowerHostUtilizationHistory> getOverUtilizedHosts(List<PowerHostUtilizationHistory> hosts) {
 		List<PowerHostUtilizationHistory> overUtilizedHosts = new LinkedList<PowerHostUtilizationHistory>();
-		for (PowerHostUtilizationHistory host : this.<PowerHostUtilizationHistory> getHostList()) {
+		for (PowerHostUtilizationHistory host : hosts) {
 			if (isHostOverUtilized(host)) {
 				overUtilizedHosts.add(host);
 			}
@@ -443,6 +697,30 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return overUtilizedHosts;
 	}
 
+	/**
+	 * The over utilized hosts of a list, with the history entries added while checking them.
+	 */
+	private static class OverUtilizedHosts {
+
+		/** The over utilized hosts. */
+		private final List<PowerHostUtilizationHistory> hosts;
+
+		/** The history entries. */
+		private final List<HistoryEntry> historyEntries;
+
+		/**
+		 * Instantiates a new result.
+		 * 
+		 * @param hosts the over utilized hosts
+		 * @param historyEntries the history entries
+		 */
+		public OverUtilizedHosts(List<PowerHostUtilizationHistory> hosts, List<HistoryEntry> historyEntries) {
+			this.hosts = hosts;
+			this.historyEntries = historyEntries;
+		}
+
+	}
+
 	/**
 	 * Gets the switched off host.
 	 * 
@@ -510,12 +788,28 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	protected abstract boolean isHostOverUtilized(PowerHost host);
 
 	/**
-	 * Adds the history value.
+	 * Adds the history value. When called by a thread checking hosts in parallel, the value is
+	 * recorded once all the hosts have been checked.
 	 * 
 	 * @param host the host
 	 * @param metric the metric
 	 */
 	protected void addHistoryEntry(HostDynamicWorkload host, double metric) {
+		List<HistoryEntry> buffer = HISTORY_ENTRY_BUFFER.get();
+		if (buffer != null) {
+			buffer.add(new HistoryEntry(this, host, metric));
+			return;
+		}
+		recordHistoryEntry(host, metric);
+	}
+
+	/**
+	 * Records the history value.
+	 * 
+	 * @param host the host
+	 * @param metric the metric
+	 */
+	private void recordHistoryEntry(HostDynamicWorkload host, double metric) {
 		int hostId = host.getId();
 		if (!getTimeHistory().containsKey(hostId)) {
 			getTimeHistory().put(hostId, new LinkedList<Double>());
@@ -534,40 +828,72 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Save allocation.
+	 * A history value added by a thread checking hosts in parallel.
+	 */
+	private static class HistoryEntry {
+
+		/** The policy the value is added to. */
+		private final PowerVmAllocationPolicyMigrationAbstract policy;
+
+		/** The host. */
+		private final HostDynamicWorkload host;
+
+		/** The metric. */
+		private final double metric;
+
+		/**
+		 * Instantiates a new history entry.
+		 * 
+		 * @param policy the policy the value is added to
+		 * @param host the host
+		 * @param metric the metric
+		 */
+		public HistoryEntry(PowerVmAllocationPolicyMigrationAbstract policy, HostDynamicWorkload host, double metric) {
+			this.policy = policy;
+			this.host = host;
+			this.metric = metric;
+		}
+
+	}
+
+	/**
+	 * Provisions the RAM and BW of the VMs again, at what they currently request, on the hosts
+	 * changed by the plan, on the hosts VMs are migrating to or from, and on the hosts whose VMs
+	 * request other RAM or BW than they are given. The other hosts are left as they are.
+	 * 
+	 * @param changedHosts the hosts changed by the plan
+	 * @return true, if the RAM and BW of the VMs could be provisioned on all these hosts
 	 */
-	protected void saveAllocation() {
-		getSavedAllocation().clear();
+	protected boolean reallocateRamAndBw(Set<? extends Host> changedHosts) {
+		boolean result = true;
 		for (Host host : getHostList()) {
-			for (Vm vm : host.getVmList()) {
-				if (host.getVmsMigratingIn().contains(vm)) {
-					continue;
-				}
-				Map<String, Object> map = new HashMap<String, Object>();
-				map.put("host", host);
-				map.put("vm", vm);
-				getSavedAllocation().add(map);
+			if (!changedHosts.contains(host) && !isHostMigrating(host) && !host.isRamOrBwRequestChanged()) {
+				continue;
+			}
+			if (!host.reallocateRamAndBwForAllVms()) {
+				Log.printLine("Couldn't reallocate the RAM and BW of the VMs on host #" + host.getId());
+				result = false;
 			}
 		}
+		return result;
 	}
 
 	/**
-	 * Restore allocation.
+	 * Checks whether VMs are migrating to or from a host.
+	 * 
+	 * @param host the host
+	 * @return true, if a vm is migrating to or from the host
 	 */
-	protected void restoreAllocation() {
-		for (Host host : getHostList()) {
-			host.vmDestroyAll();
-			host.reallocateMigratingInVms();
-		}
-		for (Map<String, Object> map : getSavedAllocation()) {
-			Vm vm = (Vm) map.get("vm");
-			PowerHost host = (PowerHost) map.get("host");
-			if (!host.vmCreate(vm)) {
-				Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
-				System.exit(0);
+	protected boolean isHostMigrating(Host host) {
+		if (!host.getVmsMigratingIn().isEmpty()) {
+			return true;
+		}
+		for (Vm vm : host.getVmList()) {
+			if (vm.isInMigration()) {
+				return true;
 			}
-			getVmTable().put(vm.getUid(), host);
 		}
+		return false;
 	}
 
 	/**
@@ -600,7 +926,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the power after allocation
 	 */
 	protected double getMaxUtilizationAfterAllocation(PowerHost host, Vm vm) {
-		double requestedTotalMips = vm.getCurrentRequestedTotalMips();
+		double requestedTotalMips = getRequestedTotalMips(vm);
 		double hostUtilizationMips = getUtilizationOfCpuMips(host);
 		double hostPotentialUtilizationMips = hostUtilizationMips + requestedTotalMips;
 		double pePotentialUtilization = hostPotentialUtilizationMips / host.getTotalMips();
@@ -617,13 +943,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the power after allocation
 	 */
 	protected double getMaxUtilizationCpuAfterAllocation(PowerHost host, Vm vm) {
-		double requestedTotalMips = vm.getCurrentRequestedTotalMips();
+		double requestedTotalMips = getRequestedTotalMips(vm);
 		double hostUtilizationMips = host.getUtilizationOfCpuMips();
 		for (Vm vm2 : host.getVmList()) {
 			if (host.getVmsMigratingIn().contains(vm2)) {
 				// calculate additional potential CPU usage of a migrating in VM
 				// 只分配了10％的计算能力，所以要分配回来
-				hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2) * 0.9 / 0.1;
+				hostUtilizationMips += getPlacementOverlay().getTotalAllocatedMipsForVm(host, vm2) * 0.9 / 0.1;
 			}
 		}
 		double hostPotentialUtilizationMips = hostUtilizationMips + requestedTotalMips;
@@ -632,16 +958,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 	
 	protected double getMaxUtilizationMemAfterAllocation(PowerHost host, Vm vm) {
-		double requestedTotalRam = vm.getCurrentRequestedRam();
-		double hostUtilizationRam = host.getUtilizationOfRam();
-
-		for (Vm vm2 : host.getVmList()) {
-			if (host.getVmsMigratingIn().contains(vm2)) {
-				// calculate additional potential CPU usage of a migrating in VM
-				// 没有针对迁移机器预分配
-				hostUtilizationRam += vm.getCurrentAllocatedRam();
-			}
-		}
+		double requestedTotalRam = getRequestedRam(vm);
+		// 迁入的虚拟机的内存已经全部分配 the RAM of the VMs migrating in is already fully allocated
+		double hostUtilizationRam = getPlacementOverlay().getUsedRam(host);
 		double hostPotentialUtilizationRam = hostUtilizationRam + requestedTotalRam;
 		double ramPotentialUtilization = hostPotentialUtilizationRam / host.getRam();
 		return ramPotentialUtilization;
@@ -658,20 +977,20 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm2 : host.getVmList()) {
 			if (host.getVmsMigratingIn().contains(vm2)) {
 				// calculate additional potential CPU usage of a migrating in VM
-				hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2) * 0.9 / 0.1;
+				hostUtilizationMips += getPlacementOverlay().getTotalAllocatedMipsForVm(host, vm2) * 0.9 / 0.1;
 			}
-			hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2);
+			hostUtilizationMips += getPlacementOverlay().getTotalAllocatedMipsForVm(host, vm2);
 		}
 		return hostUtilizationMips;
 	}
 
 	/**
-	 * Gets the saved allocation.
+	 * Gets the overlay of the hosts on which the migrations are planned.
 	 * 
-	 * @return the saved allocation
+	 * @return the placement overlay
 	 */
-	protected List<Map<String, Object>> getSavedAllocation() {
-		return savedAllocation;
+	protected PowerVmPlacementOverlay getPlacementOverlay() {
+		return placementOverlay;
 	}
 
 	/**
@@ -755,4 +1074,79 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return executionTimeHistoryTotal;
 	}
 
+	/**
+	 * Sets the number of threads checking the hosts for over-utilization and scoring the hosts for
+	 * a VM. More than one thread requires {@link #isHostOverUtilized(PowerHost)} and
+	 * {@link #isHostOverUtilizedAfterAllocation(PowerHost, Vm)} not to change the host, as in the
+	 * policies of this package.
+	 * 
+	 * @param hostEvaluationThreads the number of threads
+	 */
+	public void setHostEvaluationThreads(int hostEvaluationThreads) {
+		if (hostEvaluationThreads <= 0) {
+			throw new IllegalArgumentException("Number of threads must be > 0.");
+		}
+		if (hostEvaluationExecutor != null) {
+			hostEvaluationExecutor.shutdown();
+			hostEvaluationExecutor = null;
+		}
+		this.hostEvaluationThreads = hostEvaluationThreads;
+	}
+
+	/**
+	 * Gets the number of threads checking or scoring the hosts.
+	 * 
+	 * @return the number of threads
+	 */
+	public int getHostEvaluationThreads() {
+		return hostEvaluationThreads;
+	}
+
+	/**
+	 * Runs tasks on the host evaluation threads.
+	 * 
+	 * @param <T> the type of the results
+	 * @param tasks the tasks
+	 * @return the results of the tasks, in the same order
+	 */
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+		List<T> results = new ArrayList<T>(tasks.size());
+		try {
+			for (Future<T> result : getHostEvaluationExecutor().invokeAll(tasks)) {
+				results.add(result.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The evaluation of the hosts was interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return results;
+	}
+
+	/**
+	 * Gets the threads checking or scoring the hosts.
+	 * 
+	 * @return the executor
+	 */
+	private ExecutorService getHostEvaluationExecutor() {
+		if (hostEvaluationExecutor == null) {
+			hostEvaluationExecutor = Executors.newFixedThreadPool(
+					getHostEvaluationThreads(),
+					new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "PowerVmAllocationPolicy-host-evaluation");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return hostEvaluationExecutor;
+	}
+
 }
@@ -90,14 +90,33 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
 		addHistoryEntry(host, upperThreshold);
-		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
-			totalRequestedMips += vm.getCurrentRequestedTotalMips();
-		}
-		double utilization = totalRequestedMips / host.getTotalMips();
+		double utilization = getRequestedUtilizationOfCpu(host, null);
 		return utilization > upperThreshold;
 	}
 
+	/**
+	 * Checks if a host would be over utilized with a VM, without changing the host.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host would be over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
+		if (!isStorageSuitableForVm(host, vm)) {
+			return true;
+		}
+		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
+		double upperThreshold = 0;
+		try {
+			upperThreshold = 1 - getSafetyParameter()
+					* getUtilizationIqr(_host.getUtilizationHistoryAfterAllocation(vm));
+		} catch (IllegalArgumentException e) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilizedAfterAllocation(host, vm);
+		}
+		return getRequestedUtilizationOfCpu(host, vm) > upperThreshold;
+	}
+
 	/**
 	 * Gets the host utilization iqr.
 	 * 
@@ -105,7 +124,17 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 	 * @return the host utilization iqr
 	 */
 	protected double getHostUtilizationIqr(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
+		return getUtilizationIqr(host.getUtilizationHistory());
+	}
+
+	/**
+	 * Gets the interquartile range of a utilization history.
+	 * 
+	 * @param data the utilization history
+	 * @return the interquartile range
+	 * @throws IllegalArgumentException if the history is too short
+	 */
+	protected double getUtilizationIqr(double[] data) throws IllegalArgumentException {
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
 			return MathUtil.iqr(data);
 		}
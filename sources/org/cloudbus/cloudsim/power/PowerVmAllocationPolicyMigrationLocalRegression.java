@@ -13,6 +13,7 @@ import java.util.List;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.SlidingWindowRegression;
 
 /**
  * 判断过载：局部回归The Local Regression (LR) VM allocation policy.
@@ -90,30 +91,68 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
 		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
-		double[] utilizationHistory = _host.getUtilizationHistory();
-		int length = 10; // we use 10 to make the regression responsive enough to latest values
-		if (utilizationHistory.length < length) {
-			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
-		}
-		double[] utilizationHistoryReversed = new double[length];
-		for (int i = 0; i < length; i++) {
-			utilizationHistoryReversed[i] = utilizationHistory[length - i - 1];
-		}
-		double[] estimates = null;
+		double predictedUtilization = 0;
 		try {
-			estimates = getParameterEstimates(utilizationHistoryReversed);
+			predictedUtilization = getPredictedUtilization(
+					_host.getUtilizationWindow(),
+					getMaximumVmMigrationTime(_host));
 		} catch (IllegalArgumentException e) {
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
-		double migrationIntervals = Math.ceil(getMaximumVmMigrationTime(_host) / getSchedulingInterval());
-		double predictedUtilization = estimates[0] + estimates[1] * (length + migrationIntervals);
-		predictedUtilization *= getSafetyParameter();
 
 		addHistoryEntry(host, predictedUtilization);
 
 		return predictedUtilization >= 1;
 	}
 
+	/**
+	 * Checks if a host would be over utilized with a VM, without changing the host.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host would be over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
+		if (!isStorageSuitableForVm(host, vm)) {
+			return true;
+		}
+		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
+		double predictedUtilization = 0;
+		try {
+			predictedUtilization = getPredictedUtilization(
+					_host.getUtilizationWindowAfterAllocation(vm),
+					getMaximumVmMigrationTime(_host, vm));
+		} catch (IllegalArgumentException e) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilizedAfterAllocation(host, vm);
+		}
+		return predictedUtilization >= 1;
+	}
+
+	/**
+	 * Predicts the utilization of a host by the end of the migration of its VMs.
+	 * 
+	 * @param utilizationWindow the latest utilization values of the host
+	 * @param maximumVmMigrationTime the maximum vm migration time
+	 * @return the predicted utilization
+	 * @throws IllegalArgumentException if the history is too short
+	 */
+	protected double getPredictedUtilization(
+			SlidingWindowRegression utilizationWindow,
+			double maximumVmMigrationTime) throws IllegalArgumentException {
+		// the window is short to make the regression responsive enough to latest values; the
+		// history is too short if it has fewer values once its oldest zero values are trimmed
+		int length = utilizationWindow.getLength();
+		if (utilizationWindow.getNonZeroCount() < length) {
+			throw new IllegalArgumentException();
+		}
+		double[] estimates = getParameterEstimates(utilizationWindow);
+		double migrationIntervals = Math.ceil(maximumVmMigrationTime / getSchedulingInterval());
+		double predictedUtilization = estimates[0] + estimates[1] * (length + migrationIntervals);
+		predictedUtilization *= getSafetyParameter();
+		return predictedUtilization;
+	}
+
 	/**
 	 * Gets the parameter estimates.
 	 * 
@@ -124,6 +163,18 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return MathUtil.getLoessParameterEstimates(utilizationHistoryReversed);
 	}
 
+	/**
+	 * Gets the parameter estimates of the latest utilization values. The tricube weights of
+	 * {@link MathUtil#getLoessParameterEstimates(double[])} are all positive, so the regression is
+	 * the least squares one, computed from the sums kept by the window.
+	 * 
+	 * @param utilizationWindow the latest utilization values
+	 * @return the parameter estimates
+	 */
+	protected double[] getParameterEstimates(SlidingWindowRegression utilizationWindow) {
+		return utilizationWindow.getParameterEstimates();
+	}
+
 	/**
 	 * Gets the maximum vm migration time.
 	 * 
@@ -131,6 +182,17 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 * @return the maximum vm migration time
 	 */
 	protected double getMaximumVmMigrationTime(PowerHost host) {
+		return getMaximumVmMigrationTime(host, null);
+	}
+
+	/**
+	 * Gets the maximum vm migration time, including one more VM if given.
+	 * 
+	 * @param host the host
+	 * @param extraVm the vm to add, or null
+	 * @return the maximum vm migration time
+	 */
+	protected double getMaximumVmMigrationTime(PowerHost host, Vm extraVm) {
 		int maxRam = Integer.MIN_VALUE;
 		for (Vm vm : host.getVmList()) {
 			int ram = vm.getRam();
@@ -138,6 +200,9 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 				maxRam = ram;
 			}
 		}
+		if (extraVm != null && extraVm.getRam() > maxRam) {
+			maxRam = extraVm.getRam();
+		}
 		return maxRam / ((double) host.getBw() / (2 * 8000));
 	}
 
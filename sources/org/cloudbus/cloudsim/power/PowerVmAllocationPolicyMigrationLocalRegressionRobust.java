@@ -12,6 +12,7 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.SlidingWindowRegression;
 
 /**
  * 判断过载：局部增强回归The Local Regression Robust (LRR) VM allocation policy.
@@ -30,6 +31,12 @@ import org.cloudbus.cloudsim.util.MathUtil;
 public class PowerVmAllocationPolicyMigrationLocalRegressionRobust extends
 		PowerVmAllocationPolicyMigrationLocalRegression {
 
+	/**
+	 * The median absolute residual below which the least squares line is taken to fit the values
+	 * exactly, and the bisquare weights are computed.
+	 */
+	private static final double MAX_EXACT_FIT_RESIDUAL = 1e-9;
+
 	/**
 	 * Instantiates a new power vm allocation policy migration local regression.
 	 * 
@@ -83,4 +90,28 @@ public class PowerVmAllocationPolicyMigrationLocalRegressionRobust extends
 		return MathUtil.getRobustLoessParameterEstimates(utilizationHistoryReversed);
 	}
 
+	/**
+	 * Gets the parameter estimates of the latest utilization values. The bisquare weights of
+	 * {@link MathUtil#getRobustLoessParameterEstimates(double[])} only change the least squares
+	 * regression when some of them are zero, which needs the median of the absolute residuals to be
+	 * zero; only then are the values regressed again.
+	 * 
+	 * @param utilizationWindow the latest utilization values
+	 * @return the parameter estimates
+	 */
+	@Override
+	protected double[] getParameterEstimates(SlidingWindowRegression utilizationWindow) {
+		double[] estimates = super.getParameterEstimates(utilizationWindow);
+		int n = utilizationWindow.getLength();
+		double[] residuals = new double[n];
+		for (int i = 0; i < n; i++) {
+			double x = n - i;
+			residuals[i] = Math.abs(utilizationWindow.get(i) - (estimates[0] + estimates[1] * x));
+		}
+		if (MathUtil.median(residuals) > MAX_EXACT_FIT_RESIDUAL) {
+			return estimates;
+		}
+		return getParameterEstimates(utilizationWindow.toArray());
+	}
+
 }
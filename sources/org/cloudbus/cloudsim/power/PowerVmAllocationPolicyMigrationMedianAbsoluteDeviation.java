@@ -91,14 +91,33 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
 		addHistoryEntry(host, upperThreshold);
-		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
-			totalRequestedMips += vm.getCurrentRequestedTotalMips();
-		}
-		double utilization = totalRequestedMips / host.getTotalMips();
+		double utilization = getRequestedUtilizationOfCpu(host, null);
 		return utilization > upperThreshold;
 	}
 
+	/**
+	 * Checks if a host would be over utilized with a VM, without changing the host.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host would be over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
+		if (!isStorageSuitableForVm(host, vm)) {
+			return true;
+		}
+		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
+		double upperThreshold = 0;
+		try {
+			upperThreshold = 1 - getSafetyParameter()
+					* getUtilizationMad(_host.getUtilizationHistoryAfterAllocation(vm));
+		} catch (IllegalArgumentException e) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilizedAfterAllocation(host, vm);
+		}
+		return getRequestedUtilizationOfCpu(host, vm) > upperThreshold;
+	}
+
 	/**
 	 * 计算出使用率的中位数绝对离差 Gets the host utilization mad.
 	 * 
@@ -106,7 +125,17 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	 * @return the host utilization mad
 	 */
 	protected double getHostUtilizationMad(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
+		return getUtilizationMad(host.getUtilizationHistory());
+	}
+
+	/**
+	 * Gets the median absolute deviation of a utilization history.
+	 * 
+	 * @param data the utilization history
+	 * @return the median absolute deviation
+	 * @throws IllegalArgumentException if the history is too short
+	 */
+	protected double getUtilizationMad(double[] data) throws IllegalArgumentException {
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
 			return MathUtil.mad(data);
 		}
@@ -57,14 +57,25 @@ public class PowerVmAllocationPolicyMigrationStaticThreshold extends PowerVmAllo
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
 		addHistoryEntry(host, getUtilizationThreshold());
-		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
-			totalRequestedMips += vm.getCurrentRequestedTotalMips();
-		}
-		double utilization = totalRequestedMips / host.getTotalMips();
+		double utilization = getRequestedUtilizationOfCpu(host, null);
 		return utilization > getUtilizationThreshold();//判断是否大于静态阈值0.9，如果大于，则认为是过载
 	}
 
+	/**
+	 * Checks if a host would be over utilized with a VM, without changing the host.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host would be over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
+		if (!isStorageSuitableForVm(host, vm)) {
+			return true;
+		}
+		return getRequestedUtilizationOfCpu(host, vm) > getUtilizationThreshold();
+	}
+
 	/**
 	 * Sets the utilization threshold.
 	 * 
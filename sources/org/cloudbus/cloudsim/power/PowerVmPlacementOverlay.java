@@ -0,0 +1,452 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.IntObjectMap;
+
+/**
+ * 虚拟机迁移规划的覆盖层：规划时在这里记录虚拟机的放置，而不在物理机上真正创建或销毁虚拟机
+ * A copy-on-write overlay of the hosts, on which the VM migrations are planned. Placing a VM on a
+ * host, or taking it off, changes a copy of its free resources, made when the host is first
+ * changed; the RAM, BW, MIPS and storage provisioned on the hosts are left untouched. The VM list
+ * of the host itself is changed though, since the policies read it to evaluate the host, so the
+ * overlay must be cleared once the plan is made, even if the planning fails: clearing it gives the
+ * hosts their VM lists back, so that only the changes made by the plan are undone.
+ *
+ * The queries of a host that has not been changed read the host itself, and do not change it, so
+ * that they can be made by several threads at the same time.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerVmPlacementOverlay {
+
+	/** The state of the changed hosts. */
+	private final Map<Host, HostState> hostStates = new HashMap<Host, HostState>();
+
+	/**
+	 * Checks whether a host is suitable for a VM, as {@link Host#isSuitableForVm(Vm)} does, taking
+	 * the planned changes into account.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the host is suitable for the vm
+	 */
+	public boolean isSuitableForVm(Host host, Vm vm) {
+		return isSuitableForVm(host, new VmRequest(vm));
+	}
+
+	/**
+	 * Checks whether a host is suitable for a VM, given the resources the VM requests. The VM is
+	 * not read, so that the hosts can be checked by several threads at the same time.
+	 *
+	 * @param host the host
+	 * @param request the resources requested by the vm
+	 * @return true, if the host is suitable for the vm
+	 */
+	public boolean isSuitableForVm(Host host, VmRequest request) {
+		Vm vm = request.getVm();
+		return host.getVmScheduler().getPeCapacity() >= request.getMaxMips()
+				&& getAvailableMips(host) >= request.getTotalMips()
+				&& getAvailableRam(host) + getAllocatedRamForVm(host, vm) >= Math.min(request.getRam(), vm.getRam())
+				&& getAvailableBw(host) + getAllocatedBwForVm(host, vm) >= request.getBw();
+	}
+
+	/**
+	 * Places a VM on a host, if the host has enough storage and is suitable for the VM.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return true, if the vm has been placed on the host
+	 */
+	public boolean vmCreate(Host host, Vm vm) {
+		VmRequest request = new VmRequest(vm);
+		if (getStorage(host) < vm.getSize() || !isSuitableForVm(host, request)) {
+			return false;
+		}
+
+		HostState state = getHostState(host);
+		Allocation allocation = state.removedVms.remove(vm.getHandle());
+		if (allocation == null) {
+			allocation = new Allocation(
+					Math.min(request.getRam(), vm.getRam()),
+					request.getBw(),
+					request.getTotalMips(),
+					vm.getSize());
+			state.addedVms.put(vm.getHandle(), allocation);
+		}
+		state.availableRam -= allocation.ram;
+		state.availableBw -= allocation.bw;
+		state.availableMips -= allocation.mips;
+		state.storage -= allocation.storage;
+		host.<Vm> getVmList().add(vm);
+		releaseIfUnchanged(host, state);
+		return true;
+	}
+
+	/**
+	 * Takes a VM off a host, giving back the resources it holds on the host.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 */
+	public void vmDestroy(Host host, Vm vm) {
+		if (vm == null || !host.getVmList().contains(vm)) {
+			return;
+		}
+
+		HostState state = getHostState(host);
+		Allocation allocation = state.addedVms.remove(vm.getHandle());
+		if (allocation == null) {
+			allocation = new Allocation(
+					host.getRamProvisioner().getAllocatedRamForVm(vm),
+					host.getBwProvisioner().getAllocatedBwForVm(vm),
+					host.getTotalAllocatedMipsForVm(vm),
+					vm.getSize());
+			state.removedVms.put(vm.getHandle(), allocation);
+		}
+		state.availableRam += allocation.ram;
+		state.availableBw += allocation.bw;
+		state.availableMips += allocation.mips;
+		state.storage += allocation.storage;
+		host.getVmList().remove(vm);
+		releaseIfUnchanged(host, state);
+	}
+
+	/**
+	 * Gets the hosts changed by the plan.
+	 *
+	 * @return a copy of the set of changed hosts
+	 */
+	public Set<Host> getChangedHosts() {
+		return new HashSet<Host>(hostStates.keySet());
+	}
+
+	/**
+	 * Undoes all the planned changes, giving the hosts their VM lists back.
+	 */
+	public void clear() {
+		for (Map.Entry<Host, HostState> entry : hostStates.entrySet()) {
+			List<Vm> vmList = entry.getKey().getVmList();
+			vmList.clear();
+			vmList.addAll(entry.getValue().vmList);
+		}
+		hostStates.clear();
+	}
+
+	/**
+	 * Gets the MIPS allocated to a VM on a host: the MIPS it requests if the plan placed it there.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the allocated mips
+	 */
+	public double getTotalAllocatedMipsForVm(Host host, Vm vm) {
+		HostState state = hostStates.get(host);
+		if (state != null) {
+			if (state.addedVms.containsKey(vm.getHandle())) {
+				return state.addedVms.get(vm.getHandle()).mips;
+			}
+			if (state.removedVms.containsKey(vm.getHandle())) {
+				return 0;
+			}
+		}
+		return host.getTotalAllocatedMipsForVm(vm);
+	}
+
+	/**
+	 * Gets the MIPS of a host that are not allocated.
+	 *
+	 * @param host the host
+	 * @return the available mips
+	 */
+	public double getAvailableMips(Host host) {
+		HostState state = hostStates.get(host);
+		return state != null ? state.availableMips : host.getVmScheduler().getAvailableMips();
+	}
+
+	/**
+	 * Gets the RAM of a host that is not allocated.
+	 *
+	 * @param host the host
+	 * @return the available ram
+	 */
+	public int getAvailableRam(Host host) {
+		HostState state = hostStates.get(host);
+		return state != null ? state.availableRam : host.getRamProvisioner().getAvailableRam();
+	}
+
+	/**
+	 * Gets the RAM of a host that is allocated.
+	 *
+	 * @param host the host
+	 * @return the used ram
+	 */
+	public int getUsedRam(Host host) {
+		return host.getRamProvisioner().getRam() - getAvailableRam(host);
+	}
+
+	/**
+	 * Gets the BW of a host that is not allocated.
+	 *
+	 * @param host the host
+	 * @return the available bw
+	 */
+	public long getAvailableBw(Host host) {
+		HostState state = hostStates.get(host);
+		return state != null ? state.availableBw : host.getBwProvisioner().getAvailableBw();
+	}
+
+	/**
+	 * Gets the free storage of a host.
+	 *
+	 * @param host the host
+	 * @return the storage
+	 */
+	public long getStorage(Host host) {
+		HostState state = hostStates.get(host);
+		return state != null ? state.storage : host.getStorage();
+	}
+
+	/**
+	 * Gets the RAM allocated to a VM on a host.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the allocated ram
+	 */
+	protected int getAllocatedRamForVm(Host host, Vm vm) {
+		HostState state = hostStates.get(host);
+		if (state != null) {
+			if (state.addedVms.containsKey(vm.getHandle())) {
+				return state.addedVms.get(vm.getHandle()).ram;
+			}
+			if (state.removedVms.containsKey(vm.getHandle())) {
+				return 0;
+			}
+		}
+		return host.getRamProvisioner().getAllocatedRamForVm(vm);
+	}
+
+	/**
+	 * Gets the BW allocated to a VM on a host.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the allocated bw
+	 */
+	protected long getAllocatedBwForVm(Host host, Vm vm) {
+		HostState state = hostStates.get(host);
+		if (state != null) {
+			if (state.addedVms.containsKey(vm.getHandle())) {
+				return state.addedVms.get(vm.getHandle()).bw;
+			}
+			if (state.removedVms.containsKey(vm.getHandle())) {
+				return 0;
+			}
+		}
+		return host.getBwProvisioner().getAllocatedBwForVm(vm);
+	}
+
+	/**
+	 * Gets the state of a host, copying it when the host is first changed.
+	 *
+	 * @param host the host
+	 * @return the state of the host
+	 */
+	private HostState getHostState(Host host) {
+		HostState state = hostStates.get(host);
+		if (state == null) {
+			state = new HostState(host);
+			hostStates.put(host, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Forgets the state of a host whose changes have all been undone, giving the host its VM list
+	 * back in the original order, so that its queries read the host again.
+	 *
+	 * @param host the host
+	 * @param state the state of the host
+	 */
+	private void releaseIfUnchanged(Host host, HostState state) {
+		if (state.addedVms.isEmpty() && state.removedVms.isEmpty()) {
+			List<Vm> vmList = host.getVmList();
+			vmList.clear();
+			vmList.addAll(state.vmList);
+			hostStates.remove(host);
+		}
+	}
+
+	/**
+	 * The resources currently requested by a VM, read from the VM once. The RAM provisioner never
+	 * gives a VM more RAM than it has, whatever it requests.
+	 */
+	public static class VmRequest {
+
+		/** The vm. */
+		private final Vm vm;
+
+		/** The requested max mips among all virtual PEs. */
+		private final double maxMips;
+
+		/** The requested total mips. */
+		private final double totalMips;
+
+		/** The requested ram. */
+		private final int ram;
+
+		/** The requested bw. */
+		private final long bw;
+
+		/**
+		 * Reads the resources currently requested by a VM.
+		 *
+		 * @param vm the vm
+		 */
+		public VmRequest(Vm vm) {
+			this.vm = vm;
+			maxMips = vm.getCurrentRequestedMaxMips();
+			totalMips = vm.getCurrentRequestedTotalMips();
+			ram = vm.getCurrentRequestedRam();
+			bw = vm.getCurrentRequestedBw();
+		}
+
+		/**
+		 * Gets the vm.
+		 *
+		 * @return the vm
+		 */
+		public Vm getVm() {
+			return vm;
+		}
+
+		/**
+		 * Gets the requested max mips among all virtual PEs.
+		 *
+		 * @return the requested max mips
+		 */
+		public double getMaxMips() {
+			return maxMips;
+		}
+
+		/**
+		 * Gets the requested total mips.
+		 *
+		 * @return the requested total mips
+		 */
+		public double getTotalMips() {
+			return totalMips;
+		}
+
+		/**
+		 * Gets the requested ram.
+		 *
+		 * @return the requested ram
+		 */
+		public int getRam() {
+			return ram;
+		}
+
+		/**
+		 * Gets the requested bw.
+		 *
+		 * @return the requested bw
+		 */
+		public long getBw() {
+			return bw;
+		}
+
+	}
+
+	/**
+	 * The resources held by a VM on a host.
+	 */
+	private static class Allocation {
+
+		/** The ram. */
+		private final int ram;
+
+		/** The bw. */
+		private final long bw;
+
+		/** The mips. */
+		private final double mips;
+
+		/** The storage. */
+		private final long storage;
+
+		/**
+		 * Instantiates a new allocation.
+		 *
+		 * @param ram the ram
+		 * @param bw the bw
+		 * @param mips the mips
+		 * @param storage the storage
+		 */
+		public Allocation(int ram, long bw, double mips, long storage) {
+			this.ram = ram;
+			this.bw = bw;
+			this.mips = mips;
+			this.storage = storage;
+		}
+
+	}
+
+	/**
+	 * The copy of a changed host.
+	 */
+	private static class HostState {
+
+		/** The vm list of the host before the changes. */
+		private final List<Vm> vmList;
+
+		/** The vms placed on the host, keyed by handle. */
+		private final IntObjectMap<Allocation> addedVms = new IntObjectMap<Allocation>();
+
+		/** The vms taken off the host, keyed by handle. */
+		private final IntObjectMap<Allocation> removedVms = new IntObjectMap<Allocation>();
+
+		/** The available ram. */
+		private int availableRam;
+
+		/** The available bw. */
+		private long availableBw;
+
+		/** The available mips. */
+		private double availableMips;
+
+		/** The storage. */
+		private long storage;
+
+		/**
+		 * Copies a host.
+		 *
+		 * @param host the host
+		 */
+		public HostState(Host host) {
+			vmList = new ArrayList<Vm>(host.<Vm> getVmList());
+			availableRam = host.getRamProvisioner().getAvailableRam();
+			availableBw = host.getBwProvisioner().getAvailableBw();
+			availableMips = host.getVmScheduler().getAvailableMips();
+			storage = host.getStorage();
+		}
+
+	}
+
+}
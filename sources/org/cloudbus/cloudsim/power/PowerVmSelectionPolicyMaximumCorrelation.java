@@ -12,6 +12,8 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.CholeskyDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.util.MathUtil;
 
@@ -32,6 +34,13 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPolicy {
 
+	/**
+	 * The greatest variance inflation factor for which the coefficients are read from the inverse
+	 * of the correlation matrix; beyond it, the utilization of a VM is so close to a linear
+	 * combination of the others that the regressions are fitted one by one.
+	 */
+	private static final double MAX_VARIANCE_INFLATION_FACTOR = 1e6;
+
 	/** The fallback policy. */
 	private PowerVmSelectionPolicy fallbackPolicy;
 
@@ -87,7 +96,7 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		double[][] utilization = new double[n][m];
 		for (int i = 0; i < n; i++) {
 			List<Double> vmUtilization = vmList.get(i).getUtilizationHistory();
-			for (int j = 0; j < vmUtilization.size(); j++) {
+			for (int j = 0; j < m; j++) {
 				utilization[i][j] = vmUtilization.get(j);
 			}
 		}
@@ -112,12 +121,101 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 	}
 
 	/**
-	 * 计算相关系数 Gets the correlation coefficients.
+	 * 计算相关系数 Gets the correlation coefficients: the R-squared of the regression of the
+	 * utilization of each VM on the utilization of the others. They are all read from one inverse
+	 * of the correlation matrix, as R-squared = 1 - 1 / (R^-1)_ii, unless the matrix is too close
+	 * to singular, or there are too few data, for the inverse to match the regressions. Two VMs
+	 * have the same coefficient, their squared correlation, so the choice between them is left to
+	 * the rounding of their regressions, as it always has been.
 	 * 
 	 * @param data the data
 	 * @return the correlation coefficients
 	 */
 	protected List<Double> getCorrelationCoefficients(final double[][] data) {
+		int n = data.length;
+		int m = data[0].length;
+		if (n > 2 && m > n) {
+			double[] correlationCoefficients = getMultipleCorrelationCoefficients(data);
+			if (correlationCoefficients != null) {
+				return MathUtil.arrayToList(correlationCoefficients);
+			}
+		}
+		return getRegressionCorrelationCoefficients(data);
+	}
+
+	/**
+	 * Gets the correlation coefficients from the inverse of the correlation matrix of the data.
+	 * 
+	 * @param data the data
+	 * @return the correlation coefficients, or null if the utilization of a VM is constant, or the
+	 *         correlation matrix is singular or nearly so
+	 */
+	protected double[] getMultipleCorrelationCoefficients(final double[][] data) {
+		int n = data.length;
+		int m = data[0].length;
+		double[][] centered = new double[n][m];
+		for (int i = 0; i < n; i++) {
+			double mean = 0;
+			boolean constant = true;
+			for (int k = 0; k < m; k++) {
+				mean += data[i][k];
+				constant &= data[i][k] == data[i][0];
+			}
+			if (constant) { // the utilization of the other VMs cannot be regressed on it
+				return null;
+			}
+			mean /= m;
+			for (int k = 0; k < m; k++) {
+				centered[i][k] = data[i][k] - mean;
+			}
+		}
+
+		double[][] covariance = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				double sum = 0;
+				for (int k = 0; k < m; k++) {
+					sum += centered[i][k] * centered[j][k];
+				}
+				covariance[i][j] = covariance[j][i] = sum;
+			}
+			if (covariance[i][i] <= 0) {
+				return null;
+			}
+		}
+		double[][] correlation = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				correlation[i][j] = i == j ? 1 : covariance[i][j]
+						/ Math.sqrt(covariance[i][i] * covariance[j][j]);
+			}
+		}
+
+		RealMatrix inverse;
+		try {
+			inverse = new CholeskyDecomposition(new Array2DRowRealMatrix(correlation, false))
+					.getSolver().getInverse();
+		} catch (IllegalArgumentException e) { // the correlation matrix is not positive definite
+			return null;
+		}
+		double[] correlationCoefficients = new double[n];
+		for (int i = 0; i < n; i++) {
+			double varianceInflationFactor = inverse.getEntry(i, i);
+			if (!(varianceInflationFactor > 0 && varianceInflationFactor <= MAX_VARIANCE_INFLATION_FACTOR)) {
+				return null;
+			}
+			correlationCoefficients[i] = 1 - 1 / varianceInflationFactor;
+		}
+		return correlationCoefficients;
+	}
+
+	/**
+	 * Gets the correlation coefficients by fitting the regression of each VM.
+	 * 
+	 * @param data the data
+	 * @return the correlation coefficients
+	 */
+	protected List<Double> getRegressionCorrelationCoefficients(final double[][] data) {
 		int n = data.length;
 		int m = data[0].length;
 		List<Double> correlationCoefficients = new LinkedList<Double>();
@@ -16,9 +16,9 @@ public class PowerModelMy extends PowerModel {
 		if (utilizationCpu == 0) {
 			return 0;
 		}
-		double temp =155.057327270508
-		+357.8550*utilizationCpu-401.0088*Math.pow(utilizationCpu, 2)+164.4327*Math.pow(utilizationCpu, 3)
-		-30.6192*utilizationMem+41.8946*Math.pow(utilizationMem,2)-19.8122*Math.pow(utilizationMem, 3);
+		double temp = 155.057327270508
+				+ utilizationCpu * (357.8550 + utilizationCpu * (-401.0088 + utilizationCpu * 164.4327))
+				+ utilizationMem * (-30.6192 + utilizationMem * (41.8946 + utilizationMem * -19.8122));
 		return temp;
 	}
 }
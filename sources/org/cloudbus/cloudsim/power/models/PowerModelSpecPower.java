@@ -25,6 +25,16 @@ package org.cloudbus.cloudsim.power.models;
  */
 public abstract class PowerModelSpecPower extends PowerModel {
 
+	/** The number of utilization steps between the power data. */
+	private static final int STEPS = 10;
+
+	/**
+	 * 功耗表 The power data, followed by the power increase per utilization percent after each of
+	 * them. The table is built on first use, as the power data are set by the subclasses after
+	 * this class is constructed.
+	 */
+	private volatile double[][] powerTable;
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.cloudbus.cloudsim.power.models.PowerModel#getPower(double)
@@ -34,16 +44,34 @@ public abstract class PowerModelSpecPower extends PowerModel {
 		if (utilization < 0 || utilization > 1) {
 			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
 		}
-		if (utilization % 0.1 == 0) {
-			return getPowerData((int) (utilization * 10));
+		double[][] table = getPowerTable();
+		double steps = utilization * STEPS;
+		int utilization1 = (int) steps;
+		if (steps == utilization1) {
+			return table[0][utilization1];
+		}
+		return table[0][utilization1] + table[1][utilization1]
+				* (utilization - (double) utilization1 / STEPS) * 100;
+	}
+
+	/**
+	 * Gets the power table, building it on first use.
+	 * 
+	 * @return the power data, and the power increase per utilization percent after each of them
+	 */
+	private double[][] getPowerTable() {
+		double[][] table = powerTable;
+		if (table == null) {
+			table = new double[2][STEPS + 1];
+			for (int i = 0; i <= STEPS; i++) {
+				table[0][i] = getPowerData(i);
+			}
+			for (int i = 0; i < STEPS; i++) {
+				table[1][i] = (table[0][i + 1] - table[0][i]) / 10;
+			}
+			powerTable = table;
 		}
-		int utilization1 = (int) Math.floor(utilization * 10);
-		int utilization2 = (int) Math.ceil(utilization * 10);
-		double power1 = getPowerData(utilization1);
-		double power2 = getPowerData(utilization2);
-		double delta = (power2 - power1) / 10;
-		double power = power1 + delta * (utilization - (double) utilization1 / 10) * 100;
-		return power;
+		return table;
 	}
 
 	/**
@@ -8,10 +8,8 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.IntLongMap;
 
 /**
  * BwProvisionerSimple is a class that implements a simple best effort allocation policy: if there
@@ -23,8 +21,8 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class BwProvisionerSimple extends BwProvisioner {
 
-	/** The bw table. */
-	private Map<String, Long> bwTable;
+	/** The bw table, keyed by VM handle. */
+	private IntLongMap bwTable;
 
 	/**
 	 * Instantiates a new bw provisioner simple.
@@ -33,7 +31,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	public BwProvisionerSimple(long bw) {
 		super(bw);
-		setBwTable(new HashMap<String, Long>());
+		setBwTable(new IntLongMap());
 	}
 
 	/*
@@ -46,7 +44,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 		if (getAvailableBw() >= bw) {
 			setAvailableBw(getAvailableBw() - bw);
-			getBwTable().put(vm.getUid(), bw);
+			getBwTable().put(vm.getHandle(), bw);
 			vm.setCurrentAllocatedBw(getAllocatedBwForVm(vm));
 			return true;
 		}
@@ -61,10 +59,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	@Override
 	public long getAllocatedBwForVm(Vm vm) {
-		if (getBwTable().containsKey(vm.getUid())) {
-			return getBwTable().get(vm.getUid());
-		}
-		return 0;
+		return getBwTable().get(vm.getHandle());
 	}
 
 	/*
@@ -73,8 +68,8 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	@Override
 	public void deallocateBwForVm(Vm vm) {
-		if (getBwTable().containsKey(vm.getUid())) {
-			long amountFreed = getBwTable().remove(vm.getUid());
+		if (getBwTable().containsKey(vm.getHandle())) {
+			long amountFreed = getBwTable().remove(vm.getHandle());
 			setAvailableBw(getAvailableBw() + amountFreed);
 			vm.setCurrentAllocatedBw(0);
 		}
@@ -112,7 +107,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 * 
 	 * @return the bw table
 	 */
-	protected Map<String, Long> getBwTable() {
+	protected IntLongMap getBwTable() {
 		return bwTable;
 	}
 
@@ -121,7 +116,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 * 
 	 * @param bwTable the bw table
 	 */
-	protected void setBwTable(Map<String, Long> bwTable) {
+	protected void setBwTable(IntLongMap bwTable) {
 		this.bwTable = bwTable;
 	}
 
@@ -58,7 +58,7 @@ public abstract class PeProvisioner {
 	/**
 	 * Allocates MIPS for a given VM.
 	 * 
-	 * @param vmUid the vm uid
+	 * @param vmHandle the vm handle, see {@link Vm#getHandle()}
 	 * @param mips the mips
 	 * 
 	 * @return $true if the MIPS could be allocated; $false otherwise
@@ -66,7 +66,28 @@ public abstract class PeProvisioner {
 	 * @pre $none
 	 * @post $none
 	 */
-	public abstract boolean allocateMipsForVm(String vmUid, double mips);
+	public abstract boolean allocateMipsForVm(int vmHandle, double mips);
+
+	/**
+	 * Allocates MIPS for a given VM.
+	 * 
+	 * @param vmUid the vm uid
+	 * @param mips the mips
+	 * 
+	 * @return $true if the MIPS could be allocated; $false otherwise, or if the provisioner does not
+	 *         keep allocations by uid
+	 * 
+	 * @pre $none
+	 * @post $none
+	 * @deprecated the allocations are keyed by VM handle; use {@link #allocateMipsForVm(int, double)}
+	 *             with {@link Vm#getHandle()}. A provisioner that still accepts uids keeps the
+	 *             allocations made by uid itself, as {@link PeProvisionerSimple} does; this one does
+	 *             not.
+	 */
+	@Deprecated
+	public boolean allocateMipsForVm(String vmUid, double mips) {
+		return false;
+	}
 
 	/**
 	 * Allocates MIPS for a given VM.
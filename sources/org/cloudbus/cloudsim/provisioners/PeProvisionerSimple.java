@@ -9,11 +9,13 @@
 package org.cloudbus.cloudsim.provisioners;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.IntObjectMap;
 
 /**
  * The Class PeProvisionerSimple.
@@ -33,8 +35,11 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class PeProvisionerSimple extends PeProvisioner {
 
-	/** 虚拟机ID和分配的处理能力的映射表 The pe table. */
-	private Map<String, List<Double>> peTable;
+	/** 虚拟机句柄和分配的处理能力的映射表 The pe table, keyed by VM handle. */
+	private IntObjectMap<double[]> peTable;
+
+	/** The MIPS allocated by VM uid, through the deprecated uid method, kept apart from the pe table. */
+	private final Map<String, double[]> uidTable = new HashMap<String, double[]>();
 
 	/**
 	 * Creates the PeProvisionerSimple object.
@@ -46,7 +51,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	public PeProvisionerSimple(double availableMips) {
 		super(availableMips);
-		setPeTable(new HashMap<String, ArrayList<Double>>());
+		setPeTable(new IntObjectMap<double[]>());
 	}
 
 	/*
@@ -55,40 +60,44 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public boolean allocateMipsForVm(Vm vm, double mips) {
-		return allocateMipsForVm(vm.getUid(), mips);
+		return allocateMipsForVm(vm.getHandle(), mips);
 	}
 
 	/*
 	 * (non-Javadoc)给虚拟机分配处理能力
-	 * @see cloudsim.provisioners.PeProvisioner#allocateMipsForVm(java.lang.String, double)
+	 * @see cloudsim.provisioners.PeProvisioner#allocateMipsForVm(int, double)
 	 */
 	@Override
-	public boolean allocateMipsForVm(String vmUid, double mips) {
+	public boolean allocateMipsForVm(int vmHandle, double mips) {
 		// 可用处理能力比请求需要的处理能力小，请求失败
 		if (getAvailableMips() < mips) {
 			return false;
 		}
 
-		//
-		List<Double> allocatedMips;
-
-		if (getPeTable().containsKey(vmUid)) {
-			//虚拟机已经分配过处理资源
-			allocatedMips = getPeTable().get(vmUid);
-		} else {
-			allocatedMips = new ArrayList<Double>();
-		}
-		//继续给虚拟机分配新的处理资源
-		allocatedMips.add(mips);
-
 		// 减少PE可用的处理器资源
 		setAvailableMips(getAvailableMips() - mips);
 		// 将此次分配的处理器资源添加到列表中
-		getPeTable().put(vmUid, allocatedMips);
+		getPeTable().put(vmHandle, append(getPeTable().get(vmHandle), mips));
 
 		return true;
 	}
 
+	/*
+	 * (non-Javadoc) The allocations made by uid are kept apart, by uid, and are added to the ones of
+	 * the VM with that uid when the VM is queried or deallocated.
+	 * @see cloudsim.provisioners.PeProvisioner#allocateMipsForVm(java.lang.String, double)
+	 */
+	@Override
+	@Deprecated
+	public boolean allocateMipsForVm(String vmUid, double mips) {
+		if (getAvailableMips() < mips) {
+			return false;
+		}
+		setAvailableMips(getAvailableMips() - mips);
+		uidTable.put(vmUid, append(uidTable.get(vmUid), mips));
+		return true;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.provisioners.PeProvisioner#allocateMipsForVM(cloudsim.power.VM,
@@ -106,8 +115,15 @@ public class PeProvisionerSimple extends PeProvisioner {
 		}
 
 		setAvailableMips(getAvailableMips() + getTotalAllocatedMipsForVm(vm) - totalMipsToAllocate);
+		if (!uidTable.isEmpty()) {
+			uidTable.remove(vm.getUid());
+		}
 
-		getPeTable().put(vm.getUid(), mips);
+		double[] allocatedMips = new double[mips.size()];
+		for (int i = 0; i < allocatedMips.length; i++) {
+			allocatedMips[i] = mips.get(i);
+		}
+		getPeTable().put(vm.getHandle(), allocatedMips);
 
 		return true;
 	}
@@ -120,6 +136,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	public void deallocateMipsForAllVms() {
 		super.deallocateMipsForAllVms();
 		getPeTable().clear();
+		uidTable.clear();
 	}
 
 	/*
@@ -130,11 +147,9 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public double getAllocatedMipsForVmByVirtualPeId(Vm vm, int peId) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			try {
-				return getPeTable().get(vm.getUid()).get(peId);
-			} catch (Exception e) {
-			}
+		double[] allocatedMips = getAllocatedMips(vm);
+		if (allocatedMips != null && peId >= 0 && peId < allocatedMips.length) {
+			return allocatedMips[peId];
 		}
 		return 0;
 	}
@@ -145,10 +160,15 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public List<Double> getAllocatedMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			return getPeTable().get(vm.getUid());
+		double[] allocatedMips = getAllocatedMips(vm);
+		if (allocatedMips == null) {
+			return null;
+		}
+		List<Double> mipsList = new ArrayList<Double>(allocatedMips.length);
+		for (double mips : allocatedMips) {
+			mipsList.add(mips);
 		}
-		return null;
+		return mipsList;
 	}
 
 	/*
@@ -157,9 +177,10 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public double getTotalAllocatedMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
+		double[] allocatedMips = getAllocatedMips(vm);
+		if (allocatedMips != null) {
 			double totalAllocatedMips = 0.0;
-			for (double mips : getPeTable().get(vm.getUid())) {
+			for (double mips : allocatedMips) {
 				totalAllocatedMips += mips;
 			}
 			return totalAllocatedMips;
@@ -173,12 +194,60 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public void deallocateMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			for (double mips : getPeTable().get(vm.getUid())) {
+		double[] allocatedMips = getPeTable().remove(vm.getHandle());
+		if (allocatedMips != null) {
+			for (double mips : allocatedMips) {
 				setAvailableMips(getAvailableMips() + mips);
 			}
-			getPeTable().remove(vm.getUid());
 		}
+		if (!uidTable.isEmpty()) {
+			allocatedMips = uidTable.remove(vm.getUid());
+			if (allocatedMips != null) {
+				for (double mips : allocatedMips) {
+					setAvailableMips(getAvailableMips() + mips);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the MIPS allocated to a VM, by handle and then by uid.
+	 * 
+	 * @param vm the vm
+	 * @return the allocated mips, or null if none
+	 */
+	private double[] getAllocatedMips(Vm vm) {
+		double[] allocatedMips = getPeTable().get(vm.getHandle());
+		if (uidTable.isEmpty()) {
+			return allocatedMips;
+		}
+		double[] uidMips = uidTable.get(vm.getUid());
+		if (uidMips == null) {
+			return allocatedMips;
+		}
+		if (allocatedMips == null) {
+			return uidMips;
+		}
+		double[] mips = Arrays.copyOf(allocatedMips, allocatedMips.length + uidMips.length);
+		System.arraycopy(uidMips, 0, mips, allocatedMips.length, uidMips.length);
+		return mips;
+	}
+
+	/**
+	 * Adds an allocation to the ones of a VM.
+	 * 
+	 * @param allocatedMips the allocations of the vm, or null if none
+	 * @param mips the mips
+	 * @return the allocations of the vm
+	 */
+	private static double[] append(double[] allocatedMips, double mips) {
+		if (allocatedMips == null) {
+			return new double[] { mips };
+		}
+		//虚拟机已经分配过处理资源，继续给虚拟机分配新的处理资源
+		double[] newMips = Arrays.copyOf(allocatedMips, allocatedMips.length + 1);
+		newMips[allocatedMips.length] = mips;
+		return newMips;
 	}
 
 	/**
@@ -186,7 +255,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 * 
 	 * @return the peTable
 	 */
-	protected Map<String, List<Double>> getPeTable() {
+	protected IntObjectMap<double[]> getPeTable() {
 		return peTable;
 	}
 
@@ -195,9 +264,8 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 * 
 	 * @param peTable the peTable to set
 	 */
-	@SuppressWarnings("unchecked")
-	protected void setPeTable(Map<String, ? extends List<Double>> peTable) {
-		this.peTable = (Map<String, List<Double>>) peTable;
+	protected void setPeTable(IntObjectMap<double[]> peTable) {
+		this.peTable = peTable;
 	}
 
 }
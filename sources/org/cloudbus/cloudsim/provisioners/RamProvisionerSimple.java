@@ -8,10 +8,8 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.IntLongMap;
 
 /**
  * 最大努力交付，只要有足够的内粗可以分配，就分配给虚拟机，并返回分配成功
@@ -24,8 +22,8 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class RamProvisionerSimple extends RamProvisioner {
 
-	/** The RAM table. */
-	private Map<String, Integer> ramTable;
+	/** The RAM table, keyed by VM handle. */
+	private IntLongMap ramTable;
 
 	/**
 	 * Instantiates a new ram provisioner simple.
@@ -34,7 +32,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	public RamProvisionerSimple(int availableRam) {
 		super(availableRam);
-		setRamTable(new HashMap<String, Integer>());
+		setRamTable(new IntLongMap());
 	}
 
 	/*
@@ -53,7 +51,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 		
 		if (getAvailableRam() >= ram) {	//存在足够的可用内存
 			setAvailableRam(getAvailableRam() - ram);
-			getRamTable().put(vm.getUid(), ram);
+			getRamTable().put(vm.getHandle(), ram);
 			//???内存刚分配好，插入到了ramTable中，现在又调用getAllocatedRamForVm是否没有必要呢？
 			vm.setCurrentAllocatedRam(getAllocatedRamForVm(vm));
 			return true;
@@ -70,10 +68,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	@Override
 	public int getAllocatedRamForVm(Vm vm) {
-		if (getRamTable().containsKey(vm.getUid())) {
-			return getRamTable().get(vm.getUid());
-		}
-		return 0;
+		return (int) getRamTable().get(vm.getHandle());
 	}
 
 	/*
@@ -83,8 +78,8 @@ public class RamProvisionerSimple extends RamProvisioner {
 	@Override
 	public void deallocateRamForVm(Vm vm) {
 		//首先判断此虚拟机是否已经分配了内存
-		if (getRamTable().containsKey(vm.getUid())) {
-			int amountFreed = getRamTable().remove(vm.getUid());
+		if (getRamTable().containsKey(vm.getHandle())) {
+			int amountFreed = (int) getRamTable().remove(vm.getHandle());
 			setAvailableRam(getAvailableRam() + amountFreed);
 			vm.setCurrentAllocatedRam(0);
 		}
@@ -120,7 +115,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 * 
 	 * @return the ram table
 	 */
-	protected Map<String, Integer> getRamTable() {
+	protected IntLongMap getRamTable() {
 		return ramTable;
 	}
 
@@ -129,7 +124,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 * 
 	 * @param ramTable the ram table
 	 */
-	protected void setRamTable(Map<String, Integer> ramTable) {
+	protected void setRamTable(IntLongMap ramTable) {
 		this.ramTable = ramTable;
 	}
 
@@ -0,0 +1,99 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * This class reads the container_meta and container_usage tables of the Alibaba cluster trace
+ * (cluster-trace-v2018), as specified in <a
+ * href="https://github.com/alibaba/clusterdata">https://github.com/alibaba/clusterdata</a>.
+ * <p>
+ * <b>NOTE:</b>
+ * <ul>
+ * <li>A task is a container. Its submit time is the time stamp of its first row in
+ * container_meta, and its end the time of its last usage sample, as the trace has no end events.
+ * <li>The CPU request is in hundredths of a core, and gives the number of PEs of the job.
+ * <li>The utilization of a sample is its cpu_util_percent, at most 100%.
+ * </ul>
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see ClusterTraceReader
+ */
+public class AlibabaClusterTraceReader extends ClusterTraceReader {
+
+	private static final int CONTAINER_ID = 0; // id of a container
+
+	private static final int TIME_STAMP = 2; // time of a row, in seconds
+
+	private static final int CPU_REQUEST = 5; // CPU request, 100 for one core
+
+	private static final int CPU_UTIL_PERCENT = 3; // CPU utilization of a usage sample
+
+	/**
+	 * Create a new AlibabaClusterTraceReader object.
+	 *
+	 * @param containerMetaFileName the container_meta table, plain or gz
+	 * @param containerUsageFileName the container_usage table, plain or gz
+	 * @param cacheFileName the columnar cache, built if missing or out of date
+	 * @param rating the resource's PE rating
+	 */
+	public AlibabaClusterTraceReader(
+			final String containerMetaFileName,
+			final String containerUsageFileName,
+			final String cacheFileName,
+			final int rating) {
+		super(containerMetaFileName, containerUsageFileName, cacheFileName, rating);
+	}
+
+	@Override
+	protected boolean parseTaskEvent(final String[] fields, final int fieldCount, final TraceRecord record) {
+		if (fieldCount <= TIME_STAMP || fields[TIME_STAMP].length() == 0) {
+			return false;
+		}
+		record.key = getKey(fields[CONTAINER_ID]);
+		record.time = Double.parseDouble(fields[TIME_STAMP]);
+		record.type = SUBMIT;
+		record.value = fieldCount > CPU_REQUEST && fields[CPU_REQUEST].length() > 0
+				? Double.parseDouble(fields[CPU_REQUEST])
+				: 0;
+		return true;
+	}
+
+	@Override
+	protected boolean parseTaskUsage(final String[] fields, final int fieldCount, final TraceRecord record) {
+		if (fieldCount <= CPU_UTIL_PERCENT || fields[CPU_UTIL_PERCENT].length() == 0) {
+			return false;
+		}
+		record.key = getKey(fields[CONTAINER_ID]);
+		record.time = Double.parseDouble(fields[TIME_STAMP]);
+		record.value = Double.parseDouble(fields[CPU_UTIL_PERCENT]);
+		return true;
+	}
+
+	@Override
+	protected double getUtilization(final double usage, final double request) {
+		return Math.min(1, usage / 100);
+	}
+
+	@Override
+	protected int getPes(final double request) {
+		return (int) Math.max(1, Math.ceil(request / 100));
+	}
+
+	/**
+	 * Gets the key of a container: the number of its id, such as 42 for "c_42".
+	 *
+	 * @param containerId the container id
+	 * @return the key
+	 * @throws NumberFormatException if the id does not end with a number
+	 */
+	private static long getKey(final String containerId) {
+		return Long.parseLong(containerId.substring(containerId.lastIndexOf('_') + 1));
+	}
+
+}
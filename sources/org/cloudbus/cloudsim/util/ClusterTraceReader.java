@@ -0,0 +1,867 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.UtilizationModelSampled;
+
+/**
+ * This class reads the tasks of a cluster trace, made of a table of task events and a table of
+ * task usage samples, and turns them into jobs whose cpu utilization follows the usage samples.
+ * The layout of the rows is given by the subclasses, see {@link GoogleClusterTraceReader} and
+ * {@link AlibabaClusterTraceReader}.
+ * <p>
+ * <b>NOTE:</b>
+ * <ul>
+ * <li>The tables are CSV files, plain or gz, and are read row by row, never loaded whole; rows
+ * with malformed numbers, such as a header row, are skipped. The
+ * task events are read once, keeping a few primitives per task; the usage table is read twice, a
+ * first time to count the samples of each task, and a second time to write each sample at the
+ * place of its task in the cache.
+ * <li>The cache is a binary file of columns: the submit time, duration, cpu request and number of
+ * samples of the tasks, in submit order, followed by the time and utilization of their samples,
+ * grouped by task. It is built the first time the workload is read, and built again only if the
+ * tables have changed since, so that re-runs do not parse the tables again.
+ * <li>The jobs are streamed lazily from the memory-mapped cache, in submit order, with
+ * {@link #streamWorkload()}, so that they can be fed to a broker through
+ * {@link org.cloudbus.cloudsim.DatacenterBroker#submitCloudletStream(Iterator, int)}. The arrival
+ * time of each job is its submit time, and its length is its duration times the PE rating.
+ * <li>Only the cpu usage of the tasks is read: the ram and bw utilization of a job follow the same
+ * samples as its cpu utilization.
+ * </ul>
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see WorkloadFileReader
+ */
+public abstract class ClusterTraceReader implements WorkloadModel {
+
+	/** The task event of a task submission. */
+	protected static final int SUBMIT = 0;
+
+	/** The task event of a task start. */
+	protected static final int START = 1;
+
+	/** The task event of a task end. */
+	protected static final int END = 2;
+
+	private static final int MAGIC = 0x43545243; // "CTRC"
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 56; // bytes before the columns
+
+	private static final int TASK_BYTES = 8 + 8 + 4 + 4; // submit, duration, request, samples
+
+	private static final int SAMPLE_BYTES = 4 + 4; // time, utilization
+
+	private static final long CHUNK_SIZE = 1 << 30; // bytes mapped at once
+
+	private final File taskEventFile; // the table of task events
+
+	private final File taskUsageFile; // the table of task usage samples
+
+	private final File cacheFile; // the columnar cache
+
+	private final int rating; // a PE rating
+
+	private List<Cloudlet> jobs = null; // the jobs loaded by generateWorkload()
+
+	/**
+	 * Create a new ClusterTraceReader object.
+	 *
+	 * @param taskEventFileName the table of task events
+	 * @param taskUsageFileName the table of task usage samples
+	 * @param cacheFileName the columnar cache, built if missing or out of date
+	 * @param rating the resource's PE rating
+	 * @throws IllegalArgumentException if a file name is <tt>null</tt> or the rating is not
+	 *             positive
+	 */
+	public ClusterTraceReader(
+			final String taskEventFileName,
+			final String taskUsageFileName,
+			final String cacheFileName,
+			final int rating) {
+		if (taskEventFileName == null || taskUsageFileName == null || cacheFileName == null) {
+			throw new IllegalArgumentException("The file names must not be null.");
+		}
+		if (rating <= 0) {
+			throw new IllegalArgumentException("Resource PE rating must be > 0.");
+		}
+		taskEventFile = new File(taskEventFileName);
+		taskUsageFile = new File(taskUsageFileName);
+		cacheFile = new File(cacheFileName);
+		this.rating = rating;
+	}
+
+	/**
+	 * Parses a row of the task event table.
+	 *
+	 * @param fields the fields of the row
+	 * @param fieldCount the number of fields
+	 * @param record the record to fill: the key of the task, the time of the event in seconds,
+	 *            its type ({@link #SUBMIT}, {@link #START} or {@link #END}) and, for a
+	 *            submission, the cpu request of the task, 0 if unknown
+	 * @return <code>true</code> if the row is a task event, <code>false</code> to skip it
+	 */
+	protected abstract boolean parseTaskEvent(String[] fields, int fieldCount, TraceRecord record);
+
+	/**
+	 * Parses a row of the task usage table.
+	 *
+	 * @param fields the fields of the row
+	 * @param fieldCount the number of fields
+	 * @param record the record to fill: the key of the task, the time of the sample in seconds and
+	 *            the cpu usage, in the unit of the cpu request
+	 * @return <code>true</code> if the row is a usage sample, <code>false</code> to skip it
+	 */
+	protected abstract boolean parseTaskUsage(String[] fields, int fieldCount, TraceRecord record);
+
+	/**
+	 * Converts a cpu usage to the utilization of a job.
+	 *
+	 * @param usage the cpu usage
+	 * @param request the cpu request of the task, 0 if unknown
+	 * @return the utilization, in [0, 1]
+	 */
+	protected abstract double getUtilization(double usage, double request);
+
+	/**
+	 * Gets the number of PEs of a job.
+	 *
+	 * @param request the cpu request of the task, 0 if unknown
+	 * @return the number of PEs
+	 */
+	protected int getPes(final double request) {
+		return 1;
+	}
+
+	/**
+	 * Reads all the jobs of the trace.
+	 *
+	 * @return the jobs, in submit order
+	 * @throws IllegalStateException if the trace or the cache could not be read
+	 */
+	@Override
+	public List<Cloudlet> generateWorkload() {
+		if (jobs == null) {
+			jobs = new ArrayList<Cloudlet>();
+			Iterator<Cloudlet> stream = streamWorkload();
+			while (stream.hasNext()) {
+				jobs.add(stream.next());
+			}
+		}
+		return jobs;
+	}
+
+	/**
+	 * Reads the jobs of the trace lazily from the cache, building the cache first if it is missing
+	 * or out of date.
+	 *
+	 * @return an iterator over the jobs, in submit order
+	 * @throws IllegalStateException if the trace or the cache could not be read
+	 */
+	public Iterator<Cloudlet> streamWorkload() {
+		try {
+			if (!isCacheValid()) {
+				buildCache();
+			}
+			return new JobIterator();
+		} catch (final IOException e) {
+			throw new IllegalStateException("Error reading cluster trace " + taskEventFile.getName(), e);
+		}
+	}
+
+	/**
+	 * Gets the cache file.
+	 *
+	 * @return the cache file
+	 */
+	public File getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * Checks whether the cache has been built from the tables as they are now.
+	 *
+	 * @return <code>true</code> if the cache can be read
+	 * @throws IOException if the cache could not be read
+	 */
+	private boolean isCacheValid() throws IOException {
+		if (!cacheFile.exists() || cacheFile.length() < HEADER_SIZE) {
+			return false;
+		}
+		RandomAccessFile input = new RandomAccessFile(cacheFile, "r");
+		try {
+			return input.readInt() == MAGIC
+					&& input.readInt() == VERSION
+					&& input.readLong() == taskEventFile.length()
+					&& input.readLong() == taskEventFile.lastModified()
+					&& input.readLong() == taskUsageFile.length()
+					&& input.readLong() == taskUsageFile.lastModified();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Builds the cache from the tables.
+	 *
+	 * @throws IOException if a table could not be read, or the cache written
+	 */
+	private void buildCache() throws IOException {
+		final TraceRecord record = new TraceRecord();
+
+		// the task events: a few primitives per task
+		final LongIntTable taskIndexes = new LongIntTable();
+		double[] submit = new double[1024];
+		double[] start = new double[1024];
+		double[] end = new double[1024];
+		float[] request = new float[1024];
+		int taskCount = 0;
+		RowReader rows = new RowReader(taskEventFile);
+		try {
+			while (rows.next()) {
+				if (!readTaskEvent(rows, record)) {
+					continue;
+				}
+				int task = taskIndexes.get(record.key);
+				if (task < 0) {
+					if (taskCount == submit.length) {
+						int capacity = taskCount * 2;
+						submit = Arrays.copyOf(submit, capacity);
+						start = Arrays.copyOf(start, capacity);
+						end = Arrays.copyOf(end, capacity);
+						request = Arrays.copyOf(request, capacity);
+					}
+					task = taskCount++;
+					taskIndexes.put(record.key, task);
+					submit[task] = Double.NaN;
+					start[task] = Double.NaN;
+					end[task] = Double.NaN;
+				}
+				if (record.type == SUBMIT) {
+					if (Double.isNaN(submit[task])) {
+						submit[task] = record.time;
+					}
+					if (record.value > 0) {
+						request[task] = (float) record.value;
+					}
+				} else if (record.type == START) {
+					if (Double.isNaN(start[task])) {
+						start[task] = record.time;
+					}
+				} else if (record.type == END) {
+					end[task] = record.time;
+				}
+			}
+		} finally {
+			rows.close();
+		}
+
+		// the tasks with a known time, in submit order
+		int[] order = new int[taskCount];
+		int orderCount = 0;
+		for (int task = 0; task < taskCount; task++) {
+			if (Double.isNaN(submit[task])) {
+				submit[task] = start[task];
+			}
+			if (!Double.isNaN(submit[task])) {
+				order[orderCount++] = task;
+			}
+		}
+		order = Arrays.copyOf(order, orderCount);
+		sortByKey(order, submit);
+		final int[] rank = new int[taskCount];
+		Arrays.fill(rank, -1);
+		for (int i = 0; i < orderCount; i++) {
+			rank[order[i]] = i;
+		}
+
+		// first pass over the usage: the number of samples and the last sample of each task
+		final int[] sampleCounts = new int[orderCount];
+		final float[] lastSampleTimes = new float[orderCount];
+		rows = new RowReader(taskUsageFile);
+		try {
+			while (rows.next()) {
+				if (readTaskUsage(rows, record)) {
+					int task = taskIndexes.get(record.key);
+					if (task >= 0 && rank[task] >= 0) {
+						int i = rank[task];
+						sampleCounts[i]++;
+						lastSampleTimes[i] = Math.max(lastSampleTimes[i], (float) record.time);
+					}
+				}
+			}
+		} finally {
+			rows.close();
+		}
+		final long[] sampleOffsets = new long[orderCount];
+		long sampleCount = 0;
+		for (int i = 0; i < orderCount; i++) {
+			sampleOffsets[i] = sampleCount;
+			sampleCount += sampleCounts[i];
+		}
+
+		// the header and the task columns
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(0); // the version is written last, once the cache is complete
+			output.writeLong(taskEventFile.length());
+			output.writeLong(taskEventFile.lastModified());
+			output.writeLong(taskUsageFile.length());
+			output.writeLong(taskUsageFile.lastModified());
+			output.writeInt(orderCount);
+			output.writeLong(sampleCount);
+			output.writeInt(0); // padding
+			for (int i = 0; i < orderCount; i++) {
+				output.writeDouble(submit[order[i]]);
+			}
+			for (int i = 0; i < orderCount; i++) {
+				int task = order[i];
+				double taskStart = Double.isNaN(start[task]) ? submit[task] : start[task];
+				double taskEnd = end[task];
+				if (Double.isNaN(taskEnd)) {
+					taskEnd = sampleCounts[i] > 0 ? lastSampleTimes[i] : taskStart;
+				}
+				output.writeDouble(Math.max(0, taskEnd - taskStart));
+			}
+			for (int i = 0; i < orderCount; i++) {
+				output.writeFloat(request[order[i]]);
+			}
+			for (int i = 0; i < orderCount; i++) {
+				output.writeInt(sampleCounts[i]);
+			}
+		} finally {
+			output.close();
+		}
+
+		// second pass over the usage: each sample at the place of its task
+		final long sampleStart = HEADER_SIZE + (long) orderCount * TASK_BYTES;
+		RandomAccessFile cache = new RandomAccessFile(cacheFile, "rw");
+		try {
+			cache.setLength(sampleStart + sampleCount * SAMPLE_BYTES);
+			MappedColumn times = new MappedColumn(cache.getChannel(), FileChannel.MapMode.READ_WRITE,
+					sampleStart, sampleCount * 4);
+			MappedColumn utilizations = new MappedColumn(cache.getChannel(), FileChannel.MapMode.READ_WRITE,
+					sampleStart + sampleCount * 4, sampleCount * 4);
+			rows = new RowReader(taskUsageFile);
+			try {
+				while (rows.next()) {
+					if (readTaskUsage(rows, record)) {
+						int task = taskIndexes.get(record.key);
+						if (task >= 0 && rank[task] >= 0) {
+							long sample = sampleOffsets[rank[task]]++;
+							times.putFloat(sample, (float) record.time);
+							utilizations.putFloat(sample, (float) getUtilization(record.value, request[task]));
+						}
+					}
+				}
+			} finally {
+				rows.close();
+			}
+			times.force();
+			utilizations.force();
+			cache.seek(4);
+			cache.writeInt(VERSION);
+		} finally {
+			cache.close();
+		}
+	}
+
+	/**
+	 * Parses a row of the task event table, skipping it if it is malformed.
+	 *
+	 * @param rows the reader of the table, on the row
+	 * @param record the record to fill
+	 * @return <code>true</code> if the row is a task event
+	 */
+	private boolean readTaskEvent(final RowReader rows, final TraceRecord record) {
+		try {
+			return parseTaskEvent(rows.fields, rows.fieldCount, record);
+		} catch (final NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Parses a row of the task usage table, skipping it if it is malformed.
+	 *
+	 * @param rows the reader of the table, on the row
+	 * @param record the record to fill
+	 * @return <code>true</code> if the row is a usage sample
+	 */
+	private boolean readTaskUsage(final RowReader rows, final TraceRecord record) {
+		try {
+			return parseTaskUsage(rows.fields, rows.fieldCount, record);
+		} catch (final NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Sorts indexes by their key, keeping the order of equal keys.
+	 *
+	 * @param indexes the indexes
+	 * @param keys the keys, by index
+	 */
+	private static void sortByKey(final int[] indexes, final double[] keys) {
+		int[] from = indexes;
+		int[] to = new int[indexes.length];
+		for (int width = 1; width < indexes.length; width *= 2) {
+			for (int low = 0; low < indexes.length; low += 2 * width) {
+				int middle = Math.min(low + width, indexes.length);
+				int high = Math.min(low + 2 * width, indexes.length);
+				int i = low;
+				int j = middle;
+				for (int k = low; k < high; k++) {
+					if (i < middle && (j >= high || keys[from[i]] <= keys[from[j]])) {
+						to[k] = from[i++];
+					} else {
+						to[k] = from[j++];
+					}
+				}
+			}
+			int[] swap = from;
+			from = to;
+			to = swap;
+		}
+		if (from != indexes) {
+			System.arraycopy(from, 0, indexes, 0, indexes.length);
+		}
+	}
+
+	/**
+	 * The fields of a row, parsed by the subclasses.
+	 */
+	protected static class TraceRecord {
+
+		/** The key of the task. */
+		public long key;
+
+		/** The time, in seconds. */
+		public double time;
+
+		/** The type of a task event. */
+		public int type;
+
+		/** The cpu request of a task event, or the cpu usage of a sample. */
+		public double value;
+
+	}
+
+	/**
+	 * Reads the rows of a CSV table, plain or gz, one at the time, into a reused array of fields.
+	 * Quoted fields are not supported, as the cluster traces have none.
+	 */
+	private static class RowReader {
+
+		/** The reader. */
+		private final BufferedReader reader;
+
+		/** The fields of the current row. */
+		private String[] fields = new String[32];
+
+		/** The number of fields of the current row. */
+		private int fieldCount;
+
+		/**
+		 * Opens a table.
+		 *
+		 * @param file the table
+		 * @throws IOException if the table could not be opened
+		 */
+		public RowReader(final File file) throws IOException {
+			if (file.getName().endsWith(".gz")) {
+				reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file))));
+			} else {
+				reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
+			}
+		}
+
+		/**
+		 * Reads the next row that is not blank.
+		 *
+		 * @return <code>true</code> if there is a row, <code>false</code> at the end of the table
+		 * @throws IOException if the table could not be read
+		 */
+		public boolean next() throws IOException {
+			String line;
+			do {
+				line = reader.readLine();
+				if (line == null) {
+					return false;
+				}
+			} while (line.trim().length() == 0);
+
+			fieldCount = 0;
+			int from = 0;
+			while (true) {
+				int to = line.indexOf(',', from);
+				if (fieldCount == fields.length) {
+					fields = Arrays.copyOf(fields, fieldCount * 2);
+				}
+				if (to < 0) {
+					fields[fieldCount++] = line.substring(from).trim();
+					return true;
+				}
+				fields[fieldCount++] = line.substring(from, to).trim();
+				from = to + 1;
+			}
+		}
+
+		/**
+		 * Closes the table.
+		 *
+		 * @throws IOException if the table could not be closed
+		 */
+		public void close() throws IOException {
+			reader.close();
+		}
+
+	}
+
+	/**
+	 * A column of 4 or 8 byte values of the cache, mapped in chunks so that it can hold more than
+	 * 2 GB. The chunks hold a whole number of values, so that no value spans two chunks.
+	 */
+	private static class MappedColumn {
+
+		/** The chunks. */
+		private final MappedByteBuffer[] chunks;
+
+		/**
+		 * Maps a column.
+		 *
+		 * @param channel the channel of the cache
+		 * @param mode the map mode
+		 * @param position the position of the column in the cache
+		 * @param size the size of the column, in bytes
+		 * @throws IOException if the column could not be mapped
+		 */
+		public MappedColumn(final FileChannel channel, final FileChannel.MapMode mode, final long position,
+				final long size) throws IOException {
+			chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+			for (int i = 0; i < chunks.length; i++) {
+				long offset = i * CHUNK_SIZE;
+				chunks[i] = channel.map(mode, position + offset, Math.min(CHUNK_SIZE, size - offset));
+			}
+		}
+
+		/**
+		 * Gets a float.
+		 *
+		 * @param index the index of the value
+		 * @return the value
+		 */
+		public float getFloat(final long index) {
+			long position = index * 4;
+			return chunks[(int) (position / CHUNK_SIZE)].getFloat((int) (position % CHUNK_SIZE));
+		}
+
+		/**
+		 * Gets an int.
+		 *
+		 * @param index the index of the value
+		 * @return the value
+		 */
+		public int getInt(final long index) {
+			long position = index * 4;
+			return chunks[(int) (position / CHUNK_SIZE)].getInt((int) (position % CHUNK_SIZE));
+		}
+
+		/**
+		 * Gets a double.
+		 *
+		 * @param index the index of the value
+		 * @return the value
+		 */
+		public double getDouble(final long index) {
+			long position = index * 8;
+			return chunks[(int) (position / CHUNK_SIZE)].getDouble((int) (position % CHUNK_SIZE));
+		}
+
+		/**
+		 * Puts a float.
+		 *
+		 * @param index the index of the value
+		 * @param value the value
+		 */
+		public void putFloat(final long index, final float value) {
+			long position = index * 4;
+			chunks[(int) (position / CHUNK_SIZE)].putFloat((int) (position % CHUNK_SIZE), value);
+		}
+
+		/**
+		 * Writes the changes to the file.
+		 */
+		public void force() {
+			for (MappedByteBuffer chunk : chunks) {
+				chunk.force();
+			}
+		}
+
+	}
+
+	/**
+	 * A hash table from a primitive long key to a primitive int value, with open addressing. A
+	 * missing key reads as -1.
+	 */
+	private static class LongIntTable {
+
+		/** The keys. */
+		private long[] keys = new long[1024];
+
+		/** The values. */
+		private int[] values = new int[1024];
+
+		/** Whether the slots are used. */
+		private boolean[] used = new boolean[1024];
+
+		/** The number of entries. */
+		private int size;
+
+		/**
+		 * Gets the value of a key.
+		 *
+		 * @param key the key
+		 * @return the value, or -1 if the key is missing
+		 */
+		public int get(final long key) {
+			int mask = keys.length - 1;
+			for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					return values[slot];
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Puts a key that is missing.
+		 *
+		 * @param key the key
+		 * @param value the value
+		 */
+		public void put(final long key, final int value) {
+			if (2 * (size + 1) > keys.length) {
+				rehash(keys.length * 2);
+			}
+			insert(key, value);
+			size++;
+		}
+
+		/**
+		 * Inserts a key in a free slot.
+		 *
+		 * @param key the key
+		 * @param value the value
+		 */
+		private void insert(final long key, final int value) {
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+			while (used[slot]) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			values[slot] = value;
+			used[slot] = true;
+		}
+
+		/**
+		 * Moves the entries to larger arrays.
+		 *
+		 * @param capacity the new capacity, a power of two
+		 */
+		private void rehash(final int capacity) {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			boolean[] oldUsed = used;
+			keys = new long[capacity];
+			values = new int[capacity];
+			used = new boolean[capacity];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldUsed[i]) {
+					insert(oldKeys[i], oldValues[i]);
+				}
+			}
+		}
+
+		/**
+		 * Mixes the bits of a key.
+		 *
+		 * @param key the key
+		 * @return the hash
+		 */
+		private static int hash(final long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+
+	}
+
+	/**
+	 * Lazily reads the jobs from the cache.
+	 */
+	private class JobIterator implements Iterator<Cloudlet> {
+
+		/** The number of tasks. */
+		private final int taskCount;
+
+		/** The submit time column. */
+		private final MappedColumn submits;
+
+		/** The duration column. */
+		private final MappedColumn durations;
+
+		/** The cpu request column. */
+		private final MappedColumn requests;
+
+		/** The sample count column. */
+		private final MappedColumn sampleCounts;
+
+		/** The sample time column. */
+		private final MappedColumn times;
+
+		/** The sample utilization column. */
+		private final MappedColumn utilizations;
+
+		/** The index of the next task. */
+		private int task = 0;
+
+		/** The index of the first sample of the next task. */
+		private long sample = 0;
+
+		/**
+		 * Maps the cache.
+		 *
+		 * @throws IOException if the cache could not be read
+		 */
+		public JobIterator() throws IOException {
+			RandomAccessFile cache = new RandomAccessFile(cacheFile, "r");
+			try {
+				cache.seek(40);
+				taskCount = cache.readInt();
+				long sampleCount = cache.readLong();
+				FileChannel channel = cache.getChannel();
+				long position = HEADER_SIZE;
+				submits = new MappedColumn(channel, FileChannel.MapMode.READ_ONLY, position, (long) taskCount * 8);
+				position += (long) taskCount * 8;
+				durations = new MappedColumn(channel, FileChannel.MapMode.READ_ONLY, position, (long) taskCount * 8);
+				position += (long) taskCount * 8;
+				requests = new MappedColumn(channel, FileChannel.MapMode.READ_ONLY, position, (long) taskCount * 4);
+				position += (long) taskCount * 4;
+				sampleCounts = new MappedColumn(channel, FileChannel.MapMode.READ_ONLY, position, (long) taskCount * 4);
+				long sampleStart = HEADER_SIZE + (long) taskCount * TASK_BYTES;
+				times = new MappedColumn(channel, FileChannel.MapMode.READ_ONLY, sampleStart, sampleCount * 4);
+				utilizations = new MappedColumn(channel, FileChannel.MapMode.READ_ONLY,
+						sampleStart + sampleCount * 4, sampleCount * 4);
+			} finally {
+				cache.close();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return task < taskCount;
+		}
+
+		@Override
+		public Cloudlet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			double submit = submits.getDouble(task);
+			double duration = durations.getDouble(task);
+			float request = requests.getFloat(task);
+			int samples = sampleCounts.getInt(task);
+
+			UtilizationModel utilizationModel;
+			if (samples == 0) {
+				utilizationModel = new UtilizationModelFull();
+			} else {
+				utilizationModel = readSamples(samples);
+			}
+			// the trace gives the cpu usage only, so the ram and bw follow the cpu samples
+			final Cloudlet job = new Cloudlet(
+					task,
+					Math.max(1, Math.round(duration * rating)),
+					getPes(request),
+					0,
+					0,
+					utilizationModel,
+					utilizationModel,
+					utilizationModel);
+			job.setArrivalTime(submit);
+			task++;
+			sample += samples;
+			return job;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Reads the samples of the next task, sorting them by time if they were not in order.
+		 *
+		 * @param samples the number of samples
+		 * @return the utilization model
+		 */
+		private UtilizationModel readSamples(final int samples) {
+			double[] sampleTimes = new double[samples];
+			double[] sampleUtilizations = new double[samples];
+			boolean sorted = true;
+			for (int i = 0; i < samples; i++) {
+				sampleTimes[i] = times.getFloat(sample + i);
+				sampleUtilizations[i] = utilizations.getFloat(sample + i);
+				sorted &= i == 0 || sampleTimes[i - 1] <= sampleTimes[i];
+			}
+			if (!sorted) {
+				int[] order = new int[samples];
+				for (int i = 0; i < samples; i++) {
+					order[i] = i;
+				}
+				sortByKey(order, sampleTimes);
+				double[] orderedTimes = new double[samples];
+				double[] orderedUtilizations = new double[samples];
+				for (int i = 0; i < samples; i++) {
+					orderedTimes[i] = sampleTimes[order[i]];
+					orderedUtilizations[i] = sampleUtilizations[order[i]];
+				}
+				sampleTimes = orderedTimes;
+				sampleUtilizations = orderedUtilizations;
+			}
+			return new UtilizationModelSampled(sampleTimes, sampleUtilizations);
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * This class reads the task_events and task_usage tables of the Google cluster-usage traces
+ * (version 2, 2011), as specified in <a
+ * href="https://github.com/google/cluster-data">https://github.com/google/cluster-data</a>.
+ * <p>
+ * <b>NOTE:</b>
+ * <ul>
+ * <li>A task is identified by its job ID and task index. Its submit time is the one of its first
+ * SUBMIT event, its start the one of its first SCHEDULE event, and its end the one of its last
+ * EVICT, FAIL, FINISH, KILL or LOST event.
+ * <li>Timestamps are turned from microseconds into seconds; they keep the offset of the trace, and
+ * events after the end of the trace are skipped.
+ * <li>The utilization of a sample is its mean CPU rate over the CPU request of the task, at most 1;
+ * both are normalized to the largest machine of the trace.
+ * </ul>
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see ClusterTraceReader
+ */
+public class GoogleClusterTraceReader extends ClusterTraceReader {
+
+	private static final int TIMESTAMP = 0; // time of an event, in microseconds
+
+	private static final int JOB_ID = 2; // job ID
+
+	private static final int TASK_INDEX = 3; // index of a task within its job
+
+	private static final int EVENT_TYPE = 5; // type of an event
+
+	private static final int CPU_REQUEST = 9; // CPU request of a task
+
+	private static final int USAGE_START = 0; // start of a usage sample, in microseconds
+
+	private static final int USAGE_JOB_ID = 2; // job ID of a usage sample
+
+	private static final int USAGE_TASK_INDEX = 3; // task index of a usage sample
+
+	private static final int CPU_RATE = 5; // mean CPU rate of a usage sample
+
+	private static final long TASKS_PER_JOB = 1000000L; // bound of the task indexes
+
+	/**
+	 * Create a new GoogleClusterTraceReader object.
+	 *
+	 * @param taskEventFileName the task_events table, plain or gz
+	 * @param taskUsageFileName the task_usage table, plain or gz
+	 * @param cacheFileName the columnar cache, built if missing or out of date
+	 * @param rating the resource's PE rating
+	 */
+	public GoogleClusterTraceReader(
+			final String taskEventFileName,
+			final String taskUsageFileName,
+			final String cacheFileName,
+			final int rating) {
+		super(taskEventFileName, taskUsageFileName, cacheFileName, rating);
+	}
+
+	@Override
+	protected boolean parseTaskEvent(final String[] fields, final int fieldCount, final TraceRecord record) {
+		if (fieldCount <= EVENT_TYPE || fields[TIMESTAMP].length() == 0 || fields[EVENT_TYPE].length() == 0) {
+			return false;
+		}
+		long timestamp = Long.parseLong(fields[TIMESTAMP]);
+		if (timestamp == Long.MAX_VALUE) {
+			return false;
+		}
+		switch (Integer.parseInt(fields[EVENT_TYPE])) {
+			case 0: // SUBMIT
+				record.type = SUBMIT;
+				break;
+			case 1: // SCHEDULE
+				record.type = START;
+				break;
+			case 2: // EVICT
+			case 3: // FAIL
+			case 4: // FINISH
+			case 5: // KILL
+			case 6: // LOST
+				record.type = END;
+				break;
+			default: // UPDATE_PENDING, UPDATE_RUNNING
+				return false;
+		}
+		record.key = getKey(fields[JOB_ID], fields[TASK_INDEX]);
+		record.time = timestamp / 1000000.0;
+		record.value = fieldCount > CPU_REQUEST && fields[CPU_REQUEST].length() > 0
+				? Double.parseDouble(fields[CPU_REQUEST])
+				: 0;
+		return true;
+	}
+
+	@Override
+	protected boolean parseTaskUsage(final String[] fields, final int fieldCount, final TraceRecord record) {
+		if (fieldCount <= CPU_RATE || fields[CPU_RATE].length() == 0) {
+			return false;
+		}
+		record.key = getKey(fields[USAGE_JOB_ID], fields[USAGE_TASK_INDEX]);
+		record.time = Long.parseLong(fields[USAGE_START]) / 1000000.0;
+		record.value = Double.parseDouble(fields[CPU_RATE]);
+		return true;
+	}
+
+	@Override
+	protected double getUtilization(final double usage, final double request) {
+		return Math.min(1, request > 0 ? usage / request : usage);
+	}
+
+	/**
+	 * Gets the key of a task.
+	 *
+	 * @param jobId the job ID
+	 * @param taskIndex the task index
+	 * @return the key
+	 */
+	private static long getKey(final String jobId, final String taskIndex) {
+		return Long.parseLong(jobId) * TASKS_PER_JOB + Long.parseLong(taskIndex);
+	}
+
+}
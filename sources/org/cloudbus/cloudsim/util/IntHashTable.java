@@ -0,0 +1,277 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * The base of the hash maps keyed by a primitive int. The keys are stored with open addressing and
+ * linear probing; each subclass keeps its values in an array parallel to the keys, so that neither
+ * the keys nor the values are boxed.
+ * <p>
+ * The entries are visited by slot:
+ *
+ * <pre>
+ * for (int slot = map.nextSlot(-1); slot &gt;= 0; slot = map.nextSlot(slot)) {
+ * 	int key = map.keyAt(slot);
+ * 	...
+ * }
+ * </pre>
+ *
+ * The map must not be modified while it is visited.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class IntHashTable {
+
+	/** The minimum number of slots. */
+	private static final int MIN_CAPACITY = 8;
+
+	/** The keys. */
+	private int[] keys;
+
+	/** Whether each slot holds an entry. */
+	private boolean[] used;
+
+	/** The number of entries. */
+	private int size;
+
+	/** The number of entries above which the table grows. */
+	private int threshold;
+
+	/**
+	 * Instantiates a new table.
+	 *
+	 * @param expectedSize the expected number of entries
+	 */
+	protected IntHashTable(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 / 4 < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the map is empty.
+	 *
+	 * @return true, if the map is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Checks if the map holds a key.
+	 *
+	 * @param key the key
+	 * @return true, if the map holds the key
+	 */
+	public boolean containsKey(int key) {
+		return slotOf(key) >= 0;
+	}
+
+	/**
+	 * Removes all the entries.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(used, false);
+			clearValues();
+			size = 0;
+		}
+	}
+
+	/**
+	 * Gets the next slot holding an entry.
+	 *
+	 * @param slot the current slot, or -1 to get the first one
+	 * @return the next slot, or -1 if there is none
+	 */
+	public int nextSlot(int slot) {
+		for (int i = slot + 1; i < used.length; i++) {
+			if (used[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the key of a slot.
+	 *
+	 * @param slot the slot, as returned by {@link #nextSlot(int)}
+	 * @return the key
+	 */
+	public int keyAt(int slot) {
+		return keys[slot];
+	}
+
+	/**
+	 * Gets the slot of a key.
+	 *
+	 * @param key the key
+	 * @return the slot, or -1 if the map does not hold the key
+	 */
+	protected int slotOf(int key) {
+		int mask = used.length - 1;
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the slot of a key, adding the key if the map does not hold it. The value of an added
+	 * key has to be set by the caller.
+	 *
+	 * @param key the key
+	 * @return the slot
+	 */
+	protected int insertSlot(int key) {
+		int slot = slotOf(key);
+		if (slot >= 0) {
+			return slot;
+		}
+		if (size >= threshold) {
+			rehash(used.length << 1);
+		}
+		int mask = used.length - 1;
+		slot = hash(key) & mask;
+		while (used[slot]) {
+			slot = (slot + 1) & mask;
+		}
+		used[slot] = true;
+		keys[slot] = key;
+		size++;
+		return slot;
+	}
+
+	/**
+	 * Removes the entry of a slot. The following entries of the same probe sequence are shifted
+	 * back, so that no deleted markers are left behind.
+	 *
+	 * @param slot the slot
+	 */
+	protected void removeSlot(int slot) {
+		int mask = used.length - 1;
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		while (used[next]) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				moveValue(next, hole);
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		used[hole] = false;
+		clearValue(hole);
+		size--;
+	}
+
+	/**
+	 * Allocates the value array, returning the previous one.
+	 *
+	 * @param capacity the number of slots
+	 * @return the previous value array, or null
+	 */
+	protected abstract Object allocateValues(int capacity);
+
+	/**
+	 * Copies a value from the previous value array after the table has grown.
+	 *
+	 * @param oldValues the previous value array
+	 * @param oldSlot the slot in the previous array
+	 * @param newSlot the slot in the current array
+	 */
+	protected abstract void transferValue(Object oldValues, int oldSlot, int newSlot);
+
+	/**
+	 * Moves a value between two slots.
+	 *
+	 * @param from the source slot
+	 * @param to the destination slot
+	 */
+	protected abstract void moveValue(int from, int to);
+
+	/**
+	 * Clears the value of a free slot.
+	 *
+	 * @param slot the slot
+	 */
+	protected abstract void clearValue(int slot);
+
+	/**
+	 * Clears all the values.
+	 */
+	protected abstract void clearValues();
+
+	/**
+	 * Allocates the slots.
+	 *
+	 * @param capacity the number of slots, a power of two
+	 * @return the previous value array, or null
+	 */
+	private Object allocate(int capacity) {
+		keys = new int[capacity];
+		used = new boolean[capacity];
+		threshold = capacity * 3 / 4;
+		return allocateValues(capacity);
+	}
+
+	/**
+	 * Grows the table.
+	 *
+	 * @param capacity the new number of slots
+	 */
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		boolean[] oldUsed = used;
+		Object oldValues = allocate(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldUsed.length; i++) {
+			if (oldUsed[i]) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (used[slot]) {
+					slot = (slot + 1) & mask;
+				}
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				transferValue(oldValues, i, slot);
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of a key, as consecutive keys are common.
+	 *
+	 * @param key the key
+	 * @return the hash
+	 */
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from a primitive int to a primitive long, with no boxing on any operation. A missing
+ * key reads as 0.
+ * 
+ * @since CloudSim Toolkit 3.0
+ */
+public class IntLongMap extends IntHashTable {
+
+	/** The values. */
+	private long[] values;
+
+	/**
+	 * Instantiates a new empty map.
+	 */
+	public IntLongMap() {
+		this(0);
+	}
+
+	/**
+	 * Instantiates a new empty map.
+	 * 
+	 * @param expectedSize the expected number of entries
+	 */
+	public IntLongMap(int expectedSize) {
+		super(expectedSize);
+	}
+
+	/**
+	 * Gets the value of a key.
+	 * 
+	 * @param key the key
+	 * @return the value, or 0 if the map does not hold the key
+	 */
+	public long get(int key) {
+		int slot = slotOf(key);
+		return slot >= 0 ? values[slot] : 0;
+	}
+
+	/**
+	 * Sets the value of a key.
+	 * 
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put(int key, long value) {
+		int slot = insertSlot(key); // may grow the table
+		values[slot] = value;
+	}
+
+	/**
+	 * Removes a key.
+	 * 
+	 * @param key the key
+	 * @return the removed value, or 0 if the map did not hold the key
+	 */
+	public long remove(int key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			return 0;
+		}
+		long value = values[slot];
+		removeSlot(slot);
+		return value;
+	}
+
+	/**
+	 * Gets the value of a slot.
+	 * 
+	 * @param slot the slot, as returned by {@link #nextSlot(int)}
+	 * @return the value
+	 */
+	public long valueAt(int slot) {
+		return values[slot];
+	}
+
+	@Override
+	protected Object allocateValues(int capacity) {
+		long[] oldValues = values;
+		values = new long[capacity];
+		return oldValues;
+	}
+
+	@Override
+	protected void transferValue(Object oldValues, int oldSlot, int newSlot) {
+		values[newSlot] = ((long[]) oldValues)[oldSlot];
+	}
+
+	@Override
+	protected void moveValue(int from, int to) {
+		values[to] = values[from];
+	}
+
+	@Override
+	protected void clearValue(int slot) {
+		values[slot] = 0;
+	}
+
+	@Override
+	protected void clearValues() {
+		Arrays.fill(values, 0);
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from a primitive int to an object, with no boxing of the keys. A missing key reads as
+ * null.
+ *
+ * @param <V> the type of the values
+ * @since CloudSim Toolkit 3.0
+ */
+public class IntObjectMap<V> extends IntHashTable {
+
+	/** The values. */
+	private Object[] values;
+
+	/**
+	 * Instantiates a new empty map.
+	 */
+	public IntObjectMap() {
+		this(0);
+	}
+
+	/**
+	 * Instantiates a new empty map.
+	 *
+	 * @param expectedSize the expected number of entries
+	 */
+	public IntObjectMap(int expectedSize) {
+		super(expectedSize);
+	}
+
+	/**
+	 * Gets the value of a key.
+	 *
+	 * @param key the key
+	 * @return the value, or null if the map does not hold the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int slot = slotOf(key);
+		return slot >= 0 ? (V) values[slot] : null;
+	}
+
+	/**
+	 * Sets the value of a key.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 * @return the previous value, or null if the map did not hold the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		int slot = insertSlot(key);
+		V oldValue = (V) values[slot];
+		values[slot] = value;
+		return oldValue;
+	}
+
+	/**
+	 * Removes a key.
+	 *
+	 * @param key the key
+	 * @return the removed value, or null if the map did not hold the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			return null;
+		}
+		V value = (V) values[slot];
+		removeSlot(slot);
+		return value;
+	}
+
+	/**
+	 * Gets the value of a slot.
+	 *
+	 * @param slot the slot, as returned by {@link #nextSlot(int)}
+	 * @return the value
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int slot) {
+		return (V) values[slot];
+	}
+
+	@Override
+	protected Object allocateValues(int capacity) {
+		Object[] oldValues = values;
+		values = new Object[capacity];
+		return oldValues;
+	}
+
+	@Override
+	protected void transferValue(Object oldValues, int oldSlot, int newSlot) {
+		values[newSlot] = ((Object[]) oldValues)[oldSlot];
+	}
+
+	@Override
+	protected void moveValue(int from, int to) {
+		values[to] = values[from];
+	}
+
+	@Override
+	protected void clearValue(int slot) {
+		values[slot] = null;
+	}
+
+	@Override
+	protected void clearValues() {
+		Arrays.fill(values, null);
+	}
+
+}
@@ -8,8 +8,10 @@
 
 package org.cloudbus.cloudsim.util;
 
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
@@ -51,6 +53,17 @@ public class MathUtil {
 		return array;
 	}
 
+	/**
+	 * Array to list. The list is a read-only view of the array, so changes to the array are seen
+	 * through the list and nothing is copied.
+	 * 
+	 * @param array the array
+	 * @return the list
+	 */
+	public static List<Double> arrayToList(final double[] array) {
+		return new DoubleArrayList(array);
+	}
+
 	/**
 	 * Gets the median.
 	 * 
@@ -161,16 +174,111 @@ public class MathUtil {
 	 * @return the mad
 	 */
 	public static double mad(final double[] data) {
-		double mad = 0;
-		if (data.length > 0) {
-			double median = median(data);//中位数
-			double[] deviationSum = new double[data.length];	//记录所有数的中位数离差
-			for (int i = 0; i < data.length; i++) {
-				deviationSum[i] = Math.abs(median - data[i]);
+		double[] sorted = Arrays.copyOf(data, data.length);
+		Arrays.sort(sorted);
+		return madOfSorted(sorted, sorted.length);
+	}
+
+	/**
+	 * 计算有序数据的中位数绝对离差 Gets the mad of sorted data, without copying or sorting them: the
+	 * absolute deviations from the median grow from the median outwards on both sides, so their
+	 * median is found by merging the two sides.
+	 * 
+	 * @param sorted the sorted data
+	 * @param n the number of data
+	 * @return the mad
+	 */
+	public static double madOfSorted(final double[] sorted, final int n) {
+		if (n == 0) {
+			return 0;
+		}
+		double median = percentileOfSorted(sorted, n, 50);
+		int right = 0;
+		while (right < n && sorted[right] < median) {
+			right++;
+		}
+		int left = right - 1;
+
+		double pos = getPercentilePosition(n, 50);
+		int upperRank = getPercentileUpperRank(n, pos);
+		double lower = 0;
+		double upper = 0;
+		for (int rank = 0; rank <= upperRank; rank++) {
+			if (right >= n || left >= 0 && median - sorted[left] <= sorted[right] - median) {
+				upper = median - sorted[left--];
+			} else {
+				upper = sorted[right++] - median;
 			}
-			mad = median(deviationSum);//返回中位数离差的中位数
+			if (rank == upperRank - 1) {
+				lower = upper;
+			}
+		}
+		return estimatePercentile(n, pos, lower, upper);
+	}
+
+	/**
+	 * 计算有序数据的百分位数 Gets a percentile of sorted data, estimated as
+	 * {@link DescriptiveStatistics#getPercentile(double)} estimates it.
+	 * 
+	 * @param sorted the sorted data
+	 * @param n the number of data
+	 * @param p the percentile, in (0, 100]
+	 * @return the percentile, or NaN if there are no data
+	 */
+	public static double percentileOfSorted(final double[] sorted, final int n, final double p) {
+		if (n == 0) {
+			return Double.NaN;
 		}
-		return mad;
+		double pos = getPercentilePosition(n, p);
+		int upperRank = getPercentileUpperRank(n, pos);
+		double lower = upperRank > 0 ? sorted[upperRank - 1] : 0;
+		return estimatePercentile(n, pos, lower, sorted[upperRank]);
+	}
+
+	/**
+	 * Gets the position of a percentile among n data, counted from 1.
+	 * 
+	 * @param n the number of data
+	 * @param p the percentile
+	 * @return the position
+	 */
+	private static double getPercentilePosition(final int n, final double p) {
+		double length = n;
+		return p * (length + 1) / 100;
+	}
+
+	/**
+	 * Gets the rank, counted from 0, of the greatest of the data a percentile is estimated from.
+	 * 
+	 * @param n the number of data
+	 * @param pos the position of the percentile
+	 * @return the rank
+	 */
+	private static int getPercentileUpperRank(final int n, final double pos) {
+		if (pos < 1) {
+			return 0;
+		}
+		if (pos >= n) {
+			return n - 1;
+		}
+		return (int) Math.floor(pos);
+	}
+
+	/**
+	 * Estimates a percentile by interpolating between the data at both sides of its position.
+	 * 
+	 * @param n the number of data
+	 * @param pos the position of the percentile
+	 * @param lower the greatest datum below the position
+	 * @param upper the least datum above the position
+	 * @return the percentile
+	 */
+	private static double estimatePercentile(final int n, final double pos, final double lower,
+			final double upper) {
+		if (n == 1 || pos < 1 || pos >= n) {
+			return upper;
+		}
+		return lower + (pos - Math.floor(pos)) * (upper - lower);
 	}
 
 	/**
@@ -181,9 +289,20 @@ public class MathUtil {
 	 */
 	public static double iqr(final double[] data) {
 		Arrays.sort(data);
-		int q1 = (int) Math.round(0.25 * (data.length + 1)) - 1;
-		int q3 = (int) Math.round(0.75 * (data.length + 1)) - 1;
-		return data[q3] - data[q1];
+		return iqrOfSorted(data, data.length);
+	}
+
+	/**
+	 * Gets the IQR of sorted data.
+	 * 
+	 * @param sorted the sorted data
+	 * @param n the number of data
+	 * @return the IQR
+	 */
+	public static double iqrOfSorted(final double[] sorted, final int n) {
+		int q1 = (int) Math.round(0.25 * (n + 1)) - 1;
+		int q3 = (int) Math.round(0.75 * (n + 1)) - 1;
+		return sorted[q3] - sorted[q1];
 	}
 
 	/**
@@ -376,4 +495,33 @@ public class MathUtil {
 		return result;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * A read-only list view of a double array.
+	 */
+	private static class DoubleArrayList extends AbstractList<Double> implements RandomAccess {
+
+		/** The array. */
+		private final double[] array;
+
+		/**
+		 * Instantiates a new view.
+		 * 
+		 * @param array the array
+		 */
+		public DoubleArrayList(final double[] array) {
+			this.array = array;
+		}
+
+		@Override
+		public Double get(final int index) {
+			return array[index];
+		}
+
+		@Override
+		public int size() {
+			return array.length;
+		}
+
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * A segment tree over an array of ints, keeping the maximum of every range. It finds the first
+ * element holding the maximum, or the first element at least equal to a value, in O(log n), and
+ * updates an element in O(log n).
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class MaxSegmentTree {
+
+	/** The number of elements. */
+	private final int size;
+
+	/** The number of leaves, a power of two. */
+	private final int leaves;
+
+	/** The maximum of each node; the leaves start at index {@link #leaves}. */
+	private final int[] max;
+
+	/**
+	 * Instantiates a new tree.
+	 *
+	 * @param values the initial values of the elements
+	 */
+	public MaxSegmentTree(int[] values) {
+		size = values.length;
+		int n = 1;
+		while (n < size) {
+			n <<= 1;
+		}
+		leaves = n;
+		max = new int[2 * n];
+		Arrays.fill(max, Integer.MIN_VALUE);
+		System.arraycopy(values, 0, max, n, size);
+		for (int node = n - 1; node > 0; node--) {
+			max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Gets the number of elements.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the value of an element.
+	 *
+	 * @param index the index of the element
+	 * @return the value
+	 */
+	public int get(int index) {
+		return max[leaves + index];
+	}
+
+	/**
+	 * Sets the value of an element.
+	 *
+	 * @param index the index of the element
+	 * @param value the value
+	 */
+	public void set(int index, int value) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int node = leaves + index;
+		max[node] = value;
+		for (node >>= 1; node > 0; node >>= 1) {
+			int newMax = Math.max(max[2 * node], max[2 * node + 1]);
+			if (max[node] == newMax) {
+				break;
+			}
+			max[node] = newMax;
+		}
+	}
+
+	/**
+	 * Gets the maximum value.
+	 *
+	 * @return the maximum value, or Integer.MIN_VALUE if the tree is empty
+	 */
+	public int max() {
+		return size == 0 ? Integer.MIN_VALUE : max[1];
+	}
+
+	/**
+	 * Gets the first element holding the maximum value.
+	 *
+	 * @return the index of the element, or -1 if the tree is empty
+	 */
+	public int indexOfMax() {
+		if (size == 0) {
+			return -1;
+		}
+		return firstAtLeast(max[1]);
+	}
+
+	/**
+	 * Gets the first element whose value is at least a given one.
+	 *
+	 * @param value the value
+	 * @return the index of the element, or -1 if there is none
+	 */
+	public int firstAtLeast(int value) {
+		if (size == 0 || max[1] < value) {
+			return -1;
+		}
+		int node = 1;
+		while (node < leaves) {
+			node <<= 1;
+			if (max[node] < value) {
+				node++;
+			}
+		}
+		return node - leaves;
+	}
+
+}
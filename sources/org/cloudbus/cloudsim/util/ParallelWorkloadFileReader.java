@@ -0,0 +1,999 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+
+/**
+ * This class reads the same traces as {@link WorkloadFileReader}, but is meant for large archive
+ * traces of hundreds of MB.
+ * <p>
+ * <b>NOTE:</b>
+ * <ul>
+ * <li>The trace is split in blocks ending on line boundaries, and the blocks are parsed in parallel
+ * by a pool of threads. Plain text files are memory-mapped; gz and zip files are decompressed by a
+ * dedicated thread, pipelined with the parsing.
+ * <li>The fields are parsed straight from the bytes of the trace, without creating a String per
+ * line or per field. Parsed jobs are kept as primitive columns until they are turned into
+ * Cloudlets.
+ * <li>The jobs can be loaded at once with {@link #generateWorkload()} or {@link #readWorkload()},
+ * or streamed lazily with {@link #streamWorkload()}. The arrival time of each job is set from its
+ * submit time.
+ * <li>Lines that are neither comments nor blank, but do not hold the expected number of integer
+ * fields, are skipped and counted; see {@link #getMalformedLineCount()}. As in
+ * {@link WorkloadFileReader}, a line whose fields have a fractional part, or do not fit an
+ * <tt>int</tt>, is malformed. I/O errors are never hidden.
+ * <li>The parsing threads are stopped once the trace is read, or when it fails to be read. A
+ * consumer that stops streaming the jobs before the end of the trace must {@link #close()} the
+ * reader.
+ * </ul>
+ * <p>
+ * By default, this class follows the standard workload format (SWF) as specified in <a
+ * href="http://www.cs.huji.ac.il/labs/parallel/workload/">
+ * http://www.cs.huji.ac.il/labs/parallel/workload/</a>. Traces in the grid workloads format (GWF)
+ * of <a href="http://gwa.ewi.tudelft.nl/">http://gwa.ewi.tudelft.nl/</a> can be read by calling
+ * <tt>setComment("#")</tt> and <tt>setField(29, 1, 2, 4, 5)</tt>.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see WorkloadFileReader
+ */
+public class ParallelWorkloadFileReader implements WorkloadModel, Closeable {
+
+	/** The nominal size of a block of the trace parsed by one task (in bytes). */
+	private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+	/** The number of blocks being parsed or waiting to be consumed, per thread. */
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	/** Marks the end of the decompressed blocks. */
+	private static final ByteBuffer END_OF_BLOCKS = ByteBuffer.allocate(0);
+
+	/** Denotes a field that is not a valid number. */
+	private static final long INVALID = Long.MIN_VALUE;
+
+	private static final int IRRELEVANT = -1; // irrelevant number
+
+	private final File file; // file name
+
+	private final int rating; // a PE rating
+
+	private int threads; // number of parsing threads
+
+	private List<Cloudlet> jobs = null; // the jobs loaded by generateWorkload()
+
+	private long malformedLineCount; // malformed lines found by the last read
+
+	// the reads of the trace still in progress
+	private final List<ParsedBlockIterator> openReads = new ArrayList<ParsedBlockIterator>();
+
+	private final WorkloadFormat format = new WorkloadFormat(); // the layout of the trace lines
+
+	/**
+	 * Create a new {@link ParallelWorkloadFileReader} object, parsing with as many threads as
+	 * available processors.
+	 *
+	 * @param fileName the workload trace filename in one of the following format: <i>ASCII text,
+	 *        zip, gz.</i>
+	 * @param rating the resource's PE rating
+	 * @throws FileNotFoundException
+	 * @throws IllegalArgumentException This happens for the following conditions:
+	 *         <ul>
+	 *         <li>the workload trace file name is null or empty
+	 *         <li>the resource PE rating <= 0
+	 *         </ul>
+	 * @pre fileName != null
+	 * @pre rating > 0
+	 * @post $none
+	 */
+	public ParallelWorkloadFileReader(final String fileName, final int rating)
+			throws FileNotFoundException {
+		if (fileName == null || fileName.length() == 0) {
+			throw new IllegalArgumentException("Invalid trace file name.");
+		} else if (rating <= 0) {
+			throw new IllegalArgumentException("Resource PE rating must be > 0.");
+		}
+
+		file = new File(fileName);
+		if (!file.exists()) {
+			throw new FileNotFoundException("Workload trace " + fileName + " does not exist");
+		}
+
+		this.rating = rating;
+		threads = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Reads job information from the given file. The jobs are read once and kept, as in
+	 * {@link WorkloadFileReader#generateWorkload()}.
+	 *
+	 * @return the list of gridlets read from the file
+	 * @throws IllegalStateException if the file could not be read
+	 */
+	@Override
+	public List<Cloudlet> generateWorkload() {
+		if (jobs == null) {
+			try {
+				jobs = readWorkload();
+			} catch (final IOException e) {
+				throw new IllegalStateException("Error reading workload trace " + file.getName(), e);
+			}
+		}
+		return jobs;
+	}
+
+	/**
+	 * Reads all the jobs of the given file. The blocks of the trace are parsed in parallel into
+	 * primitive columns, and the Cloudlets are only created once the whole trace is parsed.
+	 *
+	 * @return the list of gridlets read from the file, in file order
+	 * @throws IOException if the there was any error reading the file
+	 */
+	public List<Cloudlet> readWorkload() throws IOException {
+		malformedLineCount = 0;
+		final List<ParsedBlock> blocks = new ArrayList<ParsedBlock>();
+		int size = 0;
+
+		final ParsedBlockIterator it = new ParsedBlockIterator();
+		try {
+			ParsedBlock block;
+			while ((block = it.next()) != null) {
+				blocks.add(block);
+				size += block.size;
+				malformedLineCount += block.malformed;
+			}
+		} finally {
+			it.close();
+		}
+
+		final UtilizationModel utilizationModel = new UtilizationModelFull();
+		final List<Cloudlet> list = new ArrayList<Cloudlet>(size);
+		for (final ParsedBlock block : blocks) {
+			for (int i = 0; i < block.size; i++) {
+				list.add(createJob(block, i, list.size() + 1, utilizationModel));
+			}
+		}
+
+		logMalformedLines();
+		return list;
+	}
+
+	/**
+	 * Reads job information from the given file lazily. The blocks of the trace are still parsed
+	 * in parallel ahead of the consumer, but only a bounded number of them is kept in memory, and
+	 * each Cloudlet is created when it is requested. The returned iterator can be submitted to
+	 * {@link org.cloudbus.cloudsim.DatacenterBroker#submitCloudletStream(Iterator, int)}. If the
+	 * jobs are not consumed to the end, the reader must be closed.
+	 *
+	 * @return an iterator over the jobs of the trace file, in file order
+	 * @throws IOException if the file could not be opened
+	 */
+	public Iterator<Cloudlet> streamWorkload() throws IOException {
+		malformedLineCount = 0;
+		return new JobIterator();
+	}
+
+	/**
+	 * Stops the parsing threads of the reads of the trace still in progress, and releases the file.
+	 * The iterators returned by {@link #streamWorkload()} end once the reader is closed. The reader
+	 * can still be read again afterwards.
+	 */
+	@Override
+	public void close() {
+		for (final ParsedBlockIterator read : new ArrayList<ParsedBlockIterator>(openReads)) {
+			read.close();
+		}
+	}
+
+	/**
+	 * Gets the number of malformed lines skipped by the last read of the trace. While a trace is
+	 * streamed, the count covers the blocks consumed so far.
+	 *
+	 * @return the number of malformed lines
+	 */
+	public long getMalformedLineCount() {
+		return malformedLineCount;
+	}
+
+	/**
+	 * Sets the number of threads parsing the trace.
+	 *
+	 * @param threads the number of threads
+	 * @throws IllegalArgumentException if the number of threads is not positive
+	 * @pre threads > 0
+	 * @post $none
+	 */
+	public void setThreads(final int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Number of threads must be > 0.");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Gets the number of threads parsing the trace.
+	 *
+	 * @return the number of threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Identifies the start of a comment line.
+	 *
+	 * @param cmt a character that denotes the start of a comment, e.g. ";" or "#"
+	 * @return <code>true</code> if it is successful, <code>false</code> otherwise
+	 * @pre comment != null
+	 * @post $none
+	 */
+	public boolean setComment(final String cmt) {
+		return format.setComment(cmt);
+	}
+
+	/**
+	 * Tells this class what to look in the trace file, as
+	 * {@link WorkloadFileReader#setField(int, int, int, int, int)} does. This method should be
+	 * called before the start of the simulation.
+	 *
+	 * @param maxField max. number of field/column in one row
+	 * @param jobNum field/column number for locating the job ID
+	 * @param submitTime field/column number for locating the job submit time
+	 * @param runTime field/column number for locating the job run time
+	 * @param numProc field/column number for locating the number of PEs required to run a job
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 * @throws IllegalArgumentException if any of the arguments are not within the acceptable ranges
+	 * @pre maxField > 0
+	 * @pre submitTime > 0
+	 * @pre runTime > 0
+	 * @pre numProc > 0
+	 * @post $none
+	 */
+	public boolean setField(
+			final int maxField,
+			final int jobNum,
+			final int submitTime,
+			final int runTime,
+			final int numProc) {
+		return format.setField(maxField, jobNum, submitTime, runTime, numProc);
+	}
+
+	// ------------------- PRIVATE METHODS -------------------
+
+	/**
+	 * Creates a Gridlet from a parsed job.
+	 *
+	 * @param block the parsed block holding the job
+	 * @param index the index of the job in the block
+	 * @param nextId the id of the job when the job number field is irrelevant
+	 * @param utilizationModel the utilization model shared by all the jobs
+	 * @return the created Gridlet
+	 */
+	private Cloudlet createJob(
+			final ParsedBlock block,
+			final int index,
+			final int nextId,
+			final UtilizationModel utilizationModel) {
+		final int id = format.JOB_NUM == IRRELEVANT ? nextId : block.ids[index];
+		final long len = (long) block.runTimes[index] * rating;
+		final Cloudlet job = new Cloudlet(
+				id,
+				len,
+				block.numProcs[index],
+				0,
+				0,
+				utilizationModel,
+				utilizationModel,
+				utilizationModel);
+		job.setArrivalTime(block.submitTimes[index]);
+		return job;
+	}
+
+	/**
+	 * Parses all the lines of a block of the trace.
+	 *
+	 * @param buffer the block, from its position to its limit
+	 * @return the jobs of the block
+	 */
+	private ParsedBlock parseBlock(final ByteBuffer buffer) {
+		final byte[] comment = format.COMMENT.getBytes();
+		final ParsedBlock block = new ParsedBlock(buffer.remaining() / 64 + 16);
+		final int[] starts = new int[format.MAX_FIELD];
+		final int[] ends = new int[format.MAX_FIELD];
+		final int limit = buffer.limit();
+		int pos = buffer.position();
+		while (pos < limit) {
+			int lineEnd = pos;
+			while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			parseLine(buffer, pos, lineEnd, comment, starts, ends, block);
+			pos = lineEnd + 1;
+		}
+		return block;
+	}
+
+	/**
+	 * Breaks a line into fields and extracts the job it holds, following the rules of
+	 * {@link WorkloadFileReader}.
+	 *
+	 * @param buffer the block holding the line
+	 * @param start the index of the first byte of the line
+	 * @param end the index after the last byte of the line
+	 * @param comment the bytes that denote the start of a comment
+	 * @param starts a temp array for the start index of each field
+	 * @param ends a temp array for the end index of each field
+	 * @param block the parsed block the job is added to
+	 */
+	private void parseLine(
+			final ByteBuffer buffer,
+			final int start,
+			final int end,
+			final byte[] comment,
+			final int[] starts,
+			final int[] ends,
+			final ParsedBlock block) {
+		// skip a comment line
+		if (isComment(buffer, start, end, comment)) {
+			return;
+		}
+
+		int count = 0;
+		int i = start;
+		while (true) {
+			while (i < end && isSpace(buffer.get(i))) {
+				i++;
+			}
+			if (i >= end) {
+				break;
+			}
+			if (count == format.MAX_FIELD) { // too many fields
+				block.malformed++;
+				return;
+			}
+			starts[count] = i;
+			while (i < end && !isSpace(buffer.get(i))) {
+				i++;
+			}
+			ends[count] = i;
+			count++;
+		}
+
+		if (count == 0) { // blank line
+			return;
+		}
+		if (count != format.MAX_FIELD) {
+			block.malformed++;
+			return;
+		}
+
+		long id = 0;
+		if (format.JOB_NUM != IRRELEVANT) {
+			id = parseNumber(buffer, starts[format.JOB_NUM], ends[format.JOB_NUM]);
+		}
+		final long submitTime = parseNumber(buffer, starts[format.SUBMIT_TIME], ends[format.SUBMIT_TIME]);
+		final long reqRunTime = parseNumber(buffer, starts[format.REQ_RUN_TIME], ends[format.REQ_RUN_TIME]);
+		long runTime = parseNumber(buffer, starts[format.RUN_TIME], ends[format.RUN_TIME]);
+		final long userId = parseNumber(buffer, starts[format.USER_ID], ends[format.USER_ID]);
+		final long groupId = parseNumber(buffer, starts[format.GROUP_ID], ends[format.GROUP_ID]);
+		long numProc = parseNumber(buffer, starts[format.REQ_NUM_PROC], ends[format.REQ_NUM_PROC]);
+
+		// if the required num of allocated processors field is ignored
+		// or zero, then use the actual field
+		if (numProc == IRRELEVANT || numProc == 0) {
+			numProc = parseNumber(buffer, starts[format.NUM_PROC], ends[format.NUM_PROC]);
+		}
+
+		if (!isInt(id) || submitTime == INVALID || !isInt(reqRunTime) || !isInt(runTime)
+				|| !isInt(userId) || !isInt(groupId) || !isInt(numProc)) {
+			block.malformed++;
+			return;
+		}
+
+		// according to the SWF manual, runtime of 0 is possible due
+		// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
+		if (runTime <= 0) {
+			runTime = 1; // change to 1 second
+		}
+
+		// finally, check if the num of PEs required is valid or not
+		if (numProc <= 0) {
+			numProc = 1;
+		}
+
+		block.add((int) id, submitTime, (int) runTime, (int) numProc);
+	}
+
+	/**
+	 * Checks if a line starts with the comment bytes.
+	 *
+	 * @param buffer the block holding the line
+	 * @param start the index of the first byte of the line
+	 * @param end the index after the last byte of the line
+	 * @param comment the bytes that denote the start of a comment
+	 * @return <code>true</code> if the line is a comment
+	 */
+	private static boolean isComment(final ByteBuffer buffer, final int start, final int end, final byte[] comment) {
+		if (end - start < comment.length) {
+			return false;
+		}
+		for (int i = 0; i < comment.length; i++) {
+			if (buffer.get(start + i) != comment[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if a byte is a white space, as matched by <tt>\s</tt>.
+	 *
+	 * @param b the byte
+	 * @return <code>true</code> if the byte is a white space
+	 */
+	private static boolean isSpace(final byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+	}
+
+	/**
+	 * Checks if a parsed number fits an <tt>int</tt>, as {@link Integer#Integer(String)} requires.
+	 *
+	 * @param value the number, or {@link #INVALID}
+	 * @return <code>true</code> if the number is valid and fits an <tt>int</tt>
+	 */
+	private static boolean isInt(final long value) {
+		return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Parses a decimal integer from the bytes of a field, as {@link Long#Long(String)} does.
+	 *
+	 * @param buffer the block holding the field
+	 * @param start the index of the first byte of the field
+	 * @param end the index after the last byte of the field
+	 * @return the number, or {@link #INVALID} if the field is not an integer that fits a
+	 *         <tt>long</tt>
+	 */
+	private static long parseNumber(final ByteBuffer buffer, final int start, final int end) {
+		int i = start;
+		boolean negative = false;
+		final byte sign = buffer.get(i);
+		if (sign == '-' || sign == '+') {
+			negative = sign == '-';
+			i++;
+		}
+
+		if (i == end) {
+			return INVALID;
+		}
+
+		// accumulate negatively, so that Long.MIN_VALUE + 1 to Long.MAX_VALUE fit
+		long value = 0;
+		for (; i < end; i++) {
+			final byte b = buffer.get(i);
+			if (b < '0' || b > '9') { // a fractional part, or not a number
+				return INVALID;
+			}
+			final int digit = b - '0';
+			if (value < (Long.MIN_VALUE + digit) / 10) {
+				return INVALID;
+			}
+			value = value * 10 - digit;
+		}
+		return negative ? value : -value;
+	}
+
+	/**
+	 * Logs the number of malformed lines found by the last read, if any.
+	 */
+	private void logMalformedLines() {
+		if (malformedLineCount > 0) {
+			Log.printLine("ParallelWorkloadFileReader: " + malformedLineCount
+					+ " malformed line(s) skipped in " + file.getName());
+		}
+	}
+
+	/**
+	 * Opens the trace file as a source of blocks.
+	 *
+	 * @return the source of blocks of the trace
+	 * @throws IOException if the file could not be opened
+	 */
+	private BlockSource openBlockSource() throws IOException {
+		if (file.getName().endsWith(".gz")) {
+			return new StreamBlockSource(new GZIPInputStream(new FileInputStream(file)), false);
+		} else if (file.getName().endsWith(".zip")) {
+			return new StreamBlockSource(new ZipInputStream(new FileInputStream(file)), true);
+		}
+		return new MappedBlockSource();
+	}
+
+	/**
+	 * The jobs parsed from a block of the trace, stored as primitive columns.
+	 */
+	private static class ParsedBlock {
+
+		/** The job ids. */
+		private int[] ids;
+
+		/** The submit times. */
+		private long[] submitTimes;
+
+		/** The run times. */
+		private int[] runTimes;
+
+		/** The number of processors. */
+		private int[] numProcs;
+
+		/** The number of jobs. */
+		private int size;
+
+		/** The number of malformed lines. */
+		private int malformed;
+
+		/**
+		 * Instantiates a new parsed block.
+		 *
+		 * @param capacity the initial capacity
+		 */
+		public ParsedBlock(final int capacity) {
+			ids = new int[capacity];
+			submitTimes = new long[capacity];
+			runTimes = new int[capacity];
+			numProcs = new int[capacity];
+		}
+
+		/**
+		 * Adds a job.
+		 *
+		 * @param id the job id
+		 * @param submitTime the submit time
+		 * @param runTime the run time
+		 * @param numProc the number of processors
+		 */
+		public void add(final int id, final long submitTime, final int runTime, final int numProc) {
+			if (size == ids.length) {
+				final int capacity = size * 2;
+				ids = Arrays.copyOf(ids, capacity);
+				submitTimes = Arrays.copyOf(submitTimes, capacity);
+				runTimes = Arrays.copyOf(runTimes, capacity);
+				numProcs = Arrays.copyOf(numProcs, capacity);
+			}
+			ids[size] = id;
+			submitTimes[size] = submitTime;
+			runTimes[size] = runTime;
+			numProcs[size] = numProc;
+			size++;
+		}
+	}
+
+	/**
+	 * A source of blocks of the trace, each ending on a line boundary.
+	 */
+	private interface BlockSource {
+
+		/**
+		 * Gets the next block.
+		 *
+		 * @return the next block, or <code>null</code> at the end of the trace
+		 * @throws IOException if the there was any error reading the file
+		 */
+		ByteBuffer nextBlock() throws IOException;
+
+		/**
+		 * Releases the file.
+		 */
+		void close();
+	}
+
+	/**
+	 * Splits a plain text trace into memory-mapped blocks.
+	 */
+	private class MappedBlockSource implements BlockSource {
+
+		/** The file input stream. */
+		private final FileInputStream input;
+
+		/** The file channel. */
+		private final FileChannel channel;
+
+		/** The size of the file. */
+		private final long size;
+
+		/** The position of the next block. */
+		private long position;
+
+		/**
+		 * Opens the trace file.
+		 *
+		 * @throws IOException if the file could not be opened
+		 */
+		public MappedBlockSource() throws IOException {
+			input = new FileInputStream(file);
+			channel = input.getChannel();
+			size = channel.size();
+		}
+
+		@Override
+		public ByteBuffer nextBlock() throws IOException {
+			if (position >= size) {
+				return null;
+			}
+
+			long length = Math.min(BLOCK_SIZE, size - position);
+			while (true) {
+				final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				if (position + length == size) {
+					position = size;
+					return buffer;
+				}
+
+				// cut the block after its last new line
+				int last = (int) length - 1;
+				while (last >= 0 && buffer.get(last) != '\n') {
+					last--;
+				}
+				if (last >= 0) {
+					buffer.limit(last + 1);
+					position += last + 1;
+					return buffer;
+				}
+
+				// a line longer than the block
+				length = Math.min(length * 2, size - position);
+			}
+		}
+
+		@Override
+		public void close() {
+			try {
+				input.close();
+			} catch (final IOException e) {
+			}
+		}
+	}
+
+	/**
+	 * Splits a compressed trace into blocks. A dedicated thread decompresses the trace into a
+	 * bounded queue of blocks, so decompression runs in parallel with parsing.
+	 */
+	private class StreamBlockSource implements BlockSource, Runnable {
+
+		/** The decompressed input. */
+		private final InputStream input;
+
+		/** Whether the input is a zip stream, to be read entry by entry. */
+		private final boolean zip;
+
+		/** The decompressed blocks. */
+		private final BlockingQueue<ByteBuffer> queue;
+
+		/** The decompression thread. */
+		private final Thread thread;
+
+		/** The error raised while decompressing, if any. */
+		private volatile IOException error;
+
+		/** Whether the end of the blocks was reached. */
+		private boolean finished;
+
+		/**
+		 * Starts decompressing the trace.
+		 *
+		 * @param input the decompressed input
+		 * @param zip whether the input is a zip stream
+		 * @throws IOException if the first zip entry could not be read
+		 */
+		public StreamBlockSource(final InputStream input, final boolean zip) throws IOException {
+			this.input = input;
+			this.zip = zip;
+			queue = new ArrayBlockingQueue<ByteBuffer>(threads * BLOCKS_PER_THREAD);
+			thread = new Thread(this, "ParallelWorkloadFileReader-decompression");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		@Override
+		public void run() {
+			try {
+				boolean hasEntry = !zip || ((ZipInputStream) input).getNextEntry() != null;
+				byte[] block = new byte[BLOCK_SIZE];
+				int filled = 0;
+				while (hasEntry) {
+					final int n = input.read(block, filled, block.length - filled);
+					if (n < 0) { // end of the entry, whose last line may lack a new line
+						if (filled > 0) {
+							queue.put(ByteBuffer.wrap(block, 0, filled));
+							block = new byte[BLOCK_SIZE];
+							filled = 0;
+						}
+						hasEntry = zip && ((ZipInputStream) input).getNextEntry() != null;
+						continue;
+					}
+
+					filled += n;
+					if (filled < block.length) {
+						continue;
+					}
+
+					// cut the block after its last new line
+					int last = filled - 1;
+					while (last >= 0 && block[last] != '\n') {
+						last--;
+					}
+					if (last < 0) { // a line longer than the block
+						block = Arrays.copyOf(block, block.length * 2);
+						continue;
+					}
+
+					final byte[] next = new byte[Math.max(BLOCK_SIZE, filled - last - 1)];
+					System.arraycopy(block, last + 1, next, 0, filled - last - 1);
+					queue.put(ByteBuffer.wrap(block, 0, last + 1));
+					filled -= last + 1;
+					block = next;
+				}
+			} catch (final IOException e) {
+				error = e;
+			} catch (final InterruptedException e) {
+				return;
+			} finally {
+				try {
+					input.close();
+				} catch (final IOException e) {
+				}
+			}
+
+			try {
+				queue.put(END_OF_BLOCKS);
+			} catch (final InterruptedException e) {
+			}
+		}
+
+		@Override
+		public ByteBuffer nextBlock() throws IOException {
+			if (finished) {
+				return null;
+			}
+
+			final ByteBuffer block;
+			try {
+				block = queue.take();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while reading " + file.getName());
+			}
+
+			if (block == END_OF_BLOCKS) {
+				finished = true;
+				if (error != null) {
+					throw error;
+				}
+				return null;
+			}
+			return block;
+		}
+
+		@Override
+		public void close() {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Parses the blocks of the trace in parallel, and gives back the parsed blocks in file order.
+	 */
+	private class ParsedBlockIterator {
+
+		/** The source of blocks. */
+		private final BlockSource source;
+
+		/** The parsing threads. */
+		private final ExecutorService executor;
+
+		/** The blocks being parsed, in file order. */
+		private final LinkedList<Future<ParsedBlock>> pending = new LinkedList<Future<ParsedBlock>>();
+
+		/** Whether all the blocks were submitted for parsing. */
+		private boolean sourceFinished;
+
+		/** Whether the parsing threads were stopped. */
+		private boolean closed;
+
+		/**
+		 * Opens the trace file and starts the parsing threads.
+		 *
+		 * @throws IOException if the file could not be opened
+		 */
+		public ParsedBlockIterator() throws IOException {
+			source = openBlockSource();
+			executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "ParallelWorkloadFileReader-parser");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			openReads.add(this);
+		}
+
+		/**
+		 * Gets the next parsed block. The parsing threads are stopped at the end of the trace, or
+		 * if the trace could not be read.
+		 *
+		 * @return the next parsed block, or <code>null</code> at the end of the trace or once
+		 *         closed
+		 * @throws IOException if the there was any error reading the file
+		 */
+		public ParsedBlock next() throws IOException {
+			if (closed) {
+				return null;
+			}
+
+			boolean failed = true;
+			try {
+				submitBlocks();
+				if (pending.isEmpty()) {
+					failed = false;
+					close();
+					return null;
+				}
+
+				final Future<ParsedBlock> future = pending.removeFirst();
+				submitBlocks();
+				final ParsedBlock block = future.get();
+				failed = false;
+				return block;
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while parsing " + file.getName());
+			} catch (final ExecutionException e) {
+				throw new IllegalStateException("Error parsing workload trace " + file.getName(),
+						e.getCause());
+			} finally {
+				if (failed) {
+					close();
+				}
+			}
+		}
+
+		/**
+		 * Submits blocks for parsing until enough of them are in progress.
+		 *
+		 * @throws IOException if the there was any error reading the file
+		 */
+		private void submitBlocks() throws IOException {
+			while (!sourceFinished && pending.size() < threads * BLOCKS_PER_THREAD) {
+				final ByteBuffer buffer = source.nextBlock();
+				if (buffer == null) {
+					sourceFinished = true;
+					break;
+				}
+				pending.add(executor.submit(new Callable<ParsedBlock>() {
+
+					@Override
+					public ParsedBlock call() {
+						return parseBlock(buffer);
+					}
+				}));
+			}
+		}
+
+		/**
+		 * Stops the parsing threads and releases the file.
+		 */
+		public void close() {
+			closed = true;
+			pending.clear();
+			executor.shutdownNow();
+			source.close();
+			openReads.remove(this);
+		}
+	}
+
+	/**
+	 * Lazily creates the jobs of the parsed blocks.
+	 */
+	private class JobIterator implements Iterator<Cloudlet> {
+
+		/** The parsed blocks. */
+		private final ParsedBlockIterator blocks;
+
+		/** The utilization model shared by all the jobs. */
+		private final UtilizationModel utilizationModel = new UtilizationModelFull();
+
+		/** The current block. */
+		private ParsedBlock block;
+
+		/** The index of the next job in the current block. */
+		private int index;
+
+		/** The number of jobs read so far. */
+		private int jobCount;
+
+		/** Whether the end of the trace was reached. */
+		private boolean finished;
+
+		/**
+		 * Opens the trace file.
+		 *
+		 * @throws IOException if the file could not be opened
+		 */
+		public JobIterator() throws IOException {
+			blocks = new ParsedBlockIterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (blocks.closed) { // the reader was closed, or the trace fully read
+				block = null;
+			}
+			while (!finished && (block == null || index == block.size)) {
+				try {
+					block = blocks.next();
+				} catch (final IOException e) {
+					throw new IllegalStateException("Error reading workload trace " + file.getName(), e);
+				}
+				index = 0;
+				if (block == null) {
+					finished = true;
+					logMalformedLines();
+				} else {
+					malformedLineCount += block.malformed;
+				}
+			}
+			return !finished;
+		}
+
+		@Override
+		public Cloudlet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			jobCount++;
+			return createJob(block, index++, jobCount, utilizationModel);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * The latest values of a series, with the sufficient statistics of their least squares regression.
+ * The latest value is placed at x = n, where n is the length of the window, the one before at
+ * x = n - 1, and so on down to x = 1; the missing values of a series shorter than the window are
+ * zeros. Adding a value slides the window and updates the statistics in O(1).
+ *
+ * As the statistics are linear in the values, the window of a weighted sum of series is the
+ * weighted sum of their windows, see {@link #addScaled(SlidingWindowRegression, double)}.
+ *
+ * Which of the latest values are non-zero is also kept, over a history that may be longer than the
+ * window, see {@link #getNonZeroCount()}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SlidingWindowRegression {
+
+	/** The length of the window. */
+	private final int length;
+
+	/** The number of latest values whose being non-zero is kept. */
+	private final int historyLength;
+
+	/** The values, in a ring. */
+	private final double[] values;
+
+	/** The position of the latest value in the ring. */
+	private int head;
+
+	/** The number of values in the window. */
+	private int size;
+
+	/** The sum of the values. */
+	private double sum;
+
+	/** The sum of the values times their x. */
+	private double moment;
+
+	/** The non-zero values of the history: bit i is set if the i-th latest value is not zero. */
+	private int nonZeroMask;
+
+	/** The number of values added since the sums were last computed from the values. */
+	private int updates;
+
+	/**
+	 * Instantiates a new empty window, keeping the non-zero values of the window only.
+	 *
+	 * @param length the length of the window, from 2 to 31
+	 */
+	public SlidingWindowRegression(int length) {
+		this(length, length);
+	}
+
+	/**
+	 * Instantiates a new empty window.
+	 *
+	 * @param length the length of the window, from 2 to 31
+	 * @param historyLength the number of latest values whose being non-zero is kept, from the
+	 *            length of the window to 31
+	 */
+	public SlidingWindowRegression(int length, int historyLength) {
+		if (length < 2 || length > 31) {
+			throw new IllegalArgumentException("Window length must be from 2 to 31.");
+		}
+		if (historyLength < length || historyLength > 31) {
+			throw new IllegalArgumentException("History length must be from " + length + " to 31.");
+		}
+		this.length = length;
+		this.historyLength = historyLength;
+		values = new double[length];
+		head = length - 1;
+	}
+
+	/**
+	 * Instantiates a copy of a window.
+	 *
+	 * @param window the window
+	 */
+	public SlidingWindowRegression(SlidingWindowRegression window) {
+		length = window.length;
+		historyLength = window.historyLength;
+		values = window.values.clone();
+		head = window.head;
+		size = window.size;
+		sum = window.sum;
+		moment = window.moment;
+		nonZeroMask = window.nonZeroMask;
+		updates = window.updates;
+	}
+
+	/**
+	 * Adds the latest value, dropping the oldest one if the window is full.
+	 *
+	 * @param value the value
+	 */
+	public void add(double value) {
+		head = (head + 1) % length;
+		double dropped = values[head];
+		values[head] = value;
+		if (size < length) {
+			size++;
+		}
+		nonZeroMask = ((nonZeroMask << 1) | (value != 0 ? 1 : 0)) & ((1 << historyLength) - 1);
+
+		// every kept value moves one step to the left, and the dropped one was at x = 1
+		if (++updates < length) {
+			moment = moment - sum + length * value;
+			sum = sum - dropped + value;
+		} else {
+			// the sums are computed again from time to time, so that rounding errors do not add up
+			computeSums();
+		}
+	}
+
+	/**
+	 * Adds a window multiplied by a factor to this one, value by value.
+	 *
+	 * @param window the window, of the same length
+	 * @param factor the factor
+	 */
+	public void addScaled(SlidingWindowRegression window, double factor) {
+		if (window.length != length || window.historyLength != historyLength) {
+			throw new IllegalArgumentException("Window lengths differ: " + window.length + " and " + length);
+		}
+		for (int i = 0; i < window.size; i++) {
+			values[index(i)] += factor * window.get(i);
+		}
+		size = Math.max(size, window.size);
+		sum += factor * window.sum;
+		moment += factor * window.moment;
+		nonZeroMask |= window.nonZeroMask;
+	}
+
+	/**
+	 * Gets the length of the window.
+	 *
+	 * @return the length
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Gets the number of values in the window.
+	 *
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param i the position of the value, 0 for the latest one
+	 * @return the value
+	 */
+	public double get(int i) {
+		return values[index(i)];
+	}
+
+	/**
+	 * Gets the values, from the oldest one at x = 1 to the latest one.
+	 *
+	 * @return a new array of the values
+	 */
+	public double[] toArray() {
+		double[] array = new double[length];
+		for (int i = 0; i < length; i++) {
+			array[length - i - 1] = get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Gets the number of values of the history from the latest one back to the oldest non-zero
+	 * one, that is, the length of the history once its oldest zero values are trimmed, as
+	 * {@link MathUtil#trimZeroTail(double[])} does.
+	 *
+	 * @return the number of values up to the oldest non-zero one
+	 */
+	public int getNonZeroCount() {
+		return Integer.SIZE - Integer.numberOfLeadingZeros(nonZeroMask);
+	}
+
+	/**
+	 * Gets the sum of the values.
+	 *
+	 * @return the sum
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * Gets the sum of the values times their x.
+	 *
+	 * @return the moment
+	 */
+	public double getMoment() {
+		return moment;
+	}
+
+	/**
+	 * Gets the least squares estimates of the intercept and the slope of the values.
+	 *
+	 * @return the intercept and the slope
+	 */
+	public double[] getParameterEstimates() {
+		double n = length;
+		double sumX = n * (n + 1) / 2;
+		double sumXX = n * (n + 1) * (2 * n + 1) / 6;
+		double slope = (n * moment - sumX * sum) / (n * sumXX - sumX * sumX);
+		double intercept = (sum - slope * sumX) / n;
+		return new double[] { intercept, slope };
+	}
+
+	/**
+	 * Gets the position in the ring of a value.
+	 *
+	 * @param i the position of the value, 0 for the latest one
+	 * @return the position in the ring
+	 */
+	private int index(int i) {
+		int index = head - i;
+		return index < 0 ? index + length : index;
+	}
+
+	/**
+	 * Computes the sums from the values.
+	 */
+	private void computeSums() {
+		sum = 0;
+		moment = 0;
+		for (int i = 0; i < size; i++) {
+			double value = get(i);
+			sum += value;
+			moment += (length - i) * value;
+		}
+		updates = 0;
+	}
+
+}
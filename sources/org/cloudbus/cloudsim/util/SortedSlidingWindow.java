@@ -0,0 +1,190 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The latest values of a series, kept both in the order they were added and sorted, so that their
+ * median, percentiles, MAD and IQR are read without copying or sorting them. Adding a value finds
+ * the place of the new value, and of the dropped one, by binary search, and shifts the values in
+ * between.
+ *
+ * The statistics are estimated as {@link MathUtil} estimates them.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SortedSlidingWindow {
+
+	/** The values, in a ring. */
+	private final double[] values;
+
+	/** The values, sorted. */
+	private final double[] sorted;
+
+	/** The read-only view of the values, latest first. */
+	private final List<Double> list = new ValueList();
+
+	/** The position of the latest value in the ring. */
+	private int head;
+
+	/** The number of values in the window. */
+	private int size;
+
+	/**
+	 * Instantiates a new empty window.
+	 *
+	 * @param length the length of the window
+	 */
+	public SortedSlidingWindow(int length) {
+		if (length < 1) {
+			throw new IllegalArgumentException("Window length must be positive.");
+		}
+		values = new double[length];
+		sorted = new double[length];
+		head = length - 1;
+	}
+
+	/**
+	 * Adds the latest value, dropping the oldest one if the window is full.
+	 *
+	 * @param value the value
+	 */
+	public void add(double value) {
+		int length = values.length;
+		head = (head + 1) % length;
+		if (size == length) {
+			int index = Arrays.binarySearch(sorted, 0, size, values[head]);
+			System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+			size--;
+		}
+		values[head] = value;
+
+		int index = Arrays.binarySearch(sorted, 0, size, value);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		System.arraycopy(sorted, index, sorted, index + 1, size - index);
+		sorted[index] = value;
+		size++;
+	}
+
+	/**
+	 * Gets the length of the window.
+	 *
+	 * @return the length
+	 */
+	public int getLength() {
+		return values.length;
+	}
+
+	/**
+	 * Gets the number of values in the window.
+	 *
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param i the position of the value, 0 for the latest one
+	 * @return the value
+	 */
+	public double get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+		int index = head - i;
+		return values[index < 0 ? index + values.length : index];
+	}
+
+	/**
+	 * Gets a read-only view of the values, the latest one first. The view follows the window as
+	 * values are added.
+	 *
+	 * @return the values
+	 */
+	public List<Double> asList() {
+		return list;
+	}
+
+	/**
+	 * Gets the k-th smallest value.
+	 *
+	 * @param k the rank of the value, 0 for the smallest one
+	 * @return the value
+	 */
+	public double getOrderStatistic(int k) {
+		if (k < 0 || k >= size) {
+			throw new IndexOutOfBoundsException("Index: " + k + ", Size: " + size);
+		}
+		return sorted[k];
+	}
+
+	/**
+	 * Gets a percentile of the values.
+	 *
+	 * @param p the percentile, in (0, 100]
+	 * @return the percentile, or NaN if the window is empty
+	 */
+	public double getPercentile(double p) {
+		return MathUtil.percentileOfSorted(sorted, size, p);
+	}
+
+	/**
+	 * Gets the median of the values.
+	 *
+	 * @return the median, or NaN if the window is empty
+	 */
+	public double getMedian() {
+		return getPercentile(50);
+	}
+
+	/**
+	 * Gets the median absolute deviation of the values.
+	 *
+	 * @return the MAD, or 0 if the window is empty
+	 */
+	public double getMad() {
+		return MathUtil.madOfSorted(sorted, size);
+	}
+
+	/**
+	 * Gets the interquartile range of the values.
+	 *
+	 * @return the IQR
+	 */
+	public double getIqr() {
+		return MathUtil.iqrOfSorted(sorted, size);
+	}
+
+	/**
+	 * A read-only view of the values, the latest one first.
+	 */
+	private class ValueList extends AbstractList<Double> implements RandomAccess {
+
+		@Override
+		public Double get(final int index) {
+			return SortedSlidingWindow.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+}
@@ -0,0 +1,388 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
+import org.cloudbus.cloudsim.distributions.SplitMix64;
+
+/**
+ * This class generates a synthetic workload: jobs whose arrivals, lengths and numbers of PEs are
+ * drawn from distributions of the {@link org.cloudbus.cloudsim.distributions} package.
+ * <p>
+ * <b>NOTE:</b>
+ * <ul>
+ * <li>The gaps between arrivals are drawn from the inter-arrival time distribution, and the
+ * arrival rate is modulated over the day and during bursts by thinning: candidate arrivals are
+ * drawn at the highest rate of the current period, and each one is kept with the probability of
+ * the rate at its time over that highest rate. With exponential inter-arrival times, the arrivals
+ * are a non-homogeneous Poisson process.
+ * <li>The rate at time t is multiplied by
+ * <tt>1 + amplitude * cos(2 * PI * (t - peakTime) / period)</tt> when diurnal modulation is set,
+ * and by the factor of each burst that t falls in.
+ * <li>The jobs are streamed lazily, in arrival order, with {@link #streamWorkload()}, so that
+ * millions of them can be fed to a broker through
+ * {@link org.cloudbus.cloudsim.DatacenterBroker#submitCloudletStream(Iterator, int)} without
+ * keeping them in memory. {@link #generateWorkload()} keeps them all, and is meant for small
+ * workloads.
+ * <li>The workload ends after the max number of jobs, or at the horizon, whichever comes first.
+ * </ul>
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see WorkloadFileReader
+ */
+public class SyntheticWorkloadGenerator implements WorkloadModel {
+
+	/**
+	 * Creates the utilization model of each generated job.
+	 */
+	public interface UtilizationModelFactory {
+
+		/**
+		 * Creates the utilization model of a job.
+		 *
+		 * @param cloudletId the id of the job
+		 * @return the utilization model of its cpu, ram and bw
+		 */
+		UtilizationModel create(int cloudletId);
+
+	}
+
+	private final ContinuousDistribution interArrivalTime; // gaps between arrivals
+
+	private final ContinuousDistribution length; // length of the jobs, in MI
+
+	private ContinuousDistribution pes = null; // number of PEs of the jobs, 1 if null
+
+	private UtilizationModelFactory utilizationModelFactory = null; // full utilization if null
+
+	private final long seed; // seed of the thinning of the arrivals
+
+	private int maxJobs = Integer.MAX_VALUE; // max number of jobs
+
+	private double horizon = Double.POSITIVE_INFINITY; // time after which no job arrives
+
+	private double diurnalAmplitude = 0; // amplitude of the diurnal modulation, in [0, 1]
+
+	private double diurnalPeriod = 24 * 60 * 60; // period of the diurnal modulation
+
+	private double diurnalPeakTime = 0; // time of a peak of the diurnal modulation
+
+	private final List<double[]> bursts = new ArrayList<double[]>(); // start, end and factor
+
+	private List<Cloudlet> jobs = null; // the jobs generated by generateWorkload()
+
+	/**
+	 * Create a new SyntheticWorkloadGenerator object.
+	 *
+	 * @param interArrivalTime the distribution of the time between two arrivals, at the base rate
+	 * @param length the distribution of the length of the jobs, in MI
+	 * @param seed the seed of the random numbers used to modulate the arrival rate
+	 * @throws IllegalArgumentException if a distribution is <tt>null</tt>
+	 * @pre interArrivalTime != null
+	 * @pre length != null
+	 * @post $none
+	 */
+	public SyntheticWorkloadGenerator(
+			final ContinuousDistribution interArrivalTime,
+			final ContinuousDistribution length,
+			final long seed) {
+		if (interArrivalTime == null || length == null) {
+			throw new IllegalArgumentException("The distributions must not be null.");
+		}
+		this.interArrivalTime = interArrivalTime;
+		this.length = length;
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the distribution of the number of PEs of the jobs. Samples are rounded, and are at least
+	 * 1.
+	 *
+	 * @param pes the distribution, or <tt>null</tt> for one PE per job
+	 */
+	public void setPes(final ContinuousDistribution pes) {
+		this.pes = pes;
+	}
+
+	/**
+	 * Sets the factory of the utilization models of the jobs.
+	 *
+	 * @param utilizationModelFactory the factory, or <tt>null</tt> for a full utilization
+	 */
+	public void setUtilizationModelFactory(final UtilizationModelFactory utilizationModelFactory) {
+		this.utilizationModelFactory = utilizationModelFactory;
+	}
+
+	/**
+	 * Sets the max number of jobs.
+	 *
+	 * @param maxJobs the max number of jobs
+	 * @throws IllegalArgumentException if the number is negative
+	 */
+	public void setMaxJobs(final int maxJobs) {
+		if (maxJobs < 0) {
+			throw new IllegalArgumentException("The max number of jobs must not be negative.");
+		}
+		this.maxJobs = maxJobs;
+	}
+
+	/**
+	 * Sets the horizon: no job arrives after it.
+	 *
+	 * @param horizon the horizon
+	 */
+	public void setHorizon(final double horizon) {
+		this.horizon = horizon;
+	}
+
+	/**
+	 * Sets the diurnal modulation of the arrival rate.
+	 *
+	 * @param amplitude the amplitude, in [0, 1]; 0 for no modulation
+	 * @param period the period, such as a day
+	 * @param peakTime the time of a peak of the arrival rate
+	 * @throws IllegalArgumentException if the amplitude is not in [0, 1], or the period is not
+	 *             positive
+	 */
+	public void setDiurnalModulation(final double amplitude, final double period, final double peakTime) {
+		if (amplitude < 0 || amplitude > 1) {
+			throw new IllegalArgumentException("The amplitude must be in [0, 1].");
+		}
+		if (period <= 0) {
+			throw new IllegalArgumentException("The period must be > 0.");
+		}
+		diurnalAmplitude = amplitude;
+		diurnalPeriod = period;
+		diurnalPeakTime = peakTime;
+	}
+
+	/**
+	 * Adds a burst: the arrival rate is multiplied by a factor during a period.
+	 *
+	 * @param start the start of the burst
+	 * @param duration the duration of the burst
+	 * @param factor the factor of the arrival rate; below 1 for a lull
+	 * @throws IllegalArgumentException if the duration is not positive or the factor is negative
+	 */
+	public void addBurst(final double start, final double duration, final double factor) {
+		if (duration <= 0 || factor < 0) {
+			throw new IllegalArgumentException("The duration must be > 0 and the factor >= 0.");
+		}
+		bursts.add(new double[] { start, start + duration, factor });
+	}
+
+	/**
+	 * Generates all the jobs of the workload.
+	 *
+	 * @return the jobs, in arrival order
+	 * @throws IllegalStateException if the workload has neither a max number of jobs nor a horizon
+	 */
+	@Override
+	public List<Cloudlet> generateWorkload() {
+		if (jobs == null) {
+			if (maxJobs == Integer.MAX_VALUE && Double.isInfinite(horizon)) {
+				throw new IllegalStateException("Set a max number of jobs or a horizon first.");
+			}
+			jobs = new ArrayList<Cloudlet>();
+			Iterator<Cloudlet> stream = streamWorkload();
+			while (stream.hasNext()) {
+				jobs.add(stream.next());
+			}
+		}
+		return jobs;
+	}
+
+	/**
+	 * Generates the jobs lazily: each call to {@link Iterator#next()} draws the next job. The
+	 * arrival time of each job is set, so that the jobs can be streamed to a broker through
+	 * {@link org.cloudbus.cloudsim.DatacenterBroker#submitCloudletStream(Iterator, int)}. The
+	 * thinning starts over from the seed for each stream, while the distributions go on with their
+	 * own random numbers.
+	 *
+	 * @return an iterator over the jobs, in arrival order
+	 */
+	public Iterator<Cloudlet> streamWorkload() {
+		return new JobIterator();
+	}
+
+	/**
+	 * Gets the multiplier of the arrival rate at a time.
+	 *
+	 * @param time the time
+	 * @return the multiplier
+	 */
+	public double getRateMultiplier(final double time) {
+		return getDiurnalMultiplier(time) * getBurstMultiplier(time);
+	}
+
+	/**
+	 * Gets the diurnal multiplier of the arrival rate at a time.
+	 *
+	 * @param time the time
+	 * @return the multiplier
+	 */
+	private double getDiurnalMultiplier(final double time) {
+		if (diurnalAmplitude == 0) {
+			return 1;
+		}
+		return 1 + diurnalAmplitude * Math.cos(2 * Math.PI * (time - diurnalPeakTime) / diurnalPeriod);
+	}
+
+	/**
+	 * Gets the product of the factors of the bursts a time falls in.
+	 *
+	 * @param time the time
+	 * @return the multiplier
+	 */
+	private double getBurstMultiplier(final double time) {
+		double multiplier = 1;
+		for (double[] burst : bursts) {
+			if (time >= burst[0] && time < burst[1]) {
+				multiplier *= burst[2];
+			}
+		}
+		return multiplier;
+	}
+
+	/**
+	 * Gets the first start or end of a burst after a time.
+	 *
+	 * @param time the time
+	 * @return the next burst boundary, or infinity if there is none
+	 */
+	private double getNextBurstBoundary(final double time) {
+		double next = Double.POSITIVE_INFINITY;
+		for (double[] burst : bursts) {
+			if (burst[0] > time && burst[0] < next) {
+				next = burst[0];
+			}
+			if (burst[1] > time && burst[1] < next) {
+				next = burst[1];
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Lazily draws the jobs of the workload.
+	 */
+	private class JobIterator implements Iterator<Cloudlet> {
+
+		/** The random numbers of the thinning. */
+		private final Random thinning = new SplitMix64(seed);
+
+		/** The time of the last arrival. */
+		private double time = 0;
+
+		/** The number of jobs drawn so far. */
+		private int jobCount = 0;
+
+		/** The next job to be returned. */
+		private Cloudlet nextJob;
+
+		@Override
+		public boolean hasNext() {
+			if (nextJob == null && jobCount < maxJobs) {
+				double arrival = nextArrival();
+				if (!Double.isInfinite(arrival) && arrival <= horizon) {
+					time = arrival;
+					nextJob = createJob(jobCount, arrival);
+				} else {
+					jobCount = maxJobs;
+				}
+			}
+			return nextJob != null;
+		}
+
+		@Override
+		public Cloudlet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Cloudlet job = nextJob;
+			nextJob = null;
+			jobCount++;
+			return job;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Draws the time of the next arrival. The bursts change the rate only at their boundaries,
+		 * so a candidate that goes past a boundary is dropped, and the drawing starts over from the
+		 * boundary at the rate that holds after it.
+		 *
+		 * @return the time of the next arrival, or infinity if there is none before the horizon
+		 */
+		private double nextArrival() {
+			double t = time;
+			while (t <= horizon) {
+				double maxRate = (1 + diurnalAmplitude) * getBurstMultiplier(t);
+				double boundary = getNextBurstBoundary(t);
+				if (maxRate == 0) {
+					if (Double.isInfinite(boundary)) {
+						break;
+					}
+					t = boundary;
+					continue;
+				}
+				double candidate = t + interArrivalTime.sample() / maxRate;
+				if (candidate >= boundary) {
+					t = boundary;
+				} else {
+					t = candidate;
+					if (thinning.nextDouble() * maxRate < getRateMultiplier(t)) {
+						return t;
+					}
+				}
+			}
+			return Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * Creates a job.
+		 *
+		 * @param id the id of the job
+		 * @param arrival the arrival time of the job
+		 * @return the job
+		 */
+		private Cloudlet createJob(final int id, final double arrival) {
+			final long len = Math.max(1, Math.round(length.sample()));
+			final int numProc = pes == null ? 1 : (int) Math.max(1, Math.round(pes.sample()));
+			final UtilizationModel utilizationModel = utilizationModelFactory == null
+					? new UtilizationModelFull()
+					: utilizationModelFactory.create(id);
+			final Cloudlet job = new Cloudlet(
+					id,
+					len,
+					numProc,
+					0,
+					0,
+					utilizationModel,
+					utilizationModel,
+					utilizationModel);
+			job.setArrivalTime(arrival);
+			return job;
+		}
+
+	}
+
+}
@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim.util;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -16,9 +17,12 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
@@ -69,31 +73,8 @@ public class WorkloadFileReader implements WorkloadModel {
 
 	// Gridlets
 
-	// using Standard Workload Format
-	private int JOB_NUM = 1 - 1; // job number
+	private final WorkloadFormat format = new WorkloadFormat(); // the layout of the trace lines
 
-	private int SUBMIT_TIME = 2 - 1; // submit time of a Gridlet
-
-	private final int RUN_TIME = 4 - 1; // running time of a Gridlet
-
-	private final int NUM_PROC = 5 - 1; // number of processors needed for a
-
-	// Gridlet
-	private int REQ_NUM_PROC = 8 - 1; // required number of processors
-
-	private int REQ_RUN_TIME = 9 - 1; // required running time
-
-	private final int USER_ID = 12 - 1; // if of user who submitted the job
-
-	private final int GROUP_ID = 13 - 1; // if of group of the user who
-
-	// submitted the
-	// job
-	private int MAX_FIELD = 18; // max number of field in the trace file
-
-	private String COMMENT = ";"; // a string that denotes the start of a
-
-	// comment
 	private static final int IRRELEVANT = -1; // irrelevant number
 
 	private String[] fieldArray = null; // a temp array storing all the fields
@@ -140,7 +121,7 @@ public class WorkloadFileReader implements WorkloadModel {
 			jobs = new ArrayList<Cloudlet>();
 
 			// create a temp array
-			fieldArray = new String[MAX_FIELD];
+			fieldArray = new String[format.MAX_FIELD];
 
 			try {
 				if (file.getName().endsWith(".gz")) {
@@ -158,6 +139,22 @@ public class WorkloadFileReader implements WorkloadModel {
 		return jobs;
 	}
 
+	/**
+	 * Reads job information from the given file lazily. Unlike {@link #generateWorkload()}, the
+	 * jobs are not kept in memory: each call to {@link Iterator#next()} parses lines of the trace
+	 * until the next job is found. The arrival time of each job is set from its submit time, so
+	 * the jobs can be streamed to a broker through
+	 * {@link org.cloudbus.cloudsim.DatacenterBroker#submitCloudletStream(Iterator, int)}. The trace
+	 * file is closed once the last job is read or a read fails; an iterator that is not read to
+	 * the end must be closed by the caller.
+	 * 
+	 * @return an iterator over the jobs of the trace file, in file order
+	 * @throws IOException if the file could not be opened
+	 */
+	public JobIterator streamWorkload() throws IOException {
+		return new JobIterator();
+	}
+
 	/**
 	 * Identifies the start of a comment line.
 	 * 
@@ -167,12 +164,7 @@ public class WorkloadFileReader implements WorkloadModel {
 	 * @post $none
 	 */
 	public boolean setComment(final String cmt) {
-		boolean success = false;
-		if (cmt != null && cmt.length() > 0) {
-			COMMENT = cmt;
-			success = true;
-		}
-		return success;
+		return format.setComment(cmt);
 	}
 
 	/**
@@ -206,50 +198,13 @@ public class WorkloadFileReader implements WorkloadModel {
 			final int submitTime,
 			final int runTime,
 			final int numProc) {
-		// need to subtract by 1 since array starts at 0.
-		if (jobNum > 0) {
-			JOB_NUM = jobNum - 1;
-		} else if (jobNum == 0) {
-			throw new IllegalArgumentException("Invalid job number field.");
-		} else {
-			JOB_NUM = -1;
-		}
-
-		// get the max. number of field
-		if (maxField > 0) {
-			MAX_FIELD = maxField;
-		} else {
-			throw new IllegalArgumentException("Invalid max. number of field.");
-		}
-
-		// get the submit time field
-		if (submitTime > 0) {
-			SUBMIT_TIME = submitTime - 1;
-		} else {
-			throw new IllegalArgumentException("Invalid submit time field.");
-		}
-
-		// get the run time field
-		if (runTime > 0) {
-			REQ_RUN_TIME = runTime - 1;
-		} else {
-			throw new IllegalArgumentException("Invalid run time field.");
-		}
-
-		// get the number of processors field
-		if (numProc > 0) {
-			REQ_NUM_PROC = numProc - 1;
-		} else {
-			throw new IllegalArgumentException("Invalid number of processors field.");
-		}
-
-		return true;
+		return format.setField(maxField, jobNum, submitTime, runTime, numProc);
 	}
 
 	// ------------------- PRIVATE METHODS -------------------
 
 	/**
-	 * Creates a Gridlet with the given information and adds to the list
+	 * Creates a Gridlet with the given information
 	 * 
 	 * @param id a Gridlet ID
 	 * @param submitTime Gridlet's submit time
@@ -258,13 +213,14 @@ public class WorkloadFileReader implements WorkloadModel {
 	 * @param reqRunTime user estimated run time
 	 * @param userID user id
 	 * @param groupID user's group id
+	 * @return the created Gridlet
 	 * @pre id >= 0
 	 * @pre submitTime >= 0
 	 * @pre runTime >= 0
 	 * @pre numProc > 0
 	 * @post $none
 	 */
-	private void createJob(
+	private Cloudlet createJob(
 			final int id,
 			final long submitTime,
 			final int runTime,
@@ -284,7 +240,8 @@ public class WorkloadFileReader implements WorkloadModel {
 				utilizationModel,
 				utilizationModel,
 				utilizationModel);
-		jobs.add(wgl);
+		wgl.setArrivalTime(submitTime);
+		return wgl;
 	}
 
 	/**
@@ -292,37 +249,39 @@ public class WorkloadFileReader implements WorkloadModel {
 	 * 
 	 * @param array an array of String
 	 * @param line a line number
+	 * @param nextId the id of the job when the job number field is irrelevant
+	 * @return the job, or <code>null</code> if the fields are invalid
 	 * @pre array != null
 	 * @pre line > 0
 	 */
-	private void extractField(final String[] array, final int line) {
+	private Cloudlet extractField(final String[] array, final int line, final int nextId) {
 		try {
 			Integer obj = null;
 
 			// get the job number
 			int id = 0;
-			if (JOB_NUM == IRRELEVANT) {
-				id = jobs.size() + 1;
+			if (format.JOB_NUM == IRRELEVANT) {
+				id = nextId;
 			} else {
-				obj = new Integer(array[JOB_NUM].trim());
+				obj = new Integer(array[format.JOB_NUM].trim());
 				id = obj.intValue();
 			}
 
 			// get the submit time
-			final Long l = new Long(array[SUBMIT_TIME].trim());
+			final Long l = new Long(array[format.SUBMIT_TIME].trim());
 			final long submitTime = l.intValue();
 
 			// get the user estimated run time
-			obj = new Integer(array[REQ_RUN_TIME].trim());
+			obj = new Integer(array[format.REQ_RUN_TIME].trim());
 			final int reqRunTime = obj.intValue();
 
 			// if the required run time field is ignored, then use
 			// the actual run time
-			obj = new Integer(array[RUN_TIME].trim());
+			obj = new Integer(array[format.RUN_TIME].trim());
 			int runTime = obj.intValue();
 
-			final int userID = new Integer(array[USER_ID].trim()).intValue();
-			final int groupID = new Integer(array[GROUP_ID].trim()).intValue();
+			final int userID = new Integer(array[format.USER_ID].trim()).intValue();
+			final int groupID = new Integer(array[format.GROUP_ID].trim()).intValue();
 
 			// according to the SWF manual, runtime of 0 is possible due
 			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
@@ -331,13 +290,13 @@ public class WorkloadFileReader implements WorkloadModel {
 			}
 
 			// get the number of allocated processors
-			obj = new Integer(array[REQ_NUM_PROC].trim());
+			obj = new Integer(array[format.REQ_NUM_PROC].trim());
 			int numProc = obj.intValue();
 
 			// if the required num of allocated processors field is ignored
 			// or zero, then use the actual field
 			if (numProc == IRRELEVANT || numProc == 0) {
-				obj = new Integer(array[NUM_PROC].trim());
+				obj = new Integer(array[format.NUM_PROC].trim());
 				numProc = obj.intValue();
 			}
 
@@ -345,10 +304,11 @@ public class WorkloadFileReader implements WorkloadModel {
 			if (numProc <= 0) {
 				numProc = 1;
 			}
-			createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
+			return createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
 		} catch (final Exception e) {
 
 		}
+		return null;
 	}
 
 	/**
@@ -356,14 +316,17 @@ public class WorkloadFileReader implements WorkloadModel {
 	 * 
 	 * @param line a line of string
 	 * @param lineNum a line number
+	 * @param fields a temp array storing all the fields
+	 * @param nextId the id of the job when the job number field is irrelevant
+	 * @return the job, or <code>null</code> if the line does not hold a job
 	 * @pre line != null
 	 * @pre lineNum > 0
 	 * @post $none
 	 */
-	private void parseValue(final String line, final int lineNum) {
+	private Cloudlet parseValue(final String line, final int lineNum, final String[] fields, final int nextId) {
 		// skip a comment line
-		if (line.startsWith(COMMENT)) {
-			return;
+		if (line.startsWith(format.COMMENT)) {
+			return null;
 		}
 
 		final String[] sp = line.split("\\s+"); // split the fields based on a
@@ -379,12 +342,33 @@ public class WorkloadFileReader implements WorkloadModel {
 			if (len == 0) {
 				continue;
 			}
-			fieldArray[index] = elem;
+			// a line with extra fields is malformed, and is skipped like a line with missing fields
+			if (index == format.MAX_FIELD) {
+				return null;
+			}
+			fields[index] = elem;
 			index++;
 		}
 
-		if (index == MAX_FIELD) {
-			extractField(fieldArray, lineNum);
+		if (index == format.MAX_FIELD) {
+			return extractField(fields, lineNum, nextId);
+		}
+		return null;
+	}
+
+	/**
+	 * Parses one line of the trace and adds the job it holds, if any, to the list.
+	 * 
+	 * @param line a line of string
+	 * @param lineNum a line number
+	 * @pre line != null
+	 * @pre lineNum > 0
+	 * @post $none
+	 */
+	private void parseValue(final String line, final int lineNum) {
+		final Cloudlet job = parseValue(line, lineNum, fieldArray, jobs.size() + 1);
+		if (job != null) {
+			jobs.add(job);
 		}
 	}
 
@@ -492,4 +476,119 @@ public class WorkloadFileReader implements WorkloadModel {
 
 		return success;
 	}
+
+	/**
+	 * Lazily reads the jobs of the trace file, one line at the time. Zip files are read entry by
+	 * entry, as {@link #readZipFile(File)} does.
+	 */
+	public class JobIterator implements Iterator<Cloudlet>, Closeable {
+
+		/** The zip stream, if the trace is a zip file. */
+		private ZipInputStream zipInput;
+
+		/** The reader of the current file or zip entry. */
+		private BufferedReader reader;
+
+		/** A temp array storing all the fields of a line. */
+		private final String[] fields = new String[format.MAX_FIELD];
+
+		/** The current line number. */
+		private int lineNum = 0;
+
+		/** The number of jobs read so far. */
+		private int jobCount = 0;
+
+		/** The next job to be returned. */
+		private Cloudlet nextJob;
+
+		/**
+		 * Opens the trace file.
+		 * 
+		 * @throws IOException if the file could not be opened
+		 */
+		private JobIterator() throws IOException {
+			final FileInputStream input = new FileInputStream(file);
+			try {
+				if (file.getName().endsWith(".gz")) {
+					reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(input)));
+				} else if (file.getName().endsWith(".zip")) {
+					zipInput = new ZipInputStream(input);
+					if (zipInput.getNextEntry() != null) {
+						reader = new BufferedReader(new InputStreamReader(zipInput));
+					} else {
+						zipInput.close();
+					}
+				} else {
+					reader = new BufferedReader(new InputStreamReader(input));
+				}
+			} catch (final IOException e) {
+				input.close();
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (nextJob == null && reader != null) {
+					final String line = reader.readLine();
+					if (line == null) {
+						nextEntry();
+						continue;
+					}
+					lineNum++;
+					nextJob = parseValue(line, lineNum, fields, jobCount + 1);
+				}
+			} catch (final IOException e) {
+				close();
+				throw new IllegalStateException("Error reading workload trace " + file.getName(), e);
+			}
+			return nextJob != null;
+		}
+
+		@Override
+		public Cloudlet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Cloudlet job = nextJob;
+			nextJob = null;
+			jobCount++;
+			return job;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Moves to the next zip entry, or closes the trace file at its end.
+		 * 
+		 * @throws IOException if the there was any error reading the file
+		 */
+		private void nextEntry() throws IOException {
+			if (zipInput != null && zipInput.getNextEntry() != null) {
+				reader = new BufferedReader(new InputStreamReader(zipInput));
+				lineNum = 0;
+			} else {
+				close();
+			}
+		}
+
+		/**
+		 * Closes the trace file. The iterator has no more jobs afterwards.
+		 */
+		@Override
+		public void close() {
+			try {
+				if (reader != null) {
+					reader.close();
+				}
+			} catch (final IOException e) {
+			}
+			reader = null;
+			nextJob = null;
+		}
+	}
 }
@@ -0,0 +1,124 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * The layout of the lines of a workload trace, shared by {@link WorkloadFileReader} and
+ * {@link ParallelWorkloadFileReader}: the comment string and the fields/columns holding each
+ * information of a job. By default, it follows the standard workload format as specified in <a
+ * href="http://www.cs.huji.ac.il/labs/parallel/workload/">
+ * http://www.cs.huji.ac.il/labs/parallel/workload/</a>.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+class WorkloadFormat {
+
+	// using Standard Workload Format
+	int JOB_NUM = 1 - 1; // job number
+
+	int SUBMIT_TIME = 2 - 1; // submit time of a Gridlet
+
+	final int RUN_TIME = 4 - 1; // running time of a Gridlet
+
+	final int NUM_PROC = 5 - 1; // number of processors needed for a Gridlet
+
+	int REQ_NUM_PROC = 8 - 1; // required number of processors
+
+	int REQ_RUN_TIME = 9 - 1; // required running time
+
+	final int USER_ID = 12 - 1; // if of user who submitted the job
+
+	final int GROUP_ID = 13 - 1; // if of group of the user who submitted the job
+
+	int MAX_FIELD = 18; // max number of field in the trace file
+
+	String COMMENT = ";"; // a string that denotes the start of a comment
+
+	/**
+	 * Identifies the start of a comment line.
+	 *
+	 * @param cmt a character that denotes the start of a comment, e.g. ";" or "#"
+	 * @return <code>true</code> if it is successful, <code>false</code> otherwise
+	 * @pre comment != null
+	 * @post $none
+	 */
+	boolean setComment(final String cmt) {
+		boolean success = false;
+		if (cmt != null && cmt.length() > 0) {
+			COMMENT = cmt;
+			success = true;
+		}
+		return success;
+	}
+
+	/**
+	 * Tells what to look in the trace file. The parameters must be a positive integer number
+	 * starting from 1. A special case is where <tt>jobNum == -1</tt>, meaning the job or gridlet
+	 * ID starts at 1.
+	 *
+	 * @param maxField max. number of field/column in one row
+	 * @param jobNum field/column number for locating the job ID
+	 * @param submitTime field/column number for locating the job submit time
+	 * @param runTime field/column number for locating the job run time
+	 * @param numProc field/column number for locating the number of PEs required to run a job
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 * @throws IllegalArgumentException if any of the arguments are not within the acceptable ranges
+	 * @pre maxField > 0
+	 * @pre submitTime > 0
+	 * @pre runTime > 0
+	 * @pre numProc > 0
+	 * @post $none
+	 */
+	boolean setField(
+			final int maxField,
+			final int jobNum,
+			final int submitTime,
+			final int runTime,
+			final int numProc) {
+		// need to subtract by 1 since array starts at 0.
+		if (jobNum > 0) {
+			JOB_NUM = jobNum - 1;
+		} else if (jobNum == 0) {
+			throw new IllegalArgumentException("Invalid job number field.");
+		} else {
+			JOB_NUM = -1;
+		}
+
+		// get the max. number of field
+		if (maxField > 0) {
+			MAX_FIELD = maxField;
+		} else {
+			throw new IllegalArgumentException("Invalid max. number of field.");
+		}
+
+		// get the submit time field
+		if (submitTime > 0) {
+			SUBMIT_TIME = submitTime - 1;
+		} else {
+			throw new IllegalArgumentException("Invalid submit time field.");
+		}
+
+		// get the run time field
+		if (runTime > 0) {
+			REQ_RUN_TIME = runTime - 1;
+		} else {
+			throw new IllegalArgumentException("Invalid run time field.");
+		}
+
+		// get the number of processors field
+		if (numProc > 0) {
+			REQ_NUM_PROC = numProc - 1;
+		} else {
+			throw new IllegalArgumentException("Invalid number of processors field.");
+		}
+
+		return true;
+	}
+
+}